@@ -0,0 +1,21 @@
+#!/usr/bin/env sh
+# Compares two JMH JSON result files (-rf json) benchmark by benchmark:
+#   src/jmh/compare.sh target/jmh-<base>.json target/jmh-<head>.json | column -t -s "$(printf '\t')"
+# Prints, tab separated, the score of both runs with their errors and the change in percent. Whether
+# higher is better depends on the mode (thrpt: higher, avgt: lower); a change within the errors is noise.
+set -e
+if [ $# -ne 2 ]; then
+  echo "usage: $0 <base.json> <head.json>" >&2
+  exit 1
+fi
+
+jq -r -n --slurpfile base "$1" --slurpfile head "$2" '
+  def key: .benchmark + ((.params // {}) | to_entries | map(" " + .key + "=" + .value) | join(""));
+  def num: if type == "number" then . * 1000 | round / 1000 | tostring else "?" end;
+  def score: "\(.score | num) ±\(.scoreError | num)";
+  ($base[0] | map({key: key, value: .primaryMetric}) | from_entries) as $b
+  | ["benchmark", "mode", "base", "head", "unit", "change"],
+    ($head[0][] | key as $k | select($b[$k]) | .primaryMetric as $h | $b[$k] as $o
+      | [$k, .mode, ($o | score), ($h | score), $h.scoreUnit,
+         "\(($h.score - $o.score) / $o.score * 1000 | round / 10)%"])
+  | @tsv'
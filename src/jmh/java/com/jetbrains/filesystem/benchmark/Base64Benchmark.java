@@ -0,0 +1,56 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jetbrains.filesystem.dto.file.ReadFileSegmentResponse;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base64 encoding of the buffers {@code readFileSegment} produces: a heap buffer (positional read) and a
+ * direct buffer (what an mmap or a block cache hands back). {@code encode} is {@link FileUtil#encodeBase64}
+ * (a {@code byte[]} copy and a {@code String}), {@code serialize} is how the response is written now,
+ * streamed through Jackson. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Base64Benchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    @Param({"heap", "direct"})
+    public String buffer;
+
+    private ByteBuffer data;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() {
+        byte[] raw = new byte[size];
+        new Random(42).nextBytes(raw);
+        data = buffer.equals("direct") ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        data.put(raw).flip();
+        mapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String encode() {
+        // encodeBase64 consumes the buffer, hand it a fresh view every time
+        return FileUtil.encodeBase64(data.duplicate());
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), new ReadFileSegmentResponse(data));
+    }
+}
@@ -0,0 +1,76 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.storage.ParallelTreeCopier;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive copy of a tree of {@code files} small files (100 per directory):
+ * {@code sequential} is {@link FileUtil#copyPath}, {@code parallel} is {@link ParallelTreeCopier}.
+ * Each invocation copies into a fresh target; targets are removed after every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int files;
+
+    @Param({"8"})
+    public int parallelism;
+
+    private Path root;
+    private Path source;
+    private ParallelTreeCopier copier;
+    private int targets;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("copy-bench");
+        source = root.resolve("source");
+        byte[] content = new byte[4096];
+        for (int i = 0; i < files; i++) {
+            Path dir = source.resolve("dir-" + (i / 100));
+            if (i % 100 == 0) Files.createDirectories(dir);
+            Files.write(dir.resolve("file-" + i), content);
+        }
+
+        FileServiceProperties props = new FileServiceProperties();
+        props.getCopy().setParallelism(parallelism);
+        copier = new ParallelTreeCopier(props);
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeTargets() throws IOException {
+        for (int i = 0; i < targets; i++) {
+            FileUtil.deletePath(root.resolve("target-" + i));
+        }
+        targets = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        copier.close();
+        FileUtil.deletePath(root);
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        FileUtil.copyPath(source, root.resolve("target-" + targets++));
+    }
+
+    @Benchmark
+    public void parallel() throws IOException {
+        copier.copy(source, root.resolve("target-" + targets++));
+    }
+}
@@ -0,0 +1,77 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.storage.LocalFileStorage;
+import com.jetbrains.filesystem.storage.StorageFixture;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of listing a flat directory with {@code children} entries (metadata cache disabled).
+ * <p>
+ * {@code perFileCalls} is the former pipeline ({@code File.listFiles} then {@code length()} and
+ * {@code isDirectory()} per child, two stats each); {@code storage} is {@link LocalFileStorage#getFileInfolist},
+ * one attribute read per child relative to the open directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryListingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int children;
+
+    private Path dir;
+    private StorageFixture fixture;
+    private LocalFileStorage storage;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("listing-bench");
+        byte[] content = new byte[16];
+        for (int i = 0; i < children; i++) {
+            if (i % 10 == 0) {
+                Files.createDirectory(dir.resolve("dir-" + i));
+            } else {
+                Files.write(dir.resolve("file-" + i + ".txt"), content);
+            }
+        }
+
+        FileServiceProperties props = new FileServiceProperties();
+        props.getMetadataCache().setEnabled(false);
+        fixture = new StorageFixture(props);
+        storage = fixture.localStorage();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.close();
+        FileUtil.deletePath(dir);
+    }
+
+    @Benchmark
+    public void perFileCalls(Blackhole bh) {
+        File[] files = dir.toFile().listFiles();
+        for (File f : files) {
+            bh.consume(new FileInfo(f.getName(), dir.resolve(f.getName()).toString(), f.length(), f.isDirectory()));
+        }
+    }
+
+    @Benchmark
+    public void storage(Blackhole bh) {
+        for (FileInfo info : storage.getFileInfolist(dir)) {
+            bh.consume(info);
+        }
+    }
+}
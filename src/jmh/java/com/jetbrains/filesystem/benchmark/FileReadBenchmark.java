@@ -0,0 +1,75 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.jetbrains.filesystem.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileUtil#readFileToBuffer(FileChannel, long, int, long)} on both sides of the mmap threshold:
+ * {@code heap} forces a positional read into a heap buffer, {@code mmap} maps the segment. Each page of
+ * the result is touched, so the page faults of a mapping are part of the score. Segments start at a
+ * random page-aligned offset of a {@code fileSize} file (page-cache warm after the first iterations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileReadBenchmark {
+    private static final int PAGE = 4096;
+
+    @Param({"1048576", "67108864"})
+    public long fileSize;
+
+    @Param({"4096", "65536", "1048576"})
+    public int length;
+
+    @Param({"heap", "mmap"})
+    public String path;
+
+    private Path file;
+    private FileChannel channel;
+    private long mmapThreshold;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("read-bench", ".bin");
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(42).nextBytes(chunk);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < fileSize; written += chunk.length) {
+                out.write(ByteBuffer.wrap(chunk, 0, (int) Math.min(chunk.length, fileSize - written)));
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        mmapThreshold = path.equals("mmap") ? 0 : Long.MAX_VALUE;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long pages = Math.max(1, (fileSize - length) / PAGE);
+        long offset = (random.nextLong() & Long.MAX_VALUE) % pages * PAGE;
+        ByteBuffer buffer = FileUtil.readFileToBuffer(channel, offset, length, mmapThreshold);
+        long sum = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i += PAGE) {
+            sum += buffer.get(i);
+        }
+        return sum;
+    }
+}
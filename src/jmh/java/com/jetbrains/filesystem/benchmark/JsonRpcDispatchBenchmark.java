@@ -0,0 +1,115 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jetbrains.filesystem.config.JacksonConfig;
+import com.jetbrains.filesystem.dispatch.JsonRpcCall;
+import com.jetbrains.filesystem.dispatch.JsonRpcStreamReader;
+import com.jetbrains.filesystem.dto.file.AppendDataToFileParams;
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
+import com.jetbrains.filesystem.registry.JsonRpcHandlerRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-decoding cost of the JSON-RPC endpoint, without any file I/O.
+ * <p>
+ * {@code tree} is the former controller path (JsonNode tree, then two {@code convertValue} calls per entry),
+ * {@code streaming} is {@link JsonRpcStreamReader}. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} (bytes allocated per request).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRpcDispatchBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadBytes;
+
+    @Param({"1", "16"})
+    public int batchSize;
+
+    private ObjectMapper objectMapper;
+    private JsonRpcHandlerRegistry registry;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        objectMapper = new JacksonConfig().objectMapper();
+        registry = new JsonRpcHandlerRegistry(List.of(new NoopAppendHandler()));
+
+        byte[] raw = new byte[payloadBytes];
+        new Random(42).nextBytes(raw);
+        String data = Base64.getEncoder().encodeToString(raw);
+
+        StringBuilder sb = new StringBuilder();
+        if (batchSize > 1) sb.append('[');
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"jsonrpc\":\"2.0\",\"method\":\"appendDataToFile\",\"id\":").append(i)
+                    .append(",\"params\":{\"path\":\"logs/app.log\",\"data\":\"").append(data).append("\"}}");
+        }
+        if (batchSize > 1) sb.append(']');
+        body = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void tree(Blackhole bh) throws IOException {
+        JsonNode payload = objectMapper.readTree(new ByteArrayInputStream(body));
+        if (payload.isArray()) {
+            for (JsonNode node : payload) {
+                dispatchTree(node, bh);
+            }
+        } else {
+            dispatchTree(payload, bh);
+        }
+    }
+
+    private void dispatchTree(JsonNode node, Blackhole bh) {
+        JsonRpcRequest request = objectMapper.convertValue(node, JsonRpcRequest.class);
+        JsonRpcMethodHandler handler = registry.getHandler(request.getMethod());
+        Object params = objectMapper.convertValue(request.getParams(), handler.paramType());
+        bh.consume(handler.handle(params));
+    }
+
+    @Benchmark
+    public void streaming(Blackhole bh) throws IOException {
+        JsonParser parser = objectMapper.createParser(new ByteArrayInputStream(body));
+        try (JsonRpcStreamReader reader = new JsonRpcStreamReader(parser, objectMapper, registry)) {
+            JsonRpcCall call;
+            while ((call = reader.next()) != null) {
+                bh.consume(call.getHandler().handle(call.getParams()));
+            }
+        }
+    }
+
+    static class NoopAppendHandler implements JsonRpcMethodHandler<AppendDataToFileParams> {
+        @Override
+        public String method() {
+            return "appendDataToFile";
+        }
+
+        @Override
+        public Class<AppendDataToFileParams> paramType() {
+            return AppendDataToFileParams.class;
+        }
+
+        @Override
+        public Object handle(AppendDataToFileParams params) {
+            return params.getData().length;
+        }
+    }
+}
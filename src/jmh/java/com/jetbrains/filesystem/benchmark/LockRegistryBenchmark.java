@@ -0,0 +1,66 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.lock.FileLockRegistry;
+import com.jetbrains.filesystem.lock.LocalCaffeineLockRegistry;
+import com.jetbrains.filesystem.lock.StripedLockRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lookup plus lock/unlock through a {@link FileLockRegistry} from {@code @Threads} threads (override
+ * with {@code -t}): {@code caffeine} is {@link LocalCaffeineLockRegistry}, {@code striped} is
+ * {@link StripedLockRegistry} with its default 1024 stripes. Each operation picks one of {@code keys}
+ * paths at random, so {@code keys=1} is every thread fighting for one file and larger values spread the
+ * contention. {@code work} is the CPU spent while holding the lock, in {@link Blackhole#consumeCPU} tokens.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LockRegistryBenchmark {
+
+    @Param({"caffeine", "striped"})
+    public String registry;
+
+    @Param({"1", "16", "1024"})
+    public int keys;
+
+    @Param({"0", "100"})
+    public int work;
+
+    private FileLockRegistry locks;
+    private String[] paths;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        locks = registry.equals("striped")
+                ? new StripedLockRegistry(new FileServiceProperties(), meterRegistry)
+                : new LocalCaffeineLockRegistry(meterRegistry);
+        paths = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            paths[i] = "/tmp/my-root/logs/file-" + i + ".log";
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        ReentrantLock lock = locks.lock(paths[ThreadLocalRandom.current().nextInt(keys)]);
+        lock.lock();
+        try {
+            Blackhole.consumeCPU(work);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.jetbrains.filesystem.benchmark;
+
+import com.jetbrains.filesystem.FilesystemApplication;
+import com.jetbrains.filesystem.storage.FileStorage;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the request execution mode: {@code concurrency} clients each keep one
+ * {@code readFileSegment} in flight against the service, whose storage reads are slowed down by
+ * {@code latencyMs} (a sleep before every read, standing in for a slow disk). Prints throughput and
+ * latency percentiles of the measured window.
+ * <pre>
+ *   mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="platform 5000 50 30"
+ *   mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="virtual 5000 50 30"
+ * </pre>
+ * Arguments: mode ({@code platform} | {@code virtual}, the latter needs Java 21+), concurrency,
+ * read latency in ms, measured seconds (after a warm-up of a quarter of that).
+ */
+public class SlowReadLoadTest {
+    private static final int MAX_SAMPLES = 10_000_000;
+
+    static volatile long readLatencyMs;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        readLatencyMs = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        Path root = Files.createTempDirectory("load-root");
+        Files.write(root.resolve("data.bin"), new byte[64 * 1024]);
+        // command line arguments, so they win over application.yaml
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(FilesystemApplication.class, SlowReads.class)
+                .run("--server.port=0",
+                        "--fileservice.rootFolder=" + root,
+                        "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                        "--server.tomcat.max-connections=" + (concurrency + 1000),
+                        "--server.tomcat.accept-count=" + concurrency,
+                        "--logging.level.root=warn",
+                        "--logging.level.org.springframework=warn",
+                        "--logging.level.com.jetbrains.filesystem=warn");
+        int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/files"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"method\":\"readFileSegment\",\"id\":1,"
+                        + "\"params\":{\"path\":\"data.bin\",\"offset\":0,\"length\":4096}}"))
+                .build();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger samples = new AtomicInteger();
+        AtomicLong inFlight = new AtomicLong();
+        long[] latencies = new long[MAX_SAMPLES];
+
+        Runnable[] send = new Runnable[1];
+        send[0] = () -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                if (measuring.get()) {
+                    if (error != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        int i = samples.getAndIncrement();
+                        if (i < MAX_SAMPLES) latencies[i] = System.nanoTime() - start;
+                    }
+                }
+                if (running.get()) send[0].run();
+            });
+        };
+
+        System.out.printf("mode=%s java=%s concurrency=%d readLatency=%dms%n",
+                mode, System.getProperty("java.version"), concurrency, readLatencyMs);
+        for (int i = 0; i < concurrency; i++) {
+            send[0].run();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, seconds / 4)));
+        measuring.set(true);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        measuring.set(false);
+        running.set(false);
+
+        int n = Math.min(samples.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        System.out.printf("throughput: %.0f req/s, errors: %d%n", (double) samples.get() / seconds, errors.get());
+        if (n > 0) {
+            System.out.printf("latency ms: p50=%.1f p99=%.1f max=%.1f%n",
+                    sorted[n / 2] / 1e6, sorted[(int) (n * 0.99)] / 1e6, sorted[n - 1] / 1e6);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        app.close();
+        FileUtil.deletePath(root);
+        System.exit(0);
+    }
+
+    /**
+     * Not a {@code @Configuration}: only registered by {@link #main}, never picked up by component scanning.
+     */
+    static class SlowReads {
+        @Bean
+        static BeanPostProcessor slowStorageReads() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof FileStorage storage)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(FileStorage.class.getClassLoader(), new Class<?>[]{FileStorage.class},
+                            (proxy, method, args) -> {
+                                if (method.getName().equals("read") || method.getName().equals("transferTo")) {
+                                    Thread.sleep(readLatencyMs);
+                                }
+                                try {
+                                    return method.invoke(storage, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            });
+                }
+            };
+        }
+    }
+}
@@ -2,13 +2,32 @@ package com.jetbrains.filesystem.api;
 
 import com.jetbrains.filesystem.dto.file.*;
 
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface FileManager {
     GetFileInfoResponse getFileInfo(String relativePath);
     ListDirectoryResponse listDirectoryChildren(String relativePath);
+    ListDirectoryResponse listDirectoryChildren(String relativePath, String cursor, int limit);
+    ListDirectoryStreamResponse streamDirectoryChildren(String relativePath);
     CreateEntryResponse createEntry(String relativePath, String type);
     DeleteEntryResponse deleteEntry(String relativePath);
     MoveEntryResponse moveEntry(String sourcePath, String targetPath);
     CopyEntryResponse copyEntry(String sourcePath, String targetPath);
     ReadFileSegmentResponse readFile(String relativePath, long offset, int length);
+    ReadFileSegmentsResponse readFileSegments(String relativePath, List<SegmentRange> ranges);
+    CompletableFuture<TailFileResponse> tailFile(String relativePath, long offset, int length, long timeoutMs);
+    GetChecksumResponse getChecksum(String relativePath, String algorithm);
+    SearchContentResponse searchContent(String relativePath, String glob, String pattern, boolean regex,
+                                        int maxMatches, long timeoutMs);
+    long transferFile(String relativePath, long offset, long length, WritableByteChannel target);
     AppendDataToFileResponse appendDataToFile(String relativePath, String encodedData);
+    AppendDataToFileResponse appendDataToFile(String relativePath, byte[] data);
+    UploadStatusResponse beginUpload(String relativePath);
+    UploadStatusResponse getUpload(String uploadId);
+    UploadStatusResponse uploadChunk(String uploadId, long offset, InputStream data);
+    CommitUploadResponse commitUpload(String uploadId);
+    UploadStatusResponse abortUpload(String uploadId);
 }
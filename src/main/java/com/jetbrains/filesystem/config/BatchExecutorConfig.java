@@ -0,0 +1,80 @@
+package com.jetbrains.filesystem.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class BatchExecutorConfig {
+
+    /**
+     * Bounded pool for parallel batch entries. When the queue is full the submitting thread runs the entry
+     * itself, which throttles a single huge batch instead of rejecting it.
+     */
+    @Bean(name = "batchExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService batchExecutor(FileServiceProperties props) {
+        return boundedPool("rpc-batch-", props.getBatch());
+    }
+
+    /**
+     * Reads the data of {@code tailFile} calls woken by an append or timed out. Kept apart from the batch
+     * pool, so batch entries can never occupy the threads that complete the tails they are chained on.
+     */
+    @Bean(name = "tailExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService tailExecutor(FileServiceProperties props) {
+        return boundedPool("rpc-tail-", props.getBatch());
+    }
+
+    private static ExecutorService boundedPool(String namePrefix, FileServiceProperties.Batch batch) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                batch.getParallelism(), batch.getParallelism(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batch.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, namePrefix + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled} (Java 21+): one virtual thread per batch entry. At most
+     * {@code parallelism} entries do file work at a time; the others wait for a permit on their own virtual
+     * thread, never on the submitting one, so entries chained on earlier ones cannot starve each other.
+     */
+    @Bean(name = "batchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualBatchExecutor(FileServiceProperties props) {
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor("rpc-batch-");
+        threads.setVirtualThreads(true);
+        Semaphore permits = new Semaphore(props.getBatch().getParallelism());
+        return command -> threads.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled}: one virtual thread per woken {@code tailFile} read.
+     */
+    @Bean(name = "tailExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualTailExecutor() {
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor("rpc-tail-");
+        threads.setVirtualThreads(true);
+        return threads;
+    }
+}
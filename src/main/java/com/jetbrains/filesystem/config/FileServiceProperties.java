@@ -1,12 +1,34 @@
 package com.jetbrains.filesystem.config;
 
+import com.jetbrains.filesystem.dispatch.BatchMode;
+import com.jetbrains.filesystem.lock.LockMode;
+import com.jetbrains.filesystem.storage.AppendMode;
+import com.jetbrains.filesystem.storage.FsyncPolicy;
+import com.jetbrains.filesystem.storage.StorageBackend;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @ConfigurationProperties(prefix = "fileservice")
 public class FileServiceProperties {
     private String rootFolder;
+    private Batch batch = new Batch();
+    private MetadataCache metadataCache = new MetadataCache();
+    private Append append = new Append();
+    private ChannelPool channelPool = new ChannelPool();
+    private BlockCache blockCache = new BlockCache();
+    private Copy copy = new Copy();
+    private Trash trash = new Trash();
+    private Upload upload = new Upload();
+    private Lock lock = new Lock();
+    private Storage storage = new Storage();
+    private Checksum checksum = new Checksum();
+    private Search search = new Search();
 
     public String getRootFolder() {
         return rootFolder;
@@ -15,5 +37,513 @@ public class FileServiceProperties {
     public void setRootFolder(String rootFolder) {
         this.rootFolder = rootFolder;
     }
-}
 
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    public void setMetadataCache(MetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    public Append getAppend() {
+        return append;
+    }
+
+    public void setAppend(Append append) {
+        this.append = append;
+    }
+
+    public ChannelPool getChannelPool() {
+        return channelPool;
+    }
+
+    public void setChannelPool(ChannelPool channelPool) {
+        this.channelPool = channelPool;
+    }
+
+    public BlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    public void setBlockCache(BlockCache blockCache) {
+        this.blockCache = blockCache;
+    }
+
+    public Copy getCopy() {
+        return copy;
+    }
+
+    public void setCopy(Copy copy) {
+        this.copy = copy;
+    }
+
+    public Trash getTrash() {
+        return trash;
+    }
+
+    public void setTrash(Trash trash) {
+        this.trash = trash;
+    }
+
+    public Upload getUpload() {
+        return upload;
+    }
+
+    public void setUpload(Upload upload) {
+        this.upload = upload;
+    }
+
+    public Lock getLock() {
+        return lock;
+    }
+
+    public void setLock(Lock lock) {
+        this.lock = lock;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(Checksum checksum) {
+        this.checksum = checksum;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+
+    public static class Batch {
+        // default mode, can be overridden per request with the X-Batch-Mode header
+        private BatchMode mode = BatchMode.SEQUENTIAL;
+        private int parallelism = Runtime.getRuntime().availableProcessors() * 2;
+        private int queueCapacity = 1000;
+
+        public BatchMode getMode() {
+            return mode;
+        }
+
+        public void setMode(BatchMode mode) {
+            this.mode = mode;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class MetadataCache {
+        private boolean enabled = false;
+        private long maximumSize = 10_000;
+        // upper bound on staleness if a watch event is missed
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+        // invalidate on changes made outside the service through a WatchService
+        private boolean watch = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public boolean isWatch() {
+            return watch;
+        }
+
+        public void setWatch(boolean watch) {
+            this.watch = watch;
+        }
+    }
+
+    public static class Append {
+        private AppendMode mode = AppendMode.LOCKING;
+        private GroupCommit groupCommit = new GroupCommit();
+
+        public AppendMode getMode() {
+            return mode;
+        }
+
+        public void setMode(AppendMode mode) {
+            this.mode = mode;
+        }
+
+        public GroupCommit getGroupCommit() {
+            return groupCommit;
+        }
+
+        public void setGroupCommit(GroupCommit groupCommit) {
+            this.groupCommit = groupCommit;
+        }
+    }
+
+    public static class GroupCommit {
+        private FsyncPolicy fsync = FsyncPolicy.PER_BATCH;
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+        // how long the first append of a batch waits for others to join it
+        private Duration maxBatchDelay = Duration.ofMillis(2);
+        private int maxBatchBytes = 1024 * 1024;
+        private int writerThreads = 4;
+
+        public FsyncPolicy getFsync() {
+            return fsync;
+        }
+
+        public void setFsync(FsyncPolicy fsync) {
+            this.fsync = fsync;
+        }
+
+        public Duration getFsyncInterval() {
+            return fsyncInterval;
+        }
+
+        public void setFsyncInterval(Duration fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+        }
+
+        public Duration getMaxBatchDelay() {
+            return maxBatchDelay;
+        }
+
+        public void setMaxBatchDelay(Duration maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+        }
+
+        public int getMaxBatchBytes() {
+            return maxBatchBytes;
+        }
+
+        public void setMaxBatchBytes(int maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+    }
+
+    public static class ChannelPool {
+        private boolean enabled = true;
+        // upper bound on pooled file descriptors (leased channels are closed once released)
+        private long maxOpenFiles = 1024;
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxOpenFiles() {
+            return maxOpenFiles;
+        }
+
+        public void setMaxOpenFiles(long maxOpenFiles) {
+            this.maxOpenFiles = maxOpenFiles;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    public static class BlockCache {
+        private boolean enabled = false;
+        private int blockSize = 64 * 1024;
+        // direct memory used by cached blocks
+        private long maxBytes = 256L * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class Copy {
+        // threads copying files of a directory tree, shared by all copies; 1 = sequential walk
+        private int parallelism = 8;
+        // files at least this large are copied with FileChannel.transferTo
+        private long transferThreshold = 1024 * 1024;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public long getTransferThreshold() {
+            return transferThreshold;
+        }
+
+        public void setTransferThreshold(long transferThreshold) {
+            this.transferThreshold = transferThreshold;
+        }
+    }
+
+    public static class Trash {
+        // deleteEntry renames into the trash and returns; false = delete synchronously
+        private boolean enabled = true;
+        // hidden directory directly under the root
+        private String dirName = ".trash";
+        private int purgeThreads = 2;
+        // 0 = unthrottled
+        private int maxDeletesPerSecond = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirName() {
+            return dirName;
+        }
+
+        public void setDirName(String dirName) {
+            this.dirName = dirName;
+        }
+
+        public int getPurgeThreads() {
+            return purgeThreads;
+        }
+
+        public void setPurgeThreads(int purgeThreads) {
+            this.purgeThreads = purgeThreads;
+        }
+
+        public int getMaxDeletesPerSecond() {
+            return maxDeletesPerSecond;
+        }
+
+        public void setMaxDeletesPerSecond(int maxDeletesPerSecond) {
+            this.maxDeletesPerSecond = maxDeletesPerSecond;
+        }
+    }
+
+    public static class Upload {
+        // chunks of open upload sessions are staged here, in a subdirectory per root folder, until commit;
+        // staging files older than idleTimeout are removed at startup
+        private String stagingDir = Paths.get(System.getProperty("java.io.tmpdir"), "fileservice-uploads").toString();
+        // a session without any chunk, status or commit call for this long is dropped with its staged data
+        private Duration idleTimeout = Duration.ofHours(1);
+
+        public String getStagingDir() {
+            return stagingDir;
+        }
+
+        public void setStagingDir(String stagingDir) {
+            this.stagingDir = stagingDir;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    public static class Lock {
+        private LockMode mode = LockMode.STRIPED;
+        // rounded up to a power of two
+        private int stripes = 1024;
+
+        public LockMode getMode() {
+            return mode;
+        }
+
+        public void setMode(LockMode mode) {
+            this.mode = mode;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+    }
+
+    public static class Storage {
+        private StorageBackend backend = StorageBackend.LOCAL;
+        // memory backend: file contents are kept in direct buffers of this size
+        private int chunkSize = 64 * 1024;
+        // memory backend: appends fail once the chunks of all files would exceed this
+        private long maxBytes = 1024L * 1024 * 1024;
+        // sharded backend: directories the namespace under rootFolder is spread over, ideally one per volume
+        private List<String> shards = new ArrayList<>();
+        // sharded backend: entries are placed by the hash of the first prefix-depth names of their path
+        private int prefixDepth = 1;
+
+        public StorageBackend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(StorageBackend backend) {
+            this.backend = backend;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public List<String> getShards() {
+            return shards;
+        }
+
+        public void setShards(List<String> shards) {
+            this.shards = shards;
+        }
+
+        public int getPrefixDepth() {
+            return prefixDepth;
+        }
+
+        public void setPrefixDepth(int prefixDepth) {
+            this.prefixDepth = prefixDepth;
+        }
+    }
+
+    public static class Checksum {
+        // keep the digest state of each file so the next getChecksum only hashes what was appended since
+        private boolean incremental = true;
+        // files whose digest state is kept, least recently used dropped first
+        private long maxFiles = 10_000;
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        public long getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(long maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+    }
+
+    public static class Search {
+        // threads scanning files for searchContent, shared by all searches
+        private int parallelism = 4;
+        // files at least this large are scanned through mmap windows instead of a heap copy
+        private long mmapThreshold = 1024 * 1024;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public long getMmapThreshold() {
+            return mmapThreshold;
+        }
+
+        public void setMmapThreshold(long mmapThreshold) {
+            this.mmapThreshold = mmapThreshold;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jetbrains.filesystem.controller;
+
+import com.jetbrains.filesystem.api.FileManager;
+import com.jetbrains.filesystem.dto.file.GetFileInfoResponse;
+import com.jetbrains.filesystem.exception.*;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Binary companion of the JSON-RPC endpoint: serves raw file bytes (optionally a single HTTP
+ * {@code Range}) without base64, streaming them from the file channel into the response.
+ */
+@RestController
+@RequestMapping("/api/v1/files/content")
+@RequiredArgsConstructor
+@Log4j2
+public class FileContentController {
+    private final FileManager fileService;
+    private final PayloadMetrics metrics;
+
+    @GetMapping()
+    public void read(@RequestParam("path") String path,
+                     @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                     HttpServletResponse response) throws IOException {
+        GetFileInfoResponse info = fileService.getFileInfo(path);
+        if (info.isDirectory()) {
+            throw new NotFoundException("File not found");
+        }
+        long size = info.getSize();
+
+        long start = 0;
+        long length = size;
+        if (rangeHeader != null && !rangeHeader.isBlank()) {
+            List<HttpRange> ranges = parseRanges(rangeHeader, size);
+            if (ranges.size() != 1) {
+                throw new RangeNotSatisfiableException("multiple ranges are not supported", size);
+            }
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+
+        log.debug("raw read: path={}, offset={}, length={}", path, start, length);
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long transferred = fileService.transferFile(path, start, length, out);
+        response.flushBuffer();
+        metrics.recordRead(transferred);
+        metrics.recordReturned(transferred);
+    }
+
+    private List<HttpRange> parseRanges(String rangeHeader, long size) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            for (HttpRange range : ranges) {
+                if (range.getRangeStart(size) >= size) {
+                    throw new RangeNotSatisfiableException("range starts beyond end of file", size);
+                }
+            }
+            return ranges;
+        } catch (IllegalArgumentException e) {
+            throw new RangeNotSatisfiableException(e.getMessage(), size);
+        }
+    }
+
+    @ExceptionHandler(RangeNotSatisfiableException.class)
+    public ResponseEntity<String> handleRange(RangeNotSatisfiableException ex) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + ex.getSize())
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(FileServiceException.class)
+    public ResponseEntity<String> handleFileServiceException(FileServiceException ex) {
+        HttpStatus status;
+        if (ex instanceof NotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof ValidationException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+    }
+
+    static class RangeNotSatisfiableException extends ValidationException {
+        private final long size;
+
+        RangeNotSatisfiableException(String message, long size) {
+            super(message);
+            this.size = size;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+}
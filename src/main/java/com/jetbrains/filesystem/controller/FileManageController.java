@@ -1,12 +1,16 @@
 package com.jetbrains.filesystem.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dispatch.BatchMode;
+import com.jetbrains.filesystem.dispatch.JsonRpcCall;
+import com.jetbrains.filesystem.dispatch.JsonRpcStreamReader;
+import com.jetbrains.filesystem.dispatch.ParallelBatchExecutor;
 import com.jetbrains.filesystem.exception.*;
-import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import com.jetbrains.filesystem.dto.rpc.JsonRpcResponse;
+import com.jetbrains.filesystem.metrics.RpcMetrics;
 import com.jetbrains.filesystem.registry.JsonRpcHandlerRegistry;
-import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
 
 import com.jetbrains.filesystem.util.JsonRpcErrorBuilder;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,68 +19,131 @@ import lombok.extern.log4j.Log4j2;
 
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/v1/files")
 @RequiredArgsConstructor
 @Log4j2
 public class FileManageController {
+    public static final String BATCH_MODE_HEADER = "X-Batch-Mode";
+
     private final JsonRpcHandlerRegistry handlerRegistry;
     private final ObjectMapper objectMapper;
+    private final FileServiceProperties properties;
+    private final ParallelBatchExecutor parallelBatchExecutor;
+    private final RpcMetrics metrics;
 
     @PostMapping()
-    public Object handle(@RequestBody JsonNode payload, HttpServletRequest request) {
-        if (payload.isArray()) {
-            log.debug("batch request: {}", payload);
-            List<JsonRpcResponse> responses = new ArrayList<>();
-
-            for (JsonNode node : payload) {
-                JsonRpcRequest singleRequest = null;
-                try {
-                    singleRequest = objectMapper.convertValue(node, JsonRpcRequest.class);
-                    request.setAttribute("jsonrpc-id", singleRequest.getId());
-                    JsonRpcResponse response = processSingle(singleRequest);
-                    responses.add(response);
-                } catch (FileServiceException fsEx) {
-                    JsonRpcResponse errorResponse = JsonRpcErrorBuilder.fromFileServiceException(fsEx, request.getAttribute("jsonrpc-id"));
-                    responses.add(errorResponse);
-                    break; // stop processing remaining batch items
-                } catch (Exception ex) {
-                    JsonRpcResponse errorResponse = JsonRpcErrorBuilder.fromUnknownException(ex, request.getAttribute("jsonrpc-id"));
-                    responses.add(errorResponse);
+    public Object handle(HttpServletRequest request,
+                         @RequestHeader(value = BATCH_MODE_HEADER, required = false) String batchModeHeader) throws IOException {
+        List<JsonRpcResponse> responses = new ArrayList<>();
+        boolean batch = false;
+
+        // the body is parsed as a stream: every entry's params are bound straight into the
+        // handler's param type instead of going through a JsonNode tree first
+        try (JsonRpcStreamReader reader = new JsonRpcStreamReader(
+                objectMapper.createParser(request.getInputStream()), objectMapper, handlerRegistry)) {
+            batch = reader.isBatch();
+            log.debug("{} request", batch ? "batch" : "single");
+
+            BatchMode batchMode = batchModeHeader == null
+                    ? properties.getBatch().getMode()
+                    : BatchMode.fromString(batchModeHeader);
+            if (batch && batchMode == BatchMode.PARALLEL) {
+                return handleParallel(reader);
+            }
+            if (!batch) {
+                // a call still waiting (tailFile) is completed later without holding this thread
+                CompletableFuture<JsonRpcResponse> response = processAsync(reader.next());
+                return response.isDone() ? response.join() : response;
+            }
+
+            JsonRpcCall call;
+            while ((call = reader.next()) != null) {
+                JsonRpcResponse response = processSafely(call);
+                responses.add(response);
+                if (response.getError() != null) {
                     break; // stop processing remaining batch items
                 }
             }
+            metrics.recordBatch(BatchMode.SEQUENTIAL, responses.size());
+        } catch (JsonProcessingException ex) {
+            responses.add(JsonRpcErrorBuilder.fromParseException(ex));
+        } catch (FileServiceException fsEx) {
+            responses.add(JsonRpcErrorBuilder.fromFileServiceException(fsEx, null));
+        }
 
+        if (batch) {
             return responses;
-        } else {
-            log.debug("single request: {}", payload);
-            JsonRpcRequest singleRequest = null;
-            try {
-                singleRequest = objectMapper.convertValue(payload, JsonRpcRequest.class);
-                request.setAttribute("jsonrpc-id", singleRequest.getId());
-                return processSingle(singleRequest);
-            } catch (FileServiceException fsEx) {
-                return JsonRpcErrorBuilder.fromFileServiceException(fsEx, request.getAttribute("jsonrpc-id"));
-            } catch (Exception ex) {
-                return JsonRpcErrorBuilder.fromUnknownException(ex, request.getAttribute("jsonrpc-id"));
+        }
+        return responses.get(0);
+    }
+
+    private List<JsonRpcResponse> handleParallel(JsonRpcStreamReader reader) throws IOException {
+        List<JsonRpcCall> calls = new ArrayList<>();
+        JsonProcessingException parseError = null;
+        try {
+            JsonRpcCall call;
+            while ((call = reader.next()) != null) {
+                calls.add(call);
             }
+        } catch (JsonProcessingException ex) {
+            // run what was readable, then report the parse error as the last entry
+            parseError = ex;
         }
+
+        metrics.recordBatch(BatchMode.PARALLEL, calls.size());
+        List<JsonRpcResponse> responses = parallelBatchExecutor.execute(calls, this::processAsync);
+        if (parseError != null) {
+            responses.add(JsonRpcErrorBuilder.fromParseException(parseError));
+        }
+        return responses;
     }
 
-    private JsonRpcResponse processSingle(JsonRpcRequest request) {
-        log.debug("Received JSON-RPC request: method={}, id={}, params={}", request.getMethod(), request.getId(), request.getParams());
+    /**
+     * Sequential batch entries wait for a pending result on the request thread, to keep the batch's order.
+     */
+    private JsonRpcResponse processSafely(JsonRpcCall call) {
+        return processAsync(call).join();
+    }
+
+    private CompletableFuture<JsonRpcResponse> processAsync(JsonRpcCall call) {
+        long start = System.nanoTime();
+        CompletableFuture<JsonRpcResponse> response;
+        try {
+            response = processSingle(call);
+        } catch (Exception ex) {
+            response = CompletableFuture.failedFuture(ex);
+        }
+        return response
+                .exceptionally(ex -> toError(ex instanceof CompletionException ? ex.getCause() : ex, call))
+                .whenComplete((r, ex) -> metrics.recordCall(call.getHandler() == null ? null : call.getMethod(),
+                        r.getError() == null, System.nanoTime() - start));
+    }
 
-        JsonRpcMethodHandler handler = handlerRegistry.getHandler(request.getMethod());
-        if (handler == null) {
-            throw new MethodNotFoundException("method not found:" + request.getMethod());
+    private static JsonRpcResponse toError(Throwable ex, JsonRpcCall call) {
+        if (ex instanceof FileServiceException fsEx) {
+            return JsonRpcErrorBuilder.fromFileServiceException(fsEx, call.getId());
         }
+        return JsonRpcErrorBuilder.fromUnknownException(ex instanceof Exception e ? e : new RuntimeException(ex), call.getId());
+    }
+
+    private CompletableFuture<JsonRpcResponse> processSingle(JsonRpcCall call) {
+        log.debug("Received JSON-RPC request: method={}, id={}, params={}", call.getMethod(), call.getId(), call.getParams());
 
-        Object typedParams = objectMapper.convertValue(request.getParams(), handler.paramType());
-        Object result = handler.handle(typedParams);
-        return new JsonRpcResponse(result, request.getId());
+        if (call.getError() != null) {
+            throw call.getError();
+        }
+        Object result = call.getHandler().handle(call.getParams());
+        if (result instanceof CompletableFuture<?> pending) {
+            return pending.thenApply(value -> new JsonRpcResponse(value, call.getId()));
+        }
+        return CompletableFuture.completedFuture(new JsonRpcResponse(result, call.getId()));
     }
 
 }
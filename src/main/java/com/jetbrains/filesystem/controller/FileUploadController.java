@@ -0,0 +1,65 @@
+package com.jetbrains.filesystem.controller;
+
+import com.jetbrains.filesystem.api.FileManager;
+import com.jetbrains.filesystem.dto.file.UploadStatusResponse;
+import com.jetbrains.filesystem.exception.*;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+/**
+ * Chunk transport of upload sessions opened with the {@code beginUpload} JSON-RPC method: a chunk is the
+ * raw request body (or base64 with {@code encoding=base64}), streamed to the staging file without being
+ * held in memory. {@code offset} must be the session's confirmed offset, which {@code GET} returns after
+ * a dropped connection.
+ */
+@RestController
+@RequestMapping("/api/v1/files/uploads")
+@RequiredArgsConstructor
+@Log4j2
+public class FileUploadController {
+    private final FileManager fileService;
+
+    @PutMapping("/{uploadId}")
+    public UploadStatusResponse putChunk(@PathVariable("uploadId") String uploadId,
+                                         @RequestParam("offset") long offset,
+                                         @RequestParam(value = "encoding", required = false) String encoding,
+                                         HttpServletRequest request) throws IOException {
+        log.debug("upload chunk: id={}, offset={}, encoding={}", uploadId, offset, encoding);
+        InputStream body = request.getInputStream();
+        if ("base64".equalsIgnoreCase(encoding)) {
+            body = Base64.getDecoder().wrap(body);
+        } else if (encoding != null && !encoding.isBlank()) {
+            throw new ValidationException("unsupported encoding: " + encoding);
+        }
+        return fileService.uploadChunk(uploadId, offset, body);
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadStatusResponse status(@PathVariable("uploadId") String uploadId) {
+        return fileService.getUpload(uploadId);
+    }
+
+    @ExceptionHandler(FileServiceException.class)
+    public ResponseEntity<String> handleFileServiceException(FileServiceException ex) {
+        HttpStatus status;
+        if (ex instanceof NotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof ValidationException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (ex instanceof ConflictException) {
+            status = HttpStatus.CONFLICT;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,21 @@
+package com.jetbrains.filesystem.dispatch;
+
+import com.jetbrains.filesystem.exception.ValidationException;
+
+public enum BatchMode {
+    /** entries run one after another, processing stops at the first error */
+    SEQUENTIAL,
+    /** independent entries run concurrently, every entry gets a response */
+    PARALLEL;
+
+    public static BatchMode fromString(String mode) {
+        switch (mode.trim().toLowerCase()) {
+            case "sequential":
+                return SEQUENTIAL;
+            case "parallel":
+                return PARALLEL;
+            default:
+                throw new ValidationException("Unknown batch mode: " + mode);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.jetbrains.filesystem.dispatch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One JSON-RPC entry as read from the request stream: the resolved handler and its params,
+ * already bound to {@link JsonRpcMethodHandler#paramType()}. If the entry could not be read
+ * (unknown method, params not bindable, ...) {@code error} is set instead.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JsonRpcCall {
+    private String method;
+    private JsonNode id;
+    private JsonRpcMethodHandler handler;
+    private Object params;
+    private RuntimeException error;
+}
@@ -0,0 +1,167 @@
+package com.jetbrains.filesystem.dispatch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.jetbrains.filesystem.exception.InvalidRequestException;
+import com.jetbrains.filesystem.exception.MethodNotFoundException;
+import com.jetbrains.filesystem.exception.ValidationException;
+import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
+import com.jetbrains.filesystem.registry.JsonRpcHandlerRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style reader over a JSON-RPC request body (single object or batch array).
+ * <p>
+ * Each entry is read field by field: {@code method} and {@code id} are picked up as scalars and
+ * {@code params} is bound straight into the handler's param type, so no {@link JsonNode} tree of
+ * the payload is ever built. When {@code params} appears before {@code method} (JSON objects are
+ * unordered) its tokens are buffered in a {@link TokenBuffer} and bound once the method is known.
+ * <p>
+ * Malformed JSON surfaces as a Jackson {@link IOException}; problems limited to one entry
+ * (unknown method, params not bindable) are reported on the returned {@link JsonRpcCall}.
+ */
+public class JsonRpcStreamReader implements Closeable {
+    private final JsonParser parser;
+    private final ObjectMapper objectMapper;
+    private final JsonRpcHandlerRegistry handlerRegistry;
+    private final boolean batch;
+    private boolean finished;
+
+    public JsonRpcStreamReader(JsonParser parser, ObjectMapper objectMapper,
+                               JsonRpcHandlerRegistry handlerRegistry) throws IOException {
+        this.parser = parser;
+        this.objectMapper = objectMapper;
+        this.handlerRegistry = handlerRegistry;
+
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_ARRAY) {
+            this.batch = true;
+        } else if (first == JsonToken.START_OBJECT) {
+            this.batch = false;
+        } else {
+            throw new InvalidRequestException("request must be a JSON object or array");
+        }
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * @return the next entry, or {@code null} once the body is exhausted
+     */
+    public JsonRpcCall next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!batch) {
+            finished = true;
+            return readCall();
+        }
+
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            finished = true;
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            JsonRpcCall call = new JsonRpcCall();
+            call.setError(new InvalidRequestException("batch entry must be a JSON object"));
+            return call;
+        }
+        return readCall();
+    }
+
+    /**
+     * Reads the entry whose START_OBJECT is the current token, leaving the parser on its END_OBJECT.
+     */
+    private JsonRpcCall readCall() throws IOException {
+        JsonRpcCall call = new JsonRpcCall();
+        JsonStreamContext entryContext = parser.getParsingContext();
+        boolean methodSeen = false;
+        TokenBuffer pendingParams = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "method" -> {
+                    call.setMethod(parser.getValueAsString());
+                    parser.skipChildren();
+                    call.setHandler(handlerRegistry.getHandler(call.getMethod()));
+                    methodSeen = true;
+                }
+                case "id" -> call.setId(objectMapper.readTree(parser));
+                case "params" -> {
+                    if (methodSeen) {
+                        bindParams(call, parser, entryContext);
+                    } else {
+                        pendingParams = new TokenBuffer(parser);
+                        pendingParams.copyCurrentStructure(parser);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (pendingParams != null) {
+            try (JsonParser buffered = pendingParams.asParserOnFirstToken()) {
+                bindParams(call, buffered, null);
+            }
+        }
+        if (call.getHandler() == null && call.getError() == null) {
+            call.setError(new MethodNotFoundException("method not found:" + call.getMethod()));
+        }
+        return call;
+    }
+
+    /**
+     * Binds the params value the {@code source} is positioned on. On a binding failure the parser is
+     * moved back to {@code recoverTo} (the entry's object context) so the entry can still be finished;
+     * a {@code null} context means the source is a throw-away buffer and needs no recovery.
+     */
+    private void bindParams(JsonRpcCall call, JsonParser source, JsonStreamContext recoverTo) throws IOException {
+        JsonRpcMethodHandler handler = call.getHandler();
+        if (handler == null) {
+            source.skipChildren();
+            return;
+        }
+        if (source.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        try {
+            call.setParams(objectMapper.readValue(source, handler.paramType()));
+        } catch (DatabindException e) {
+            call.setError(new ValidationException("cannot bind params for " + call.getMethod(), e));
+            if (recoverTo != null) {
+                skipRemainder(source, recoverTo);
+            }
+        }
+    }
+
+    /**
+     * After a failed bind the parser may be left anywhere inside {@code params};
+     * advance until we are back at the level of the enclosing entry.
+     */
+    private void skipRemainder(JsonParser source, JsonStreamContext entryContext) throws IOException {
+        if (source.currentToken() == JsonToken.START_OBJECT || source.currentToken() == JsonToken.START_ARRAY) {
+            source.skipChildren();
+        }
+        while (source.getParsingContext() != entryContext && source.nextToken() != null) {
+            // drain tokens of the partially bound params value
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
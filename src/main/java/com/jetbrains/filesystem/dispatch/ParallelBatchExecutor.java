@@ -0,0 +1,114 @@
+package com.jetbrains.filesystem.dispatch;
+
+import com.jetbrains.filesystem.dto.rpc.JsonRpcResponse;
+import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Runs the entries of a batch on the bounded batch executor (platform pool, or virtual threads with a permit limit).
+ * <p>
+ * Entries are independent unless they touch overlapping paths (one path equal to or below the other)
+ * and at least one of them is mutating; such an entry only starts after every earlier entry it
+ * conflicts with has completed, so e.g. {@code createEntry} then {@code appendDataToFile} on the same
+ * file still run in request order. Responses are returned in request order and, unlike sequential
+ * mode, a failing entry does not stop the others. Only the calling thread waits for the responses.
+ */
+@Component
+@Log4j2
+public class ParallelBatchExecutor {
+    private final Executor executor;
+
+    public ParallelBatchExecutor(@Qualifier("batchExecutor") Executor executor) {
+        this.executor = executor;
+    }
+
+    public List<JsonRpcResponse> execute(List<JsonRpcCall> calls,
+                                         Function<JsonRpcCall, CompletableFuture<JsonRpcResponse>> processor) {
+        int n = calls.size();
+        List<Footprint> footprints = new ArrayList<>(n);
+        List<CompletableFuture<JsonRpcResponse>> futures = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            JsonRpcCall call = calls.get(i);
+            Footprint footprint = footprintOf(call);
+            footprints.add(footprint);
+
+            List<CompletableFuture<JsonRpcResponse>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (footprint.conflictsWith(footprints.get(j))) {
+                    dependencies.add(futures.get(j));
+                }
+            }
+
+            CompletableFuture<Void> ready;
+            if (dependencies.isEmpty()) {
+                ready = CompletableFuture.completedFuture(null);
+            } else {
+                log.debug("batch entry {} waits for {} earlier entries", i, dependencies.size());
+                ready = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]));
+            }
+            // a pending result (tailFile) is composed, never waited for on a worker: once every worker
+            // blocked on one, nothing would be left to complete it
+            futures.add(ready.thenComposeAsync(ignored -> processor.apply(call), executor));
+        }
+
+        List<JsonRpcResponse> responses = new ArrayList<>(n);
+        for (CompletableFuture<JsonRpcResponse> future : futures) {
+            responses.add(future.join());
+        }
+        return responses;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Footprint footprintOf(JsonRpcCall call) {
+        JsonRpcMethodHandler handler = call.getHandler();
+        if (handler == null || call.getError() != null || call.getParams() == null) {
+            return Footprint.NONE;
+        }
+
+        List<Path> paths = new ArrayList<>();
+        for (Object raw : (List<Object>) handler.paths(call.getParams())) {
+            if (raw == null) continue;
+            try {
+                paths.add(Paths.get((String) raw).normalize());
+            } catch (InvalidPathException e) {
+                // the entry fails validation on its own, nothing to order against
+            }
+        }
+        return new Footprint(handler.mutating(), paths);
+    }
+
+    private record Footprint(boolean mutating, List<Path> paths) {
+        static final Footprint NONE = new Footprint(false, List.of());
+
+        boolean conflictsWith(Footprint other) {
+            if (!mutating && !other.mutating) {
+                return false;
+            }
+            for (Path a : paths) {
+                for (Path b : other.paths) {
+                    if (overlaps(a, b)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean overlaps(Path a, Path b) {
+            // the empty path is the root folder, which contains everything
+            return a.toString().isEmpty() || b.toString().isEmpty() || a.startsWith(b) || b.startsWith(a);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.jetbrains.filesystem.dto.file;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class AppendDataToFileParams {
     private String path;
-    private String data;
+    //base64 in the request, decoded by Jackson straight from the input stream
+    @ToString.Exclude
+    private byte[] data;
 
 }
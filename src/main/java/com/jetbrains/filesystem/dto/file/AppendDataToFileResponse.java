@@ -10,5 +10,7 @@ import lombok.NoArgsConstructor;
 public class AppendDataToFileResponse {
     private String path;
     private int appendLength;
+    // file offset the data was written at
+    private long offset;
 
 }
@@ -0,0 +1,12 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeginUploadParams {
+    private String path;
+}
@@ -0,0 +1,35 @@
+package com.jetbrains.filesystem.dto.file;
+
+import com.jetbrains.filesystem.exception.ValidationException;
+
+public enum ChecksumAlgorithm {
+    CRC32C("crc32c"), SHA256("sha-256");
+
+    private final String label;
+
+    ChecksumAlgorithm(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * {@code null} selects SHA-256.
+     */
+    public static ChecksumAlgorithm fromString(String algorithm) {
+        if (algorithm == null) {
+            return SHA256;
+        }
+        switch (algorithm.toLowerCase()) {
+            case "crc32c":
+                return CRC32C;
+            case "sha-256":
+            case "sha256":
+                return SHA256;
+            default:
+                throw new ValidationException("Unknown algorithm: " + algorithm + ", expected 'crc32c' or 'sha-256'");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommitUploadResponse {
+    private String path;
+    private long length;
+    // file offset the uploaded data was appended at
+    private long offset;
+}
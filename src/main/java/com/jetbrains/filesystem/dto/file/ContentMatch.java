@@ -0,0 +1,16 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentMatch {
+    private String path;
+    // byte offset of the match in the file
+    private long offset;
+    // the line holding the match, without its line terminator
+    private String line;
+}
@@ -0,0 +1,18 @@
+package com.jetbrains.filesystem.dto.file;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileSegment {
+    private long offset;
+    // clamped at EOF, so it may be shorter than requested; written as a base64 string
+    @JsonSerialize(using = ReadFileSegmentResponse.Base64Serializer.class)
+    private ByteBuffer data;
+}
@@ -0,0 +1,14 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetChecksumParams {
+    private String path;
+    // crc32c or sha-256 (default)
+    private String algorithm;
+}
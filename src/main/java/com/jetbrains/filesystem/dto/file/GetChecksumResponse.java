@@ -0,0 +1,17 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetChecksumResponse {
+    private String path;
+    private String algorithm;
+    // lowercase hex
+    private String checksum;
+    // number of bytes the checksum covers: the file's size when it was computed
+    private long size;
+}
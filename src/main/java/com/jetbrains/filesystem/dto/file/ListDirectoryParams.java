@@ -9,4 +9,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class ListDirectoryParams {
     private String path;
+    /** page size; with or without {@code cursor}, switches to a name-ordered, paginated listing */
+    private Integer limit;
+    /** {@code nextCursor} of the previous page */
+    private String cursor;
+    /** write the listing to the response while reading the directory, instead of building it first */
+    private boolean stream;
 }
@@ -11,4 +11,10 @@ import java.util.List;
 @NoArgsConstructor
 public class ListDirectoryResponse {
     private List<FileInfo> fileInfos;
+    /** set on a paginated listing when more entries follow */
+    private String nextCursor;
+
+    public ListDirectoryResponse(List<FileInfo> fileInfos) {
+        this.fileInfos = fileInfos;
+    }
 }
@@ -0,0 +1,49 @@
+package com.jetbrains.filesystem.dto.file;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Same JSON shape as {@link ListDirectoryResponse}, but the directory is only opened while the
+ * response is being written and each entry goes straight to the generator, so the listing is never
+ * held in memory.
+ */
+@JsonSerialize(using = ListDirectoryStreamResponse.Serializer.class)
+public class ListDirectoryStreamResponse {
+    private final Supplier<Stream<FileInfo>> fileInfos;
+
+    public ListDirectoryStreamResponse(Supplier<Stream<FileInfo>> fileInfos) {
+        this.fileInfos = fileInfos;
+    }
+
+    public Stream<FileInfo> openFileInfos() {
+        return fileInfos.get();
+    }
+
+    static class Serializer extends StdSerializer<ListDirectoryStreamResponse> {
+        Serializer() {
+            super(ListDirectoryStreamResponse.class);
+        }
+
+        @Override
+        public void serialize(ListDirectoryStreamResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("fileInfos");
+            try (Stream<FileInfo> entries = value.openFileInfos()) {
+                Iterator<FileInfo> it = entries.iterator();
+                while (it.hasNext()) {
+                    provider.defaultSerializeValue(it.next(), gen);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
@@ -1,13 +1,44 @@
 package com.jetbrains.filesystem.dto.file;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class ReadFileSegmentResponse {
-    //base64 string
-    private String data;
+    // the segment as read; written as a base64 string
+    @JsonSerialize(using = Base64Serializer.class)
+    private ByteBuffer data;
+
+    /**
+     * Base64-encodes the buffer while the response is being written, a few KiB at a time into the
+     * generator's output buffer, instead of building a {@code byte[]} copy and a {@code String} of the
+     * whole segment first. The buffer itself is not consumed.
+     */
+    static class Base64Serializer extends StdSerializer<ByteBuffer> {
+        Base64Serializer() {
+            super(ByteBuffer.class);
+        }
+
+        @Override
+        public void serialize(ByteBuffer value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            ByteBuffer data = value.duplicate();
+            if (data.hasArray()) {
+                gen.writeBinary(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            } else {
+                // direct (mapped or block cache) buffer: read through the generator's own small buffer
+                gen.writeBinary(new ByteBufferBackedInputStream(data), data.remaining());
+            }
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchContentParams {
+    // folder (or single file) to search under
+    private String path;
+    // files to search, matched against the path relative to path; without a '/' only the file name is matched
+    private String glob;
+    private String pattern;
+    // pattern is a java.util.regex expression instead of a literal string
+    private boolean regex;
+    // most matches to return; 0 = the default
+    private int maxMatches;
+    // how long the search may run; 0 = the default
+    private long timeoutMs;
+}
@@ -0,0 +1,106 @@
+package com.jetbrains.filesystem.dto.file;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Result of {@code searchContent}. The search only starts while the response is being written and each
+ * match goes to the generator as soon as it is found; the output is flushed whenever the writer would wait
+ * for the next one, so clients see early matches while the scan goes on. Writing stops after
+ * {@code maxMatches} matches or at the timeout, and the search is cancelled whenever writing stops, including
+ * when the client goes away.
+ */
+@JsonSerialize(using = SearchContentResponse.Serializer.class)
+public class SearchContentResponse {
+    private final Supplier<Matches> search;
+    private final UnaryOperator<ContentMatch> view;
+    private final int maxMatches;
+    private final long timeoutMs;
+
+    public SearchContentResponse(Supplier<Matches> search, UnaryOperator<ContentMatch> view, int maxMatches, long timeoutMs) {
+        this.search = search;
+        this.view = view;
+        this.maxMatches = maxMatches;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public Matches openSearch() {
+        return search.get();
+    }
+
+    public int getMaxMatches() {
+        return maxMatches;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Matches of a running search, in the order they are found; closing it cancels the search.
+     */
+    public interface Matches extends AutoCloseable {
+        /**
+         * The next match if one is ready, otherwise null.
+         */
+        ContentMatch poll();
+
+        /**
+         * The next match, waiting up to {@code timeout}; null if none came or the search is done.
+         */
+        ContentMatch poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+        /**
+         * Every file was scanned and every match taken.
+         */
+        boolean isDone();
+
+        long filesScanned();
+
+        @Override
+        void close();
+    }
+
+    static class Serializer extends StdSerializer<SearchContentResponse> {
+        Serializer() {
+            super(SearchContentResponse.class);
+        }
+
+        @Override
+        public void serialize(SearchContentResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(value.getTimeoutMs());
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("matches");
+            try (Matches matches = value.openSearch()) {
+                int count = 0;
+                while (count < value.getMaxMatches()) {
+                    ContentMatch match = matches.poll();
+                    if (match == null) {
+                        if (matches.isDone()) break;
+                        gen.flush();
+                        long wait = deadline - System.nanoTime();
+                        if (wait <= 0) break;
+                        match = matches.poll(wait, TimeUnit.NANOSECONDS);
+                        if (match == null) continue;
+                    }
+                    provider.defaultSerializeValue(value.view.apply(match), gen);
+                    count++;
+                }
+                gen.writeEndArray();
+                gen.writeNumberField("filesScanned", matches.filesScanned());
+                gen.writeBooleanField("truncated", !matches.isDone());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while searching", e);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
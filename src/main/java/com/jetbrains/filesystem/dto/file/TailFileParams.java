@@ -0,0 +1,17 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TailFileParams {
+    private String path;
+    private long offset;
+    // most bytes to return; 0 = the default
+    private int length;
+    // how long to wait for the file to grow past offset; 0 returns at once
+    private long timeoutMs;
+}
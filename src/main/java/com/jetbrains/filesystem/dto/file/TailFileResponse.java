@@ -0,0 +1,20 @@
+package com.jetbrains.filesystem.dto.file;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TailFileResponse {
+    private long offset;
+    // offset to pass to the next tailFile call; equal to offset if the wait timed out
+    private long nextOffset;
+    // empty if the wait timed out; written as a base64 string
+    @JsonSerialize(using = ReadFileSegmentResponse.Base64Serializer.class)
+    private ByteBuffer data;
+}
@@ -0,0 +1,15 @@
+package com.jetbrains.filesystem.dto.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadStatusResponse {
+    private String uploadId;
+    private String path;
+    // bytes received so far: the next chunk starts here
+    private long offset;
+}
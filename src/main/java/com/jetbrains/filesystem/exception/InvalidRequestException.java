@@ -0,0 +1,11 @@
+package com.jetbrains.filesystem.exception;
+
+public class InvalidRequestException extends FileServiceException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,30 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.api.FileManager;
+import com.jetbrains.filesystem.dto.file.UploadParams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class AbortUploadHandler implements JsonRpcMethodHandler<UploadParams> {
+    private final FileManager fileService;
+
+    @Override
+    public String method() {
+        return "abortUpload";
+    }
+
+    @Override
+    public Object handle(UploadParams p) {
+        log.debug("abortUpload:{}", p);
+        return fileService.abortUpload(p.getUploadId());
+    }
+
+    @Override
+    public Class<UploadParams> paramType() {
+        return UploadParams.class;
+    }
+}
@@ -2,15 +2,21 @@ package com.jetbrains.filesystem.handler;
 
 import com.jetbrains.filesystem.api.FileManager;
 import com.jetbrains.filesystem.dto.file.AppendDataToFileParams;
+import com.jetbrains.filesystem.dto.file.AppendDataToFileResponse;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Log4j2
 public class AppendDataToFileHandler implements JsonRpcMethodHandler<AppendDataToFileParams> {
     private final FileManager fileService;
+    private final PayloadMetrics metrics;
 
     @Override
     public String method() {
@@ -19,12 +25,24 @@ public class AppendDataToFileHandler implements JsonRpcMethodHandler<AppendDataT
 
     @Override
     public Object handle(AppendDataToFileParams p)  {
-        log.debug("appendDataToFile:{}", p.toString());
-        return fileService.appendDataToFile(p.getPath(),p.getData());
+        log.debug("appendDataToFile:{}", p);
+        AppendDataToFileResponse response = fileService.appendDataToFile(p.getPath(),p.getData());
+        metrics.recordAppended(response.getAppendLength());
+        return response;
     }
 
     @Override
     public Class<AppendDataToFileParams> paramType() {   // new helper
         return AppendDataToFileParams.class;
     }
+
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(AppendDataToFileParams p) {
+        return Collections.singletonList(p.getPath());
+    }
 }
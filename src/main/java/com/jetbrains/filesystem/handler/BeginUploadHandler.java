@@ -0,0 +1,38 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.api.FileManager;
+import com.jetbrains.filesystem.dto.file.BeginUploadParams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class BeginUploadHandler implements JsonRpcMethodHandler<BeginUploadParams> {
+    private final FileManager fileService;
+
+    @Override
+    public String method() {
+        return "beginUpload";
+    }
+
+    @Override
+    public Object handle(BeginUploadParams p) {
+        log.debug("beginUpload:{}", p);
+        return fileService.beginUpload(p.getPath());
+    }
+
+    @Override
+    public Class<BeginUploadParams> paramType() {
+        return BeginUploadParams.class;
+    }
+
+    @Override
+    public List<String> paths(BeginUploadParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
@@ -0,0 +1,54 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.api.FileManager;
+import com.jetbrains.filesystem.dto.file.CommitUploadResponse;
+import com.jetbrains.filesystem.dto.file.UploadParams;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class CommitUploadHandler implements JsonRpcMethodHandler<UploadParams> {
+    private final FileManager fileService;
+    private final PayloadMetrics metrics;
+
+    @Override
+    public String method() {
+        return "commitUpload";
+    }
+
+    @Override
+    public Object handle(UploadParams p) {
+        log.debug("commitUpload:{}", p);
+        CommitUploadResponse response = fileService.commitUpload(p.getUploadId());
+        metrics.recordAppended(response.getLength());
+        return response;
+    }
+
+    @Override
+    public Class<UploadParams> paramType() {
+        return UploadParams.class;
+    }
+
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(UploadParams p) {
+        try {
+            return Collections.singletonList(fileService.getUpload(p.getUploadId()).getPath());
+        } catch (NotFoundException e) {
+            // fails again in handle()
+            return List.of();
+        }
+    }
+}
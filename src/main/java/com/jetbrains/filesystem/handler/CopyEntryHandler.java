@@ -5,6 +5,9 @@ import com.jetbrains.filesystem.dto.file.CopyEntryParams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class CopyEntryHandler implements JsonRpcMethodHandler<CopyEntryParams> {
@@ -24,4 +27,14 @@ public class CopyEntryHandler implements JsonRpcMethodHandler<CopyEntryParams> {
     public Class<CopyEntryParams> paramType() {   // new helper
         return CopyEntryParams.class;
     }
+
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(CopyEntryParams p) {
+        return Arrays.asList(p.getSourcePath(), p.getTargetPath());
+    }
 }
@@ -5,6 +5,9 @@ import com.jetbrains.filesystem.dto.file.CreateEntryParams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class CreateEntryHandler implements JsonRpcMethodHandler<CreateEntryParams> {
@@ -24,5 +27,14 @@ public class CreateEntryHandler implements JsonRpcMethodHandler<CreateEntryParam
     public Class<CreateEntryParams> paramType() {   // new helper
         return CreateEntryParams.class;
     }
-}
 
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(CreateEntryParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
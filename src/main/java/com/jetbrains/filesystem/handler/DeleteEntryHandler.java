@@ -5,6 +5,9 @@ import com.jetbrains.filesystem.dto.file.DeleteEntryParams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class DeleteEntryHandler implements JsonRpcMethodHandler<DeleteEntryParams> {
@@ -24,4 +27,14 @@ public class DeleteEntryHandler implements JsonRpcMethodHandler<DeleteEntryParam
     public Class<DeleteEntryParams> paramType() {   // new helper
         return DeleteEntryParams.class;
     }
+
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(DeleteEntryParams p) {
+        return Collections.singletonList(p.getPath());
+    }
 }
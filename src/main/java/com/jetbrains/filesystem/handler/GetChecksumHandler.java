@@ -0,0 +1,35 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.dto.file.GetChecksumParams;
+import com.jetbrains.filesystem.service.LocalFileManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class GetChecksumHandler implements JsonRpcMethodHandler<GetChecksumParams> {
+    private final LocalFileManager fileService;
+
+    @Override
+    public String method() {
+        return "getChecksum";
+    }
+
+    @Override
+    public Object handle(GetChecksumParams p) {
+        return fileService.getChecksum(p.getPath(), p.getAlgorithm());
+    }
+
+    @Override
+    public Class<GetChecksumParams> paramType() {
+        return GetChecksumParams.class;
+    }
+
+    @Override
+    public List<String> paths(GetChecksumParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
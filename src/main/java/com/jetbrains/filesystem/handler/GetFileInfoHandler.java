@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Log4j2
@@ -27,4 +30,9 @@ public class GetFileInfoHandler implements JsonRpcMethodHandler<GetFileInfoParam
     public Class<GetFileInfoParams> paramType() {
         return GetFileInfoParams.class;
     }
+
+    @Override
+    public List<String> paths(GetFileInfoParams p) {
+        return Collections.singletonList(p.getPath());
+    }
 }
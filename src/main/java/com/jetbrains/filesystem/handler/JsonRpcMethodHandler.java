@@ -1,7 +1,28 @@
 package com.jetbrains.filesystem.handler;
 
+import java.util.List;
+
 public interface JsonRpcMethodHandler<P> {
     String method();
     Class<P> paramType();
+    /**
+     * The result, or a {@link java.util.concurrent.CompletableFuture} of it for a call that waits on
+     * something else than this thread's own work.
+     */
     Object handle(P params);
+
+    /**
+     * Whether the method changes the file tree. Used to order entries of a parallel batch.
+     */
+    default boolean mutating() {
+        return false;
+    }
+
+    /**
+     * Relative paths the call touches. Entries of a parallel batch touching overlapping paths
+     * keep their request order when at least one of them is mutating.
+     */
+    default List<String> paths(P params) {
+        return List.of();
+    }
 }
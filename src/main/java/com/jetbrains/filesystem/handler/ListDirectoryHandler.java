@@ -1,10 +1,14 @@
 package com.jetbrains.filesystem.handler;
 
 import com.jetbrains.filesystem.dto.file.ListDirectoryParams;
+import com.jetbrains.filesystem.exception.ValidationException;
 import com.jetbrains.filesystem.service.LocalFileManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class ListDirectoryHandler implements JsonRpcMethodHandler<ListDirectoryParams> {
@@ -17,6 +21,17 @@ public class ListDirectoryHandler implements JsonRpcMethodHandler<ListDirectoryP
 
     @Override
     public Object handle(ListDirectoryParams p)  {
+        boolean paged = p.getLimit() != null || p.getCursor() != null;
+        if (p.isStream()) {
+            if (paged) {
+                throw new ValidationException("stream cannot be combined with limit or cursor");
+            }
+            return fileService.streamDirectoryChildren(p.getPath());
+        }
+        if (paged) {
+            int limit = p.getLimit() != null ? p.getLimit() : LocalFileManager.DEFAULT_PAGE_SIZE;
+            return fileService.listDirectoryChildren(p.getPath(), p.getCursor(), limit);
+        }
         return fileService.listDirectoryChildren(p.getPath());
     }
 
@@ -24,4 +39,9 @@ public class ListDirectoryHandler implements JsonRpcMethodHandler<ListDirectoryP
     public Class<ListDirectoryParams> paramType() {   // new helper
         return ListDirectoryParams.class;
     }
+
+    @Override
+    public List<String> paths(ListDirectoryParams p) {
+        return Collections.singletonList(p.getPath());
+    }
 }
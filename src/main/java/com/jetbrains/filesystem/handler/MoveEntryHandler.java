@@ -5,6 +5,9 @@ import com.jetbrains.filesystem.service.LocalFileManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class MoveEntryHandler implements JsonRpcMethodHandler<MoveEntryParams> {
@@ -24,4 +27,14 @@ public class MoveEntryHandler implements JsonRpcMethodHandler<MoveEntryParams> {
     public Class<MoveEntryParams> paramType() {   // new helper
         return MoveEntryParams.class;
     }
+
+    @Override
+    public boolean mutating() {
+        return true;
+    }
+
+    @Override
+    public List<String> paths(MoveEntryParams p) {
+        return Arrays.asList(p.getSourcePath(), p.getTargetPath());
+    }
 }
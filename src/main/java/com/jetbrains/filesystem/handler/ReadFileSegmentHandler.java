@@ -1,14 +1,20 @@
 package com.jetbrains.filesystem.handler;
 
 import com.jetbrains.filesystem.dto.file.ReadFileSegmentParams;
+import com.jetbrains.filesystem.dto.file.ReadFileSegmentResponse;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
 import com.jetbrains.filesystem.service.LocalFileManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class ReadFileSegmentHandler implements JsonRpcMethodHandler<ReadFileSegmentParams> {
     private final LocalFileManager fileService;
+    private final PayloadMetrics metrics;
 
     @Override
     public String method() {
@@ -17,7 +23,11 @@ public class ReadFileSegmentHandler implements JsonRpcMethodHandler<ReadFileSegm
 
     @Override
     public Object handle(ReadFileSegmentParams p) {
-        return fileService.readFile(p.getPath(), p.getOffset(), p.getLength());
+        ReadFileSegmentResponse response = fileService.readFile(p.getPath(), p.getOffset(), p.getLength());
+        long read = response.getData().remaining();
+        metrics.recordRead(read);
+        metrics.recordReturned((read + 2) / 3 * 4);
+        return response;
     }
 
     @Override
@@ -25,4 +35,8 @@ public class ReadFileSegmentHandler implements JsonRpcMethodHandler<ReadFileSegm
         return ReadFileSegmentParams.class;
     }
 
+    @Override
+    public List<String> paths(ReadFileSegmentParams p) {
+        return Collections.singletonList(p.getPath());
+    }
 }
@@ -0,0 +1,52 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.dto.file.FileSegment;
+import com.jetbrains.filesystem.dto.file.ReadFileSegmentsParams;
+import com.jetbrains.filesystem.dto.file.ReadFileSegmentsResponse;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
+import com.jetbrains.filesystem.service.LocalFileManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ReadFileSegmentsHandler implements JsonRpcMethodHandler<ReadFileSegmentsParams> {
+    private final LocalFileManager fileService;
+    private final PayloadMetrics metrics;
+
+    @Override
+    public String method() {
+        return "readFileSegments";
+    }
+
+    @Override
+    public Object handle(ReadFileSegmentsParams p) {
+        log.debug("readFileSegments: path={}, ranges={}", p.getPath(), p.getRanges() == null ? 0 : p.getRanges().size());
+        ReadFileSegmentsResponse response = fileService.readFileSegments(p.getPath(), p.getRanges());
+        long read = 0;
+        long returned = 0;
+        for (FileSegment segment : response.getSegments()) {
+            long length = segment.getData().remaining();
+            read += length;
+            returned += (length + 2) / 3 * 4;
+        }
+        metrics.recordRead(read);
+        metrics.recordReturned(returned);
+        return response;
+    }
+
+    @Override
+    public Class<ReadFileSegmentsParams> paramType() {
+        return ReadFileSegmentsParams.class;
+    }
+
+    @Override
+    public List<String> paths(ReadFileSegmentsParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
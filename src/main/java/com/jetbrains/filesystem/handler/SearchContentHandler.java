@@ -0,0 +1,36 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.dto.file.SearchContentParams;
+import com.jetbrains.filesystem.service.LocalFileManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class SearchContentHandler implements JsonRpcMethodHandler<SearchContentParams> {
+    private final LocalFileManager fileService;
+
+    @Override
+    public String method() {
+        return "searchContent";
+    }
+
+    @Override
+    public Object handle(SearchContentParams p) {
+        return fileService.searchContent(p.getPath(), p.getGlob(), p.getPattern(), p.isRegex(),
+                p.getMaxMatches(), p.getTimeoutMs());
+    }
+
+    @Override
+    public Class<SearchContentParams> paramType() {
+        return SearchContentParams.class;
+    }
+
+    @Override
+    public List<String> paths(SearchContentParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
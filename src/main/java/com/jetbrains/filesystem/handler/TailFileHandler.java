@@ -0,0 +1,44 @@
+package com.jetbrains.filesystem.handler;
+
+import com.jetbrains.filesystem.dto.file.TailFileParams;
+import com.jetbrains.filesystem.dto.file.TailFileResponse;
+import com.jetbrains.filesystem.metrics.PayloadMetrics;
+import com.jetbrains.filesystem.service.LocalFileManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class TailFileHandler implements JsonRpcMethodHandler<TailFileParams> {
+    private final LocalFileManager fileService;
+    private final PayloadMetrics metrics;
+
+    @Override
+    public String method() {
+        return "tailFile";
+    }
+
+    @Override
+    public Object handle(TailFileParams p) {
+        return fileService.tailFile(p.getPath(), p.getOffset(), p.getLength(), p.getTimeoutMs())
+                .thenApply(response -> {
+                    long read = response.getData().remaining();
+                    metrics.recordRead(read);
+                    metrics.recordReturned((read + 2) / 3 * 4);
+                    return response;
+                });
+    }
+
+    @Override
+    public Class<TailFileParams> paramType() {
+        return TailFileParams.class;
+    }
+
+    @Override
+    public List<String> paths(TailFileParams p) {
+        return Collections.singletonList(p.getPath());
+    }
+}
@@ -1,7 +1,39 @@
 package com.jetbrains.filesystem.lock;
 
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 public interface FileLockRegistry {
     ReentrantLock lock(String key);
+
+    /**
+     * Shared/exclusive lock for {@code key}: a writer holds it exclusively for a moment to publish the
+     * state readers validate against, never while bytes are being written; readers take an optimistic stamp
+     * (see {@link #readOptimistically}) and never block.
+     */
+    StampedLock stampedLock(String key);
+
+    /**
+     * Runs {@code read} under an optimistic stamp of {@code lock}, retrying until no writer interfered.
+     * Writers only hold the lock for a moment, so this spins briefly rather than blocking the reader behind
+     * them (or behind writers of other keys sharing the lock).
+     * {@code read} must be side-effect free, it may run more than once.
+     */
+    static <T, E extends Exception> T readOptimistically(StampedLock lock, SharedRead<T, E> read) throws E {
+        while (true) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                T value = read.get();
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @FunctionalInterface
+    interface SharedRead<T, E extends Exception> {
+        T get() throws E;
+    }
 }
@@ -2,18 +2,38 @@ package com.jetbrains.filesystem.lock;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
+/**
+ * One lock per distinct path, expiring after 10 minutes without access. Should a lock expire while a
+ * holder still works under it, the next caller gets a new lock for the same path: prefer
+ * {@link StripedLockRegistry}.
+ */
 @Service
+@ConditionalOnProperty(prefix = "fileservice.lock", name = "mode", havingValue = "caffeine")
 public class LocalCaffeineLockRegistry implements FileLockRegistry {
     private final Cache<String, ReentrantLock> cache = Caffeine.newBuilder()
             .expireAfterAccess(10, TimeUnit.MINUTES)
             .build();
+    private final Cache<String, StampedLock> stampedLocks = Caffeine.newBuilder()
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+    private final Timer lockWait;
+
+    public LocalCaffeineLockRegistry(MeterRegistry meterRegistry) {
+        this.lockWait = TimedLock.lockWaitTimer(meterRegistry);
+    }
 
     @Override
-    public ReentrantLock lock(String key) { return cache.get(key, k -> new ReentrantLock()); }
-}
+    public ReentrantLock lock(String key) { return cache.get(key, k -> new TimedLock(lockWait)); }
 
+    @Override
+    public StampedLock stampedLock(String key) { return stampedLocks.get(key, k -> new StampedLock()); }
+}
@@ -0,0 +1,9 @@
+package com.jetbrains.filesystem.lock;
+
+/**
+ * Which {@link FileLockRegistry} hands out per-file locks, see {@link StripedLockRegistry} and
+ * {@link LocalCaffeineLockRegistry}.
+ */
+public enum LockMode {
+    STRIPED, CAFFEINE
+}
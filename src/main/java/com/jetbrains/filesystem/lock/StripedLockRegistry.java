@@ -0,0 +1,62 @@
+package com.jetbrains.filesystem.lock;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A fixed array of locks, a power of two long, picked by the spread hash of the key. A lookup allocates
+ * nothing and memory stays the same however many files are written; the price is that two files whose
+ * hashes collide share a lock, which only costs concurrency. A key always maps to the same lock, so unlike
+ * an expiring cache there is never a second lock for a path that is still locked.
+ */
+@Service
+@ConditionalOnProperty(prefix = "fileservice.lock", name = "mode", havingValue = "striped", matchIfMissing = true)
+public class StripedLockRegistry implements FileLockRegistry {
+    private final ReentrantLock[] stripes;
+    private final StampedLock[] stampedStripes;
+    private final int mask;
+
+    public StripedLockRegistry(FileServiceProperties props, MeterRegistry meterRegistry) {
+        int requested = props.getLock().getStripes();
+        if (requested < 1 || requested > 1 << 30) {
+            throw new IllegalArgumentException("fileservice.lock.stripes must be between 1 and 2^30: " + requested);
+        }
+        int size = Integer.highestOneBit(requested);
+        if (size < requested) size <<= 1;
+
+        Timer lockWait = TimedLock.lockWaitTimer(meterRegistry);
+        this.stripes = new ReentrantLock[size];
+        this.stampedStripes = new StampedLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new TimedLock(lockWait);
+            stampedStripes[i] = new StampedLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public ReentrantLock lock(String key) {
+        return stripes[index(key)];
+    }
+
+    @Override
+    public StampedLock stampedLock(String key) {
+        return stampedStripes[index(key)];
+    }
+
+    private int index(String key) {
+        int h = key.hashCode();
+        // paths under one directory differ in their last characters; fold the high bits into the index
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int stripes() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jetbrains.filesystem.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records how long {@link #lock()} waited; an uncontended acquisition records zero.
+ */
+final class TimedLock extends ReentrantLock {
+    private final transient Timer lockWait;
+
+    TimedLock(Timer lockWait) {
+        this.lockWait = lockWait;
+    }
+
+    static Timer lockWaitTimer(MeterRegistry meterRegistry) {
+        return Timer.builder("fileservice.lock.wait")
+                .description("Time spent waiting for a per-file lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void lock() {
+        if (tryLock()) {
+            lockWait.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        long start = System.nanoTime();
+        super.lock();
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,42 @@
+package com.jetbrains.filesystem.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes of the data moved by reads and appends, recorded by the handlers and the raw content endpoint.
+ * Kept apart from {@link RpcMetrics}, which depends on the handlers.
+ */
+@Component
+public class PayloadMetrics {
+    private final DistributionSummary bytesRead;
+    private final DistributionSummary bytesAppended;
+    private final DistributionSummary bytesReturned;
+
+    public PayloadMetrics(MeterRegistry registry) {
+        this.bytesRead = bytes(registry, "fileservice.bytes.read", "File bytes read by readFileSegment and raw content reads");
+        this.bytesAppended = bytes(registry, "fileservice.bytes.appended", "File bytes appended per appendDataToFile");
+        this.bytesReturned = bytes(registry, "fileservice.bytes.returned", "Payload bytes returned to the client (base64 or raw)");
+    }
+
+    private static DistributionSummary bytes(MeterRegistry registry, String name, String description) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordRead(long bytes) {
+        bytesRead.record(bytes);
+    }
+
+    public void recordAppended(long bytes) {
+        bytesAppended.record(bytes);
+    }
+
+    public void recordReturned(long bytes) {
+        bytesReturned.record(bytes);
+    }
+}
@@ -0,0 +1,72 @@
+package com.jetbrains.filesystem.metrics;
+
+import com.jetbrains.filesystem.dispatch.BatchMode;
+import com.jetbrains.filesystem.handler.JsonRpcMethodHandler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-method call timers and batch sizes of the JSON-RPC endpoint. Everything is registered up front
+ * (one timer per method and outcome, calls that resolve to no handler count as method {@code unknown}),
+ * so recording is a map lookup and a histogram update, without building tags or meter ids per call.
+ *
+ * @see PayloadMetrics
+ */
+@Component
+public class RpcMetrics {
+    static final String UNKNOWN_METHOD = "unknown";
+
+    private final Map<String, Timer> success = new HashMap<>();
+    private final Map<String, Timer> error = new HashMap<>();
+    private final Map<BatchMode, DistributionSummary> batchSizes = new EnumMap<>(BatchMode.class);
+
+    public RpcMetrics(MeterRegistry registry, List<JsonRpcMethodHandler> handlers) {
+        for (JsonRpcMethodHandler<?> handler : handlers) {
+            register(registry, handler.method());
+        }
+        register(registry, UNKNOWN_METHOD);
+
+        for (BatchMode mode : BatchMode.values()) {
+            batchSizes.put(mode, DistributionSummary.builder("fileservice.rpc.batch.size")
+                    .description("Entries per JSON-RPC batch")
+                    .tag("mode", mode.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    private void register(MeterRegistry registry, String method) {
+        success.put(method, timer(registry, method, "success"));
+        error.put(method, timer(registry, method, "error"));
+    }
+
+    private static Timer timer(MeterRegistry registry, String method, String outcome) {
+        return Timer.builder("fileservice.rpc.calls")
+                .description("JSON-RPC calls by method and outcome")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordCall(String method, boolean succeeded, long nanos) {
+        Map<String, Timer> timers = succeeded ? success : error;
+        Timer timer = method == null ? null : timers.get(method);
+        if (timer == null) {
+            timer = timers.get(UNKNOWN_METHOD);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatch(BatchMode mode, int size) {
+        batchSizes.get(mode).record(size);
+    }
+}
@@ -2,26 +2,58 @@ package com.jetbrains.filesystem.service;
 
 import com.jetbrains.filesystem.api.FileManager;
 import com.jetbrains.filesystem.dto.file.*;
+import com.jetbrains.filesystem.exception.FileOperationException;
+import com.jetbrains.filesystem.exception.FileServiceException;
+import com.jetbrains.filesystem.exception.NotFoundException;
 import com.jetbrains.filesystem.exception.ValidationException;
+import com.jetbrains.filesystem.storage.ContentPattern;
 import com.jetbrains.filesystem.storage.FileStorage;
-import com.jetbrains.filesystem.util.FileUtil;
+import com.jetbrains.filesystem.storage.UploadSessions;
 import com.jetbrains.filesystem.util.PathValidator;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
 
 @Service("localFileManager")
-@RequiredArgsConstructor
 @Log4j2
 public class LocalFileManager implements FileManager {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int MAX_PAGE_SIZE = 10_000;
+    public static final int MAX_RANGES = 1_000;
+    public static final int DEFAULT_TAIL_LENGTH = 1024 * 1024;
+    public static final long MAX_TAIL_TIMEOUT_MS = 60_000;
+    public static final int DEFAULT_SEARCH_MATCHES = 1_000;
+    public static final int MAX_SEARCH_MATCHES = 100_000;
+    public static final long DEFAULT_SEARCH_TIMEOUT_MS = 30_000;
+    public static final long MAX_SEARCH_TIMEOUT_MS = 600_000;
+
     private final FileStorage storage;
     private final PathValidator validator;
+    private final UploadSessions uploads;
+    // reads the data of tailFile calls woken by an append, off the appending thread
+    private final Executor tailExecutor;
+
+    public LocalFileManager(FileStorage storage, PathValidator validator, UploadSessions uploads,
+                            @Qualifier("tailExecutor") Executor tailExecutor) {
+        this.storage = storage;
+        this.validator = validator;
+        this.uploads = uploads;
+        this.tailExecutor = tailExecutor;
+    }
 
     public GetFileInfoResponse getFileInfo(String relativePath) {
         Path absPath = validator.toAbsolute(relativePath);
@@ -38,24 +70,52 @@ public class LocalFileManager implements FileManager {
 
     public ListDirectoryResponse listDirectoryChildren(String relativePath) {
         Path path = validator.toAbsolute(relativePath);
-        List<FileInfo> fileInfos = storage.getFileInfolist(path);
-        for (FileInfo fileInfo : fileInfos) {
-            fileInfo.setPath(validator.toRelative(fileInfo.getPath()));
+        // storage entries may be shared (metadata cache), so build relative copies instead of mutating them
+        List<FileInfo> fileInfos = new ArrayList<>();
+        for (FileInfo fileInfo : storage.getFileInfolist(path)) {
+            fileInfos.add(toRelativeInfo(fileInfo));
         }
         ListDirectoryResponse response = new ListDirectoryResponse(fileInfos);
         return response;
     }
 
+    public ListDirectoryResponse listDirectoryChildren(String relativePath, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Path path = validator.toAbsolute(relativePath);
+
+        ListDirectoryResponse page = storage.getFileInfoPage(path, cursor, limit);
+        List<FileInfo> fileInfos = new ArrayList<>(page.getFileInfos().size());
+        for (FileInfo fileInfo : page.getFileInfos()) {
+            fileInfos.add(toRelativeInfo(fileInfo));
+        }
+        return new ListDirectoryResponse(fileInfos, page.getNextCursor());
+    }
+
+    public ListDirectoryStreamResponse streamDirectoryChildren(String relativePath) {
+        Path path = validator.toAbsolute(relativePath);
+        // fail here, while the error can still become a JSON-RPC error; the directory itself is read during serialization
+        if (!storage.getFileInfo(path).isDirectory()) {
+            throw new NotFoundException("File not found");
+        }
+        return new ListDirectoryStreamResponse(() -> storage.streamFileInfos(path).map(this::toRelativeInfo));
+    }
+
+    private FileInfo toRelativeInfo(FileInfo fileInfo) {
+        return new FileInfo(fileInfo.getName(), validator.toRelative(fileInfo.getPath()),
+                fileInfo.getSize(), fileInfo.isDirectory());
+    }
+
     public CreateEntryResponse createEntry(String relativePath, String inputType) {
         EntryType entryType = EntryType.fromString(inputType);
         Path p = validator.toAbsolute(relativePath);
-        File targetFile = p.toFile();
-        if(targetFile.exists()){
-            throw new ValidationException("File or folder already exists:"+ targetFile.getAbsolutePath());
+        if (storage.entryType(p) != null) {
+            throw new ValidationException("File or folder already exists:" + p);
         }
 
         storage.create(p, entryType);
-        CreateEntryResponse response = new CreateEntryResponse(targetFile.getName(),relativePath, targetFile.length(),targetFile.isDirectory());
+        CreateEntryResponse response = new CreateEntryResponse(p.getFileName().toString(), relativePath, 0, entryType == EntryType.FOLDER);
         return response;
     }
 
@@ -89,15 +149,130 @@ public class LocalFileManager implements FileManager {
     public ReadFileSegmentResponse readFile(String relativePath, long offset, int length)  {
         Path path = validator.toAbsolute(relativePath);
         ByteBuffer buffer = storage.read(path, offset, length);
-        String base64Data = FileUtil.encodeBase64(buffer);
-        ReadFileSegmentResponse response = new ReadFileSegmentResponse(base64Data);
+        // base64-encoded only when the response is written, see ReadFileSegmentResponse
+        return new ReadFileSegmentResponse(buffer);
+    }
+
+    public ReadFileSegmentsResponse readFileSegments(String relativePath, List<SegmentRange> ranges) {
+        if (ranges != null && ranges.size() > MAX_RANGES) {
+            throw new ValidationException("at most " + MAX_RANGES + " ranges per call");
+        }
+        Path path = validator.toAbsolute(relativePath);
+        List<ByteBuffer> buffers = storage.read(path, ranges);
+        List<FileSegment> segments = new ArrayList<>(buffers.size());
+        for (int i = 0; i < buffers.size(); i++) {
+            segments.add(new FileSegment(ranges.get(i).getOffset(), buffers.get(i)));
+        }
+        return new ReadFileSegmentsResponse(segments);
+    }
+
+    /**
+     * Completes once the file grows past {@code offset} or {@code timeoutMs} passes. Nothing waits meanwhile:
+     * the append that grows the file completes the future, or the timeout does.
+     */
+    public CompletableFuture<TailFileResponse> tailFile(String relativePath, long offset, int length, long timeoutMs) {
+        if (offset < 0) {
+            throw new ValidationException("offset must not be negative");
+        }
+        if (length < 0) {
+            throw new ValidationException("length must be positive");
+        }
+        if (timeoutMs < 0 || timeoutMs > MAX_TAIL_TIMEOUT_MS) {
+            throw new ValidationException("timeoutMs must be between 0 and " + MAX_TAIL_TIMEOUT_MS);
+        }
+        Path path = validator.toAbsolute(relativePath);
+        int limit = length == 0 ? DEFAULT_TAIL_LENGTH : length;
+
+        CompletableFuture<Void> grown = storage.awaitGrowth(path, offset);
+        if (grown.isDone()) {
+            return CompletableFuture.completedFuture(tail(path, offset, limit));
+        }
+        // timing out completes, and so deregisters, the wait
+        return grown.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handleAsync((ignored, e) -> {
+            if (e == null) {
+                return tail(path, offset, limit);
+            }
+            if (e instanceof TimeoutException) {
+                return new TailFileResponse(offset, offset, ByteBuffer.allocate(0));
+            }
+            if (e instanceof FileServiceException fse) {
+                throw fse;
+            }
+            throw new FileOperationException("Failed to wait for data", e);
+        }, tailExecutor);
+    }
+
+    private TailFileResponse tail(Path path, long offset, int length) {
+        ByteBuffer data = storage.read(path, offset, length);
+        return new TailFileResponse(offset, offset + data.remaining(), data);
+    }
+
+    public GetChecksumResponse getChecksum(String relativePath, String algorithm) {
+        ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.fromString(algorithm);
+        Path path = validator.toAbsolute(relativePath);
+        GetChecksumResponse response = storage.checksum(path, checksumAlgorithm);
+        response.setPath(validator.toRelative(response.getPath()));
         return response;
     }
 
-    public AppendDataToFileResponse appendDataToFile(String relativePath, String encodedData)  {
-        Path source = validator.toAbsolute(relativePath);
-        validator.validateSourceForAppend(source);
+    public SearchContentResponse searchContent(String relativePath, String glob, String pattern, boolean regex,
+                                               int maxMatches, long timeoutMs) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new ValidationException("pattern must not be empty");
+        }
+        if (maxMatches < 0 || maxMatches > MAX_SEARCH_MATCHES) {
+            throw new ValidationException("maxMatches must be between 0 and " + MAX_SEARCH_MATCHES);
+        }
+        if (timeoutMs < 0 || timeoutMs > MAX_SEARCH_TIMEOUT_MS) {
+            throw new ValidationException("timeoutMs must be between 0 and " + MAX_SEARCH_TIMEOUT_MS);
+        }
+        ContentPattern contentPattern;
+        try {
+            contentPattern = regex ? ContentPattern.regex(pattern) : ContentPattern.literal(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new ValidationException("Invalid regex: " + e.getDescription());
+        }
+        Predicate<Path> filter = globFilter(glob);
+        Path path = validator.toAbsolute(relativePath);
+        // fail here, while the error can still become a JSON-RPC error; the search runs during serialization
+        if (storage.entryType(path) == null) {
+            throw new NotFoundException("File not found");
+        }
+        return new SearchContentResponse(() -> storage.searchContent(path, filter, contentPattern),
+                match -> {
+                    match.setPath(validator.toRelative(match.getPath()));
+                    return match;
+                },
+                maxMatches == 0 ? DEFAULT_SEARCH_MATCHES : maxMatches,
+                timeoutMs == 0 ? DEFAULT_SEARCH_TIMEOUT_MS : timeoutMs);
+    }
 
+    /**
+     * A glob with a '/' is matched against the whole relative path, otherwise against the file name only,
+     * so {@code *.log} finds logs at any depth.
+     */
+    private static Predicate<Path> globFilter(String glob) {
+        if (glob == null || glob.isEmpty()) {
+            return relative -> true;
+        }
+        PathMatcher matcher;
+        try {
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid glob: " + e.getMessage());
+        }
+        if (glob.contains("/")) {
+            return matcher::matches;
+        }
+        return relative -> matcher.matches(relative.getFileName());
+    }
+
+    public long transferFile(String relativePath, long offset, long length, WritableByteChannel target) {
+        Path path = validator.toAbsolute(relativePath);
+        return storage.transferTo(path, offset, length, target);
+    }
+
+    public AppendDataToFileResponse appendDataToFile(String relativePath, String encodedData)  {
         byte[] originalData = null;
         try {
             originalData = Base64.getDecoder().decode(encodedData);
@@ -105,16 +280,64 @@ public class LocalFileManager implements FileManager {
             throw new ValidationException("Invalid encoded data");
         }
 
-        int appendLength = storage.append(source, originalData);
-        AppendDataToFileResponse response = new AppendDataToFileResponse(relativePath, appendLength);
-        return response;
+        return appendDataToFile(relativePath, originalData);
     }
 
-}
+    public AppendDataToFileResponse appendDataToFile(String relativePath, byte[] data)  {
+        Path source = validator.toAbsolute(relativePath);
+        validator.validateSourceForAppend(source);
+        if (data == null) {
+            throw new ValidationException("Invalid encoded data");
+        }
 
+        long offset = storage.append(source, data);
+        AppendDataToFileResponse response = new AppendDataToFileResponse(relativePath, data.length, offset);
+        return response;
+    }
+
+    public UploadStatusResponse beginUpload(String relativePath) {
+        Path target = validator.toAbsolute(relativePath);
+        validator.validateSourceForAppend(target);
+        UploadSessions.Session session = uploads.begin(target);
+        return new UploadStatusResponse(session.id(), validator.toRelative(target.toString()), 0);
+    }
 
+    public UploadStatusResponse getUpload(String uploadId) {
+        UploadSessions.Session session = uploads.get(uploadId);
+        return toStatus(session, uploads.offset(session));
+    }
 
+    public UploadStatusResponse uploadChunk(String uploadId, long offset, InputStream data) {
+        long confirmed = uploads.write(uploadId, offset, data);
+        return toStatus(uploads.get(uploadId), confirmed);
+    }
 
+    public CommitUploadResponse commitUpload(String uploadId) {
+        UploadSessions.Session session = uploads.lock(uploadId);
+        try {
+            validator.validateSourceForAppend(session.target());
+            long length = uploads.offset(session);
+            long offset = storage.appendFile(session.target(), session.staging());
+            uploads.remove(session);
+            return new CommitUploadResponse(validator.toRelative(session.target().toString()), length, offset);
+        } finally {
+            uploads.unlock(session);
+        }
+    }
 
+    public UploadStatusResponse abortUpload(String uploadId) {
+        UploadSessions.Session session = uploads.lock(uploadId);
+        try {
+            UploadStatusResponse status = toStatus(session, uploads.offset(session));
+            uploads.remove(session);
+            return status;
+        } finally {
+            uploads.unlock(session);
+        }
+    }
 
+    private UploadStatusResponse toStatus(UploadSessions.Session session, long offset) {
+        return new UploadStatusResponse(session.id(), validator.toRelative(session.target().toString()), offset);
+    }
 
+}
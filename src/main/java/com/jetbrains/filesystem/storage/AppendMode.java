@@ -0,0 +1,9 @@
+package com.jetbrains.filesystem.storage;
+
+/**
+ * How {@code appendDataToFile} writes, see {@link LockingFileAppender}, {@link PositionalFileAppender}
+ * and {@link GroupCommitFileAppender}.
+ */
+public enum AppendMode {
+    LOCKING, POSITIONAL, GROUP_COMMIT
+}
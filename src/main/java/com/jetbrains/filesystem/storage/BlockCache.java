@@ -0,0 +1,154 @@
+package com.jetbrains.filesystem.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Cache of fixed-size, block-aligned file ranges held in direct memory, for {@code readFileSegment}
+ * on hot files.
+ * <p>
+ * Only complete blocks are cached, so the growing tail of an appended file is always read from disk and
+ * a cached block never needs to change when data is appended after it: appends invalidate nothing. Blocks are keyed by path, file
+ * key (inode) and block index, so a file replaced outside the service by renaming another file over it
+ * is not served from stale blocks; in-place overwrites from outside the service are not detected.
+ * Eviction is Caffeine's W-TinyLFU, bounded by {@code max-bytes}.
+ */
+@Component
+public class BlockCache {
+    private final boolean enabled;
+    private final int blockSize;
+    private final Cache<BlockKey, ByteBuffer> blocks;
+
+    public BlockCache(FileServiceProperties props, MeterRegistry meterRegistry) {
+        FileServiceProperties.BlockCache config = props.getBlockCache();
+        this.enabled = config.isEnabled();
+        this.blockSize = config.getBlockSize();
+        this.blocks = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((BlockKey key, ByteBuffer block) -> block.capacity())
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, blocks, "fileservice.block");
+            Gauge.builder("fileservice.block.cache.hit.ratio", blocks, c -> c.stats().hitRate())
+                    .description("Share of block lookups served from the block cache")
+                    .register(meterRegistry);
+            Gauge.builder("fileservice.block.cache.resident.bytes", this, BlockCache::residentBytes)
+                    .description("Direct memory held by cached blocks")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads up to {@code length} bytes at {@code offset} (clamped to EOF) through the cache, loading missing
+     * blocks from {@code channel}. A range inside one cached block is returned as a read-only view of it.
+     */
+    public ByteBuffer read(Path path, BasicFileAttributes attrs, FileChannel channel, long offset, int length) throws IOException {
+        return read(path, attrs, attrs.size(), channel, offset, length);
+    }
+
+    /**
+     * Same as {@link #read(Path, BasicFileAttributes, FileChannel, long, int)}, treating the file as
+     * {@code fileSize} bytes long (its committed size) instead of the size in {@code attrs}.
+     */
+    public ByteBuffer read(Path path, BasicFileAttributes attrs, long fileSize, FileChannel channel, long offset, int length) throws IOException {
+        if (offset < 0 || offset >= fileSize) {
+            throw new IllegalArgumentException("Invalid offset: " + offset);
+        }
+        int safeLength = (int) Math.min(length, fileSize - offset);
+        long firstBlock = offset / blockSize;
+        long lastBlock = (offset + safeLength - 1) / blockSize;
+
+        if (firstBlock == lastBlock) {
+            ByteBuffer block = block(path, attrs.fileKey(), fileSize, channel, firstBlock);
+            if (block != null) {
+                return block.slice((int) (offset - firstBlock * blockSize), safeLength).asReadOnlyBuffer();
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(safeLength);
+        for (long index = firstBlock; index <= lastBlock; index++) {
+            long blockStart = index * blockSize;
+            int from = (int) (Math.max(offset, blockStart) - blockStart);
+            int to = (int) (Math.min(offset + safeLength, blockStart + blockSize) - blockStart);
+
+            ByteBuffer block = block(path, attrs.fileKey(), fileSize, channel, index);
+            if (block != null) {
+                out.put(block.slice(from, to - from));
+            } else {
+                // partial tail block: straight from the file
+                readFully(channel, out.slice(out.position(), to - from), blockStart + from);
+                out.position(out.position() + to - from);
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * {@code path} and everything below it was deleted, moved or overwritten.
+     */
+    public void invalidate(Path path) {
+        if (!enabled) return;
+        blocks.asMap().keySet().removeIf(key -> key.path().startsWith(path));
+    }
+
+    public long residentBytes() {
+        return blocks.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private ByteBuffer block(Path path, Object fileKey, long fileSize, FileChannel channel, long index) throws IOException {
+        if ((index + 1) * blockSize > fileSize) {
+            return null;
+        }
+        BlockKey key = new BlockKey(path, fileKey, index);
+        ByteBuffer block = blocks.getIfPresent(key);
+        if (block != null) {
+            return block;
+        }
+        // read outside the cache's compute (a monitor), so a virtual thread waiting for the same block does
+        // not pin its carrier; two threads missing together both read, the first one's block is kept
+        block = load(channel, index);
+        ByteBuffer cached = blocks.asMap().putIfAbsent(key, block);
+        return cached != null ? cached : block;
+    }
+
+    private ByteBuffer load(FileChannel channel, long index) throws IOException {
+        ByteBuffer block = ByteBuffer.allocateDirect(blockSize);
+        readFully(channel, block, index * blockSize);
+        block.flip();
+        return block;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new EOFException("file shrank while reading at " + position);
+            }
+            position += read;
+        }
+    }
+
+    private record BlockKey(Path path, Object fileKey, long index) {
+    }
+}
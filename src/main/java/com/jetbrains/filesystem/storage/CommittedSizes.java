@@ -0,0 +1,62 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.lock.FileLockRegistry;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Committed sizes of the files an appender is writing to. Before writing, the appender publishes the size
+ * the file had, and clears it once every byte is written; each of the two updates holds the file's stamped
+ * lock exclusively for a moment, the write itself does not hold it. A reader validates an optimistic stamp
+ * around reading the published size and the file size, so it never waits for a write, however long.
+ * <p>
+ * Expects at most one write per file in flight, which the appenders using it guarantee.
+ */
+final class CommittedSizes {
+    private final FileLockRegistry locks;
+    // files being written to, with their size before the write
+    private final Map<Path, Long> writing = new ConcurrentHashMap<>();
+
+    CommittedSizes(FileLockRegistry locks) {
+        this.locks = locks;
+    }
+
+    /**
+     * A write to {@code path}, which is {@code size} bytes long so far, starts.
+     */
+    void writing(Path path, long size) {
+        StampedLock lock = locks.stampedLock(path.toString());
+        long stamp = lock.writeLock();
+        try {
+            writing.put(path, size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The write to {@code path} ended, whether it succeeded or not.
+     */
+    void written(Path path) {
+        StampedLock lock = locks.stampedLock(path.toString());
+        long stamp = lock.writeLock();
+        try {
+            writing.remove(path);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    long committedSize(Path path, FileChannel channel) throws IOException {
+        return FileLockRegistry.readOptimistically(locks.stampedLock(path.toString()), () -> {
+            long size = channel.size();
+            Long before = writing.get(path);
+            return before == null ? size : Math.min(before, size);
+        });
+    }
+}
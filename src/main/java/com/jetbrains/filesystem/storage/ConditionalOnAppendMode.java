@@ -0,0 +1,36 @@
+package com.jetbrains.filesystem.storage;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers the bean only for the given {@code fileservice.append.mode}. The property is bound to
+ * {@link AppendMode} the way {@code FileServiceProperties} binds it, so every spelling the properties accept
+ * ({@code group-commit}, {@code GROUP_COMMIT}, ...) selects the same appender.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Conditional(ConditionalOnAppendMode.OnAppendMode.class)
+public @interface ConditionalOnAppendMode {
+    AppendMode value();
+
+    class OnAppendMode implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            AppendMode required = (AppendMode) metadata.getAnnotationAttributes(ConditionalOnAppendMode.class.getName())
+                    .get("value");
+            AppendMode mode = Binder.get(context.getEnvironment())
+                    .bind("fileservice.append.mode", AppendMode.class)
+                    .orElse(AppendMode.LOCKING);
+            return mode == required;
+        }
+    }
+}
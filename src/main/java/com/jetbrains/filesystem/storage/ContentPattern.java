@@ -0,0 +1,145 @@
+package com.jetbrains.filesystem.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What {@code searchContent} looks for, compiled once per search and shared by its scanning threads.
+ * <p>
+ * A literal is UTF-8 encoded and found with Boyer-Moore-Horspool straight on the (mapped) bytes: nothing is
+ * decoded, and a mismatch skips ahead by up to the literal's length. A regex runs over the bytes read as
+ * ISO-8859-1, so character and byte offsets coincide; its non-ASCII characters therefore do not match UTF-8
+ * text, which is better searched as a literal. As a regex may backtrack for a long time within one window, the
+ * matcher checks every so often whether the search was cancelled and gives up with {@link Cancelled}.
+ */
+public abstract class ContentPattern {
+
+    public static ContentPattern literal(String text) {
+        return new Literal(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if {@code expression} is not a valid regex
+     */
+    public static ContentPattern regex(String expression) {
+        return new Regex(Pattern.compile(expression, Pattern.MULTILINE));
+    }
+
+    /**
+     * Start of the first match in {@code content} that lies within {@code [from, to)}, or -1.
+     *
+     * @throws Cancelled if {@code cancelled} turned true while looking
+     */
+    abstract int find(ByteBuffer content, int from, int to, BooleanSupplier cancelled);
+
+    /**
+     * The search was cancelled while a pattern was being matched.
+     */
+    static final class Cancelled extends RuntimeException {
+        Cancelled() {
+            super("content search cancelled", null, false, false);
+        }
+    }
+
+    private static final class Literal extends ContentPattern {
+        private final byte[] needle;
+        // how far the window may move when its last byte is b
+        private final int[] skip = new int[256];
+
+        Literal(byte[] needle) {
+            this.needle = needle;
+            Arrays.fill(skip, needle.length);
+            for (int i = 0; i < needle.length - 1; i++) {
+                skip[needle[i] & 0xff] = needle.length - 1 - i;
+            }
+        }
+
+        @Override
+        int find(ByteBuffer content, int from, int to, BooleanSupplier cancelled) {
+            // linear in the window, so checking between windows and matches is enough
+            int last = needle.length - 1;
+            byte lastByte = needle[last];
+            for (int i = from; i + last < to; ) {
+                byte b = content.get(i + last);
+                if (b == lastByte && matchesAt(content, i, last)) {
+                    return i;
+                }
+                i += skip[b & 0xff];
+            }
+            return -1;
+        }
+
+        private boolean matchesAt(ByteBuffer content, int at, int length) {
+            for (int j = 0; j < length; j++) {
+                if (content.get(at + j) != needle[j]) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Regex extends ContentPattern {
+        private final Pattern pattern;
+
+        Regex(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        int find(ByteBuffer content, int from, int to, BooleanSupplier cancelled) {
+            Matcher matcher = pattern.matcher(new Latin1(content, 0, to, cancelled));
+            matcher.region(from, to);
+            return matcher.find() ? matcher.start() : -1;
+        }
+    }
+
+    /**
+     * Bytes seen as ISO-8859-1 characters, without copying them. Every {@code CHECK_INTERVAL} characters read
+     * it checks for cancellation, which bounds how long a backtracking regex keeps running after it.
+     */
+    private static final class Latin1 implements CharSequence {
+        private static final int CHECK_INTERVAL = 64 * 1024;
+
+        private final ByteBuffer bytes;
+        private final int start;
+        private final int end;
+        private final BooleanSupplier cancelled;
+        private int reads;
+
+        Latin1(ByteBuffer bytes, int start, int end, BooleanSupplier cancelled) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads == CHECK_INTERVAL) {
+                reads = 0;
+                if (cancelled.getAsBoolean()) throw new Cancelled();
+            }
+            return (char) (bytes.get(start + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new Latin1(bytes, start + from, start + to, cancelled);
+        }
+
+        @Override
+        public String toString() {
+            byte[] copy = new byte[length()];
+            bytes.get(start, copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
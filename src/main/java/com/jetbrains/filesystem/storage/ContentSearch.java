@@ -0,0 +1,112 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.dto.file.ContentMatch;
+import com.jetbrains.filesystem.dto.file.SearchContentResponse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One running content search: scanning threads queue matches, the thread writing the response takes them.
+ * The queue is bounded, so a slow reader holds the scanners back rather than piling matches up in memory.
+ * Closing the search cancels it; scanners notice between files, between windows of a file and, while a regex
+ * is being matched, every 64 Ki characters it reads.
+ */
+public final class ContentSearch implements SearchContentResponse.Matches {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long OFFER_WAIT_MS = 100;
+    // queued after the last match
+    private static final ContentMatch END = new ContentMatch();
+
+    private final BlockingQueue<ContentMatch> matches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // the walk plus every file handed to a scanning thread and not scanned yet
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicLong filesScanned = new AtomicLong();
+    private volatile boolean cancelled;
+    private boolean done;
+
+    @Override
+    public ContentMatch poll() {
+        return take(matches.poll());
+    }
+
+    @Override
+    public ContentMatch poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return take(matches.poll(timeout, unit));
+    }
+
+    @Override
+    public boolean isDone() {
+        if (!done && matches.peek() == END) {
+            matches.poll();
+            done = true;
+        }
+        return done;
+    }
+
+    @Override
+    public long filesScanned() {
+        return filesScanned.get();
+    }
+
+    @Override
+    public void close() {
+        cancelled = true;
+        // frees scanners blocked on a full queue
+        matches.clear();
+    }
+
+    private ContentMatch take(ContentMatch match) {
+        if (match == END) {
+            done = true;
+            return null;
+        }
+        return match;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Queues {@code match}, waiting for room while the search runs.
+     *
+     * @return false if the search was cancelled, so the caller stops scanning
+     */
+    boolean offer(ContentMatch match) {
+        try {
+            while (!cancelled) {
+                if (matches.offer(match, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return false;
+    }
+
+    void fileScanned() {
+        filesScanned.incrementAndGet();
+    }
+
+    /**
+     * A file was handed to a scanning thread.
+     */
+    void started() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * The walk, or the scan of a handed-off file, ended.
+     */
+    void finished() {
+        if (pending.decrementAndGet() == 0) {
+            offer(END);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ContentMatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs content searches on a pool shared by all searches, which bounds the I/O they cause together:
+ * {@code parallelism} threads plus one for walking. Each search walks its files on one pool thread and hands
+ * every file to another, with at most {@code parallelism} files of one search waiting or being scanned at a
+ * time; when none of those slots is free the walking thread scans the file itself instead of queueing it.
+ * <p>
+ * Files of at least {@code mmap-threshold} bytes are mapped in 64 MiB windows that end at a line break, so a
+ * match never straddles two windows (except in lines longer than a window); smaller files are read into
+ * the heap in one go. A file in memory is scanned chunk by chunk in place, likewise cut at line breaks: only a
+ * line that spans chunks is copied, to be matched as a whole. Each line is reported once, with the offset of
+ * its first match. A file that cannot be read, e.g. because it was deleted since the walk saw it, is skipped.
+ */
+@Component
+@Log4j2
+public class ContentSearcher {
+    private static final long WINDOW = 64 * 1024 * 1024;
+    // longest piece of a line put into a match
+    private static final int MAX_LINE_BYTES = 4096;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final long mmapThreshold;
+    private final Counter scannedBytes;
+
+    public ContentSearcher(FileServiceProperties props, MeterRegistry meterRegistry) {
+        FileServiceProperties.Search config = props.getSearch();
+        this.parallelism = Math.max(1, config.getParallelism());
+        this.mmapThreshold = config.getMmapThreshold();
+        this.scannedBytes = Counter.builder("fileservice.search.scanned.bytes")
+                .description("Bytes scanned by searchContent")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        AtomicInteger counter = new AtomicInteger();
+        // the walk of a search takes a thread too
+        this.executor = Executors.newFixedThreadPool(parallelism + 1, r -> {
+            Thread t = new Thread(r, "search-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Hands the files of one search to {@code files}, stopping once it returns false; runs on a pool thread.
+     */
+    @FunctionalInterface
+    public interface Walk {
+        void walk(Predicate<SearchFile> files) throws IOException;
+    }
+
+    /**
+     * A file to search: the path its matches are reported under, and where its content is.
+     */
+    public sealed interface SearchFile permits DiskFile, MemoryFile {
+        Path path();
+    }
+
+    public record DiskFile(Path path, Path file) implements SearchFile {
+    }
+
+    /**
+     * A file held in memory as {@code chunks}, in order; only their content up to each limit is searched.
+     */
+    public record MemoryFile(Path path, List<ByteBuffer> chunks) implements SearchFile {
+    }
+
+    public ContentSearch search(ContentPattern pattern, Walk walk) {
+        ContentSearch search = new ContentSearch();
+        Semaphore slots = new Semaphore(parallelism);
+        executor.execute(() -> {
+            try {
+                walk.walk(file -> {
+                    dispatch(search, pattern, file, slots);
+                    return !search.isCancelled();
+                });
+            } catch (IOException | RuntimeException e) {
+                log.warn("content search walk failed", e);
+            } finally {
+                search.finished();
+            }
+        });
+        return search;
+    }
+
+    private void dispatch(ContentSearch search, ContentPattern pattern, SearchFile file, Semaphore slots) {
+        if (!slots.tryAcquire()) {
+            scan(search, pattern, file);
+            return;
+        }
+        search.started();
+        try {
+            executor.execute(() -> {
+                try {
+                    scan(search, pattern, file);
+                } finally {
+                    slots.release();
+                    search.finished();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            search.finished();
+            throw e;
+        }
+    }
+
+    private void scan(ContentSearch search, ContentPattern pattern, SearchFile file) {
+        if (search.isCancelled()) return;
+        try {
+            if (file instanceof MemoryFile memory) {
+                scanChunks(search, pattern, memory.path(), memory.chunks());
+            } else if (file instanceof DiskFile disk) {
+                scanFile(search, pattern, disk.path(), disk.file());
+            }
+            search.fileScanned();
+        } catch (ContentPattern.Cancelled e) {
+            log.debug("search cancelled while scanning {}", file.path());
+        } catch (NoSuchFileException e) {
+            log.debug("{} is gone, skipping it", file.path());
+        } catch (IOException e) {
+            log.debug("cannot search {}, skipping it: {}", file.path(), e.toString());
+        }
+    }
+
+    private void scanFile(ContentSearch search, ContentPattern pattern, Path path, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // appends that complete during the scan are not searched
+            long size = channel.size();
+            if (size < mmapThreshold) {
+                ByteBuffer content = ByteBuffer.allocate((int) size);
+                while (content.hasRemaining()) {
+                    if (channel.read(content, content.position()) < 0) {
+                        throw new EOFException("file shrank while searching it");
+                    }
+                }
+                scanWindow(search, pattern, path, content, 0, (int) size);
+                scannedBytes.increment(size);
+                return;
+            }
+            long position = 0;
+            while (position < size && !search.isCancelled()) {
+                int length = (int) Math.min(WINDOW, size - position);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = length;
+                if (position + length < size) {
+                    // end at a line break, so the next window starts at a line
+                    int cut = lastLineBreak(window, length);
+                    if (cut > 0) end = cut;
+                }
+                if (!scanWindow(search, pattern, path, window, position, end)) return;
+                scannedBytes.increment(end);
+                position += end;
+            }
+        }
+    }
+
+    private void scanChunks(ContentSearch search, ContentPattern pattern, Path path, List<ByteBuffer> chunks) {
+        // pieces of the line the previous chunks ended in, and the file offset it starts at
+        List<ByteBuffer> carry = new ArrayList<>();
+        long carried = 0;
+        long lineOffset = 0;
+        long position = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (search.isCancelled()) return;
+            int length = chunk.limit();
+            int first = firstLineBreak(chunk, length);
+            if (first < 0) {
+                // the line goes on; a line longer than a window is cut, as on disk
+                if (carry.isEmpty()) lineOffset = position;
+                carry.add(chunk.slice(0, length));
+                carried += length;
+                position += length;
+                if (carried >= WINDOW) {
+                    if (!scanJoined(search, pattern, path, carry, lineOffset)) return;
+                    carried = 0;
+                }
+                continue;
+            }
+            // the whole lines of the chunk start here
+            int start = 0;
+            if (!carry.isEmpty()) {
+                carry.add(chunk.slice(0, first));
+                if (!scanJoined(search, pattern, path, carry, lineOffset)) return;
+                carried = 0;
+                start = first;
+            }
+            int last = lastLineBreak(chunk, length);
+            if (last > start) {
+                if (!scanWindow(search, pattern, path, chunk.slice(start, last - start), position + start, last - start)) {
+                    return;
+                }
+                scannedBytes.increment(last - start);
+            }
+            if (last < length) {
+                lineOffset = position + last;
+                carry.add(chunk.slice(last, length - last));
+                carried = length - last;
+            }
+            position += length;
+        }
+        if (!carry.isEmpty()) {
+            scanJoined(search, pattern, path, carry, lineOffset);
+        }
+    }
+
+    /**
+     * Scans {@code pieces} copied into one window, starting at file offset {@code base}, and clears them.
+     */
+    private boolean scanJoined(ContentSearch search, ContentPattern pattern, Path path, List<ByteBuffer> pieces,
+                               long base) {
+        ByteBuffer joined;
+        if (pieces.size() == 1) {
+            joined = pieces.get(0);
+        } else {
+            joined = ByteBuffer.allocate(pieces.stream().mapToInt(ByteBuffer::remaining).sum());
+            pieces.forEach(joined::put);
+            joined.flip();
+        }
+        pieces.clear();
+        scannedBytes.increment(joined.limit());
+        return scanWindow(search, pattern, path, joined, base, joined.limit());
+    }
+
+    /**
+     * Reports the lines matching in {@code [0, end)} of {@code window}, which starts at file offset {@code base}.
+     *
+     * @return false if the search was cancelled
+     */
+    private boolean scanWindow(ContentSearch search, ContentPattern pattern, Path path, ByteBuffer window,
+                               long base, int end) {
+        int from = 0;
+        while (from < end) {
+            int at = pattern.find(window, from, end, search::isCancelled);
+            if (at < 0) return true;
+
+            int lineStart = at;
+            int lowest = Math.max(from, at - MAX_LINE_BYTES / 2);
+            while (lineStart > lowest && window.get(lineStart - 1) != '\n') lineStart--;
+            int lineEnd = at;
+            while (lineEnd < end && window.get(lineEnd) != '\n') lineEnd++;
+
+            int textEnd = Math.min(lineEnd, lineStart + MAX_LINE_BYTES);
+            if (textEnd == lineEnd && textEnd > lineStart && window.get(textEnd - 1) == '\r') textEnd--;
+            String line = StandardCharsets.UTF_8.decode(window.slice(lineStart, textEnd - lineStart)).toString();
+            if (!search.offer(new ContentMatch(path.toString(), base + at, line))) return false;
+            from = lineEnd + 1;
+        }
+        return true;
+    }
+
+    private static int firstLineBreak(ByteBuffer window, int end) {
+        for (int i = 0; i < end; i++) {
+            if (window.get(i) == '\n') return i + 1;
+        }
+        return -1;
+    }
+
+    private static int lastLineBreak(ByteBuffer window, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (window.get(i) == '\n') return i + 1;
+        }
+        return -1;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
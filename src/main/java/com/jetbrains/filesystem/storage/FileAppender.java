@@ -0,0 +1,44 @@
+package com.jetbrains.filesystem.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+public interface FileAppender {
+    /**
+     * Appends {@code data} to the existing file at {@code path}.
+     *
+     * @return the file offset the data was written at
+     */
+    long append(Path path, byte[] data) throws IOException;
+
+    /**
+     * Appends {@code length} bytes of {@code source}, from its current position, as one contiguous
+     * region of the file at {@code path}, without going through a heap buffer.
+     *
+     * @return the file offset the data was written at
+     */
+    long append(Path path, FileChannel source, long length) throws IOException;
+
+    /**
+     * Size of the file at {@code path} that readers may read up to: no append is half-written below it.
+     * Modes that cannot tell return the current size.
+     */
+    default long committedSize(Path path, FileChannel channel) throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Whether the bytes below {@link #committedSize} are final, so state derived from them (a rolling
+     * checksum) can be kept and extended later. Not so in modes where appends complete out of order.
+     */
+    default boolean committedPrefixIsFinal() {
+        return true;
+    }
+
+    /**
+     * {@code path}, or something below it, was deleted, moved or replaced: drop any state kept for it.
+     */
+    default void invalidate(Path path) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.jetbrains.filesystem.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of open {@link FileChannel}s shared by reads and appends, so a small read or append
+ * does not pay for an open/close pair.
+ * <p>
+ * Channels are opened read-write (read-only if the file or its file system is not writable) and only used
+ * with positional I/O, so concurrent users do not disturb each other. Every {@link #acquire} returns a
+ * {@link Lease} that must be closed; a channel evicted (idle, over {@code max-open-files}) or
+ * invalidated (delete/move) while leased is closed by its last lease. A pooled channel whose file was
+ * replaced behind the service's back is detected through the file key (inode) and reopened.
+ * <p>
+ * Files are opened outside the map's compute (whose bin lock is a monitor), and handles guard their
+ * state with a {@link ReentrantLock}, so virtual threads waiting here do not pin their carrier.
+ */
+@Component
+@Log4j2
+public class FileChannelPool {
+    private final boolean enabled;
+    private final Cache<Path, Handle> handles;
+
+    public FileChannelPool(FileServiceProperties props) {
+        FileServiceProperties.ChannelPool config = props.getChannelPool();
+        this.enabled = config.isEnabled();
+        this.handles = Caffeine.newBuilder()
+                .maximumSize(config.getMaxOpenFiles())
+                .expireAfterAccess(config.getIdleTimeout())
+                .executor(Runnable::run)
+                .removalListener((Path path, Handle handle, RemovalCause cause) -> {
+                    if (handle != null) handle.retire();
+                })
+                .build();
+    }
+
+    public Lease acquire(Path path) throws IOException {
+        return acquire(path, Files.readAttributes(path, BasicFileAttributes.class));
+    }
+
+    /**
+     * @param attrs attributes of {@code path} the caller has just read, used to check the pooled channel is
+     *              still for the same file
+     */
+    public Lease acquire(Path path, BasicFileAttributes attrs) throws IOException {
+        if (!enabled) {
+            return new Lease(open(path, attrs.fileKey()), true);
+        }
+        Handle opened = null;
+        try {
+            while (true) {
+                Handle current = handles.getIfPresent(path);
+                if (current != null && Objects.equals(current.fileKey, attrs.fileKey())) {
+                    if (current.tryLease()) {
+                        return new Lease(current, false);
+                    }
+                    // retired between lookup and lease: it is already out of the map
+                    continue;
+                }
+                if (current != null) {
+                    log.debug("{} was replaced, reopening", path);
+                }
+                if (opened == null) {
+                    opened = open(path, attrs.fileKey());
+                }
+                Handle candidate = opened;
+                // a replaced handle is retired by the removal listener
+                Handle installed = handles.asMap().compute(path, (p, h) ->
+                        h != null && Objects.equals(h.fileKey, attrs.fileKey()) ? h : candidate);
+                if (installed == opened) {
+                    opened = null;
+                }
+                if (installed.tryLease()) {
+                    return new Lease(installed, false);
+                }
+            }
+        } finally {
+            if (opened != null) {
+                // another thread installed a channel first
+                opened.retire();
+            }
+        }
+    }
+
+    /**
+     * The file at {@code path} was deleted, moved or overwritten.
+     */
+    public void invalidate(Path path) {
+        if (!enabled) return;
+        handles.invalidate(path);
+    }
+
+    /**
+     * The directory {@code path} and everything below it was deleted, moved or overwritten. Scans every
+     * pooled channel, so only for directories.
+     */
+    public void invalidateTree(Path path) {
+        if (!enabled) return;
+        for (Path p : handles.asMap().keySet()) {
+            if (p.startsWith(path)) {
+                handles.invalidate(p);
+            }
+        }
+    }
+
+    public long openChannels() {
+        return handles.estimatedSize();
+    }
+
+    /**
+     * Runs pending evictions now instead of on the next access.
+     */
+    public void cleanUp() {
+        handles.cleanUp();
+    }
+
+    private static Handle open(Path path, Object fileKey) throws IOException {
+        return new Handle(openPreferWritable(path, FileChannel::open), fileKey);
+    }
+
+    /**
+     * Opens {@code path} read-write, or read-only where it cannot be written: not only without permission
+     * ({@link java.nio.file.AccessDeniedException}) but also on a read-only mount, where {@code EROFS} comes
+     * back as a plain {@link FileSystemException}.
+     */
+    static FileChannel openPreferWritable(Path path, Opener opener) throws IOException {
+        try {
+            return opener.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (FileSystemException e) {
+            try {
+                return opener.open(path, StandardOpenOption.READ);
+            } catch (IOException readOnly) {
+                readOnly.addSuppressed(e);
+                throw readOnly;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Opener {
+        FileChannel open(Path path, OpenOption... options) throws IOException;
+    }
+
+    @PreDestroy
+    public void close() {
+        handles.invalidateAll();
+    }
+
+    /**
+     * A leased channel; closing the lease returns it to the pool.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Handle handle;
+        private final boolean unpooled;
+
+        private Lease(Handle handle, boolean unpooled) {
+            this.handle = handle;
+            this.unpooled = unpooled;
+        }
+
+        public FileChannel channel() {
+            return handle.channel;
+        }
+
+        @Override
+        public void close() {
+            if (unpooled) {
+                handle.retire();
+            } else {
+                handle.release();
+            }
+        }
+    }
+
+    private static final class Handle {
+        final FileChannel channel;
+        final Object fileKey;
+        private final ReentrantLock lock = new ReentrantLock();
+        int refs;
+        boolean retired;
+
+        Handle(FileChannel channel, Object fileKey) {
+            this.channel = channel;
+            this.fileKey = fileKey;
+        }
+
+        /**
+         * @return false if the handle was retired (its channel is closed or about to be)
+         */
+        boolean tryLease() {
+            lock.lock();
+            try {
+                if (retired) return false;
+                refs++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                refs--;
+                if (retired && refs == 0) {
+                    closeChannel();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void retire() {
+            lock.lock();
+            try {
+                if (retired) return;
+                retired = true;
+                if (refs == 0) {
+                    closeChannel();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close pooled channel", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.jetbrains.filesystem.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Whole-file checksums computed in the service, streaming the file through a 64 KiB buffer, or through mmap
+ * windows when there is a lot to hash.
+ * <p>
+ * Files only grow through appends, so the digest state reached for a file is kept, per path and algorithm
+ * for up to {@code max-files} files, and the next checksum only hashes what was appended since. A state is
+ * dropped when its entry is created, deleted, moved or overwritten, and is not reused once the file key
+ * (inode) changed or the file got shorter; like the block cache, in-place overwrites by other processes are
+ * not detected. States live in memory only, as {@link MessageDigest} cannot export its state.
+ */
+@Component
+public class FileChecksums {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MMAP_THRESHOLD = 10 * 1024 * 1024;
+    private static final long MMAP_WINDOW = 64 * 1024 * 1024;
+
+    private final boolean enabled;
+    private final Cache<StateKey, DigestState> states;
+    private final Counter hashedBytes;
+
+    public FileChecksums(FileServiceProperties props, MeterRegistry meterRegistry) {
+        FileServiceProperties.Checksum config = props.getChecksum();
+        this.enabled = config.isIncremental();
+        this.states = Caffeine.newBuilder()
+                .maximumSize(config.getMaxFiles())
+                .build();
+        this.hashedBytes = Counter.builder("fileservice.checksum.hashed.bytes")
+                .description("Bytes read to compute getChecksum results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checksum of the first {@code size} bytes of the file open on {@code channel}.
+     *
+     * @param resumable whether the bytes below {@code size} are final, so the digest state can be kept and
+     *                  extended; not so while appends may complete out of order
+     */
+    public String checksum(Path path, Object fileKey, FileChannel channel, long size, ChecksumAlgorithm algorithm,
+                           boolean resumable) throws IOException {
+        if (!enabled || !resumable) {
+            RollingDigest digest = newDigest(algorithm);
+            hash(channel, digest, 0, size);
+            return digest.value();
+        }
+
+        DigestState state = states.get(new StateKey(path, algorithm), k -> new DigestState());
+        state.lock.lock();
+        try {
+            if (state.digest == null || !Objects.equals(state.fileKey, fileKey) || state.size > size) {
+                state.digest = newDigest(algorithm);
+                state.fileKey = fileKey;
+                state.size = 0;
+            }
+            hash(channel, state.digest, state.size, size);
+            state.size = size;
+            return state.digest.value();
+        } catch (IOException | RuntimeException e) {
+            // the digest may have absorbed part of the tail
+            state.digest = null;
+            throw e;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Checksum of {@code content}, in order; for content that is already in memory.
+     */
+    public static String checksum(ChecksumAlgorithm algorithm, List<ByteBuffer> content) {
+        RollingDigest digest = newDigest(algorithm);
+        content.forEach(part -> digest.update(part.duplicate()));
+        return digest.value();
+    }
+
+    /**
+     * {@code path} and everything below it was created, deleted, moved or overwritten.
+     */
+    public void invalidate(Path path) {
+        if (!enabled) return;
+        states.asMap().keySet().removeIf(key -> key.path().startsWith(path));
+    }
+
+    public long hashedBytes() {
+        return (long) hashedBytes.count();
+    }
+
+    private void hash(FileChannel channel, RollingDigest digest, long from, long to) throws IOException {
+        if (to - from > MMAP_THRESHOLD) {
+            for (long position = from; position < to; position += MMAP_WINDOW) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MMAP_WINDOW, to - position)));
+            }
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(to - from, 1)));
+            long position = from;
+            while (position < to) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("file shrank while hashing at " + position);
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        }
+        hashedBytes.increment(to - from);
+    }
+
+    private static RollingDigest newDigest(ChecksumAlgorithm algorithm) {
+        return switch (algorithm) {
+            case CRC32C -> new RollingDigest() {
+                private final CRC32C crc = new CRC32C();
+
+                @Override
+                public void update(ByteBuffer data) {
+                    crc.update(data);
+                }
+
+                @Override
+                public String value() {
+                    return String.format("%08x", crc.getValue());
+                }
+            };
+            case SHA256 -> new RollingDigest() {
+                private final MessageDigest sha = sha256();
+
+                @Override
+                public void update(ByteBuffer data) {
+                    sha.update(data);
+                }
+
+                @Override
+                public String value() {
+                    // digest() resets, so finish a copy and keep absorbing appends into the original
+                    try {
+                        return HexFormat.of().formatHex(((MessageDigest) sha.clone()).digest());
+                    } catch (CloneNotSupportedException e) {
+                        throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+                    }
+                }
+            };
+        };
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Digest state that keeps absorbing bytes after a value was taken.
+     */
+    private interface RollingDigest {
+        void update(ByteBuffer data);
+
+        String value();
+    }
+
+    private static final class DigestState {
+        final ReentrantLock lock = new ReentrantLock();
+        RollingDigest digest;
+        Object fileKey;
+        long size;
+    }
+
+    private record StateKey(Path path, ChecksumAlgorithm algorithm) {
+    }
+}
@@ -0,0 +1,288 @@
+package com.jetbrains.filesystem.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Bounded cache of {@link FileInfo} and directory listings, keyed by absolute path.
+ * <p>
+ * Mutations done through {@link LocalFileStorage} invalidate entries directly. Changes made by
+ * other processes are picked up by a {@link WatchService} registered on every directory that has
+ * something cached, and cancelled once nothing under it is cached any more; {@code expireAfterWrite}
+ * bounds staleness should an event be missed.
+ * When disabled, every lookup goes straight to the loader.
+ * <p>
+ * Loaders run outside the cache's compute (a monitor), so virtual threads missing on the same entry
+ * do not pin their carriers; a result is only cached if no invalidation of its path (or of a directory
+ * above it) happened while it was loaded or inserted. Invalidations elsewhere do not affect it.
+ */
+@Component
+@Log4j2
+public class FileMetadataCache {
+    private final boolean enabled;
+    private final Cache<Path, FileInfo> infos;
+    private final Cache<Path, List<FileInfo>> listings;
+    private final Map<Path, Watch> watchedDirs = new ConcurrentHashMap<>();
+    // directories with a registered WatchKey, at most about maxWatchedDirs
+    private final AtomicLong watching = new AtomicLong();
+    // paths being loaded; an invalidation covering one bumps its version, the load may have read stale metadata
+    private final Map<Path, LoadVersion> loading = new ConcurrentHashMap<>();
+    private final long maxWatchedDirs;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    public FileMetadataCache(FileServiceProperties props, MeterRegistry meterRegistry) {
+        FileServiceProperties.MetadataCache config = props.getMetadataCache();
+        this.enabled = config.isEnabled();
+        this.maxWatchedDirs = config.getMaximumSize();
+        // removals are reported on the removing thread, so a directory is unwatched before a later insert
+        this.infos = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite())
+                .executor(Runnable::run)
+                .removalListener((Path path, FileInfo info, RemovalCause cause) -> release(path.getParent()))
+                .recordStats()
+                .build();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite())
+                .executor(Runnable::run)
+                .removalListener((Path dir, List<FileInfo> children, RemovalCause cause) -> release(dir))
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, infos, "fileservice.metadata.info");
+            CaffeineCacheMetrics.monitor(meterRegistry, listings, "fileservice.metadata.listing");
+        }
+
+        WatchService ws = null;
+        if (enabled && config.isWatch()) {
+            try {
+                ws = FileSystems.getDefault().newWatchService();
+            } catch (IOException e) {
+                log.warn("WatchService unavailable, relying on expiry only", e);
+            }
+        }
+        this.watchService = ws;
+        if (ws != null) {
+            this.watcher = new Thread(this::watchLoop, "metadata-watcher");
+            this.watcher.setDaemon(true);
+            this.watcher.start();
+        } else {
+            this.watcher = null;
+        }
+    }
+
+    public FileInfo getFileInfo(Path path, Function<Path, FileInfo> loader) {
+        if (!enabled) {
+            return loader.apply(path);
+        }
+        return getOrLoad(infos, path, loader, path.getParent());
+    }
+
+    public List<FileInfo> getFileInfoList(Path dir, Function<Path, List<FileInfo>> loader) {
+        if (!enabled) {
+            return loader.apply(dir);
+        }
+        return getOrLoad(listings, dir, loader, dir);
+    }
+
+    private <V> V getOrLoad(Cache<Path, V> cache, Path key, Function<Path, V> loader, Path watchDir) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        LoadVersion version = loading.compute(key, (k, current) -> {
+            LoadVersion v = current == null ? new LoadVersion() : current;
+            v.loads++;
+            return v;
+        });
+        try {
+            long loadVersion = version.value.get();
+            V value = loader.apply(key);
+            // held before the insert, so the entry's removal always finds it
+            retain(watchDir);
+            boolean inserted = false;
+            if (version.value.get() == loadVersion && cache.asMap().putIfAbsent(key, value) == null) {
+                // from here on the entry's removal releases the watch
+                inserted = true;
+                if (version.value.get() != loadVersion) {
+                    // an invalidation ran between the check and the insert and may have missed the new entry
+                    cache.asMap().remove(key, value);
+                }
+            }
+            if (!inserted) {
+                release(watchDir);
+            }
+            return value;
+        } finally {
+            loading.computeIfPresent(key, (k, v) -> --v.loads == 0 ? null : v);
+        }
+    }
+
+    private void bump(Path path) {
+        LoadVersion version = loading.get(path);
+        if (version != null) {
+            version.value.incrementAndGet();
+        }
+    }
+
+    private static final class LoadVersion {
+        final AtomicLong value = new AtomicLong();
+        // loads of the path in flight, guarded by the map's compute
+        int loads;
+    }
+
+    /**
+     * The entry at {@code path} changed (created, appended to): drop it and the listings that show it.
+     */
+    public void invalidate(Path path) {
+        if (!enabled) return;
+        bump(path);
+        infos.invalidate(path);
+        listings.invalidate(path);
+        invalidateAncestorListings(path);
+    }
+
+    /**
+     * {@code path} and everything below it changed (deleted, moved, overwritten by a copy).
+     */
+    public void invalidateTree(Path path) {
+        if (!enabled) return;
+        loading.forEach((p, version) -> {
+            if (p.startsWith(path)) version.value.incrementAndGet();
+        });
+        infos.asMap().keySet().removeIf(p -> p.startsWith(path));
+        listings.asMap().keySet().removeIf(p -> p.startsWith(path));
+        invalidateAncestorListings(path);
+    }
+
+    private void invalidateAncestorListings(Path path) {
+        // createDirectories may have created several levels, so every ancestor listing may be stale
+        for (Path parent = path.getParent(); parent != null; parent = parent.getParent()) {
+            bump(parent);
+            listings.invalidate(parent);
+            infos.invalidate(parent);
+        }
+    }
+
+    /**
+     * An entry for {@code dir} is about to be cached: watch the directory, if the budget allows.
+     */
+    private void retain(Path dir) {
+        if (watchService == null || dir == null) {
+            return;
+        }
+        watchedDirs.compute(dir, (d, watch) -> {
+            Watch w = watch == null ? new Watch() : watch;
+            // out of watch budget: entries under this directory only expire
+            if (w.key == null && watching.get() < maxWatchedDirs) {
+                try {
+                    w.key = d.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                    watching.incrementAndGet();
+                } catch (IOException | UnsupportedOperationException e) {
+                    log.debug("cannot watch {}: {}", d, e.getMessage());
+                }
+            }
+            w.entries++;
+            return w;
+        });
+    }
+
+    /**
+     * An entry for {@code dir} left the cache (or was never inserted): unwatch the directory with the last one.
+     */
+    private void release(Path dir) {
+        if (watchService == null || dir == null) {
+            return;
+        }
+        watchedDirs.computeIfPresent(dir, (d, w) -> {
+            if (--w.entries > 0) {
+                return w;
+            }
+            if (w.key != null) {
+                w.key.cancel();
+                watching.decrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    private static final class Watch {
+        // null while out of budget or not watchable
+        WatchKey key;
+        // cached infos and listings for the directory, guarded by the map's compute
+        int entries;
+    }
+
+    private void watchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    log.debug("watch overflow on {}, dropping all cached metadata", dir);
+                    loading.values().forEach(version -> version.value.incrementAndGet());
+                    infos.invalidateAll();
+                    listings.invalidateAll();
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context());
+                if (event.kind() == ENTRY_MODIFY) {
+                    // a file's content or a directory's own attributes: nothing below it is affected,
+                    // and this is what every append through the service produces
+                    invalidate(child);
+                } else {
+                    // a created or deleted entry may be a directory with cached entries below it
+                    invalidateTree(child);
+                }
+            }
+            if (!key.reset()) {
+                // directory is gone or no longer accessible
+                watchedDirs.computeIfPresent(dir, (d, w) -> {
+                    if (w.key == key) {
+                        w.key = null;
+                        watching.decrementAndGet();
+                    }
+                    return w;
+                });
+                invalidateTree(dir);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
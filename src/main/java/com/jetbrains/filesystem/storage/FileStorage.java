@@ -1,19 +1,82 @@
 package com.jetbrains.filesystem.storage;
 
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
 import com.jetbrains.filesystem.dto.file.EntryType;
 import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.GetChecksumResponse;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
 
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface FileStorage {
+    /**
+     * {@link EntryType#FOLDER} for a directory, {@link EntryType#FILE} for anything else, {@code null} if
+     * nothing exists at {@code path}. Not cached.
+     */
+    EntryType entryType(Path path);
     FileInfo getFileInfo(Path path);
     List<FileInfo> getFileInfolist(Path path);
+
+    /**
+     * Up to {@code limit} children of {@code dir} whose name sorts after {@code after}
+     * ({@code null} = from the start), ordered by name. Only {@code limit} entries are held in memory.
+     * {@code nextCursor} is set when more names follow: it is the last name selected for the page, which
+     * may be missing from it if the entry was removed before it was read.
+     */
+    ListDirectoryResponse getFileInfoPage(Path dir, String after, int limit);
+
+    /**
+     * Lazily reads the children of {@code dir} in directory order; the caller must close the stream.
+     */
+    Stream<FileInfo> streamFileInfos(Path dir);
     void create(Path path, EntryType type);
     void delete(Path path);
     void move(Path source, Path target);
     void copy(Path source, Path target);
     ByteBuffer read(Path source, long offset, int length);
-    int append(Path absPath, byte[] data);
+
+    /**
+     * Reads several ranges of one file with a single open, each clamped at EOF.
+     *
+     * @return one buffer per range, in the order of {@code ranges}
+     */
+    List<ByteBuffer> read(Path source, List<SegmentRange> ranges);
+    long transferTo(Path source, long offset, long length, WritableByteChannel target);
+    /**
+     * @return the file offset the data was written at
+     */
+    long append(Path absPath, byte[] data);
+
+    /**
+     * Appends the whole content of the file {@code data} to {@code target} as one contiguous region.
+     *
+     * @return the file offset the data was written at
+     */
+    long appendFile(Path target, Path data);
+
+    /**
+     * Completes once the file holds more than {@code offset} bytes: at once if it already does, otherwise when
+     * an append through this storage grows it. Fails with not found if the file is missing, or is deleted or
+     * moved away while waited on. Cancelling the future ends the wait.
+     */
+    CompletableFuture<Void> awaitGrowth(Path path, long offset);
+
+    /**
+     * Checksum of the whole file as of now, with the absolute path.
+     */
+    GetChecksumResponse checksum(Path path, ChecksumAlgorithm algorithm);
+
+    /**
+     * Starts searching the files under {@code root} (or {@code root} itself, if it is a file) whose path
+     * relative to {@code root} is accepted by {@code filter}; for {@code root} itself that is its name.
+     * Matches carry absolute paths and come out as they are found. Closing the search cancels it.
+     */
+    ContentSearch searchContent(Path root, Predicate<Path> filter, ContentPattern pattern);
 }
@@ -0,0 +1,13 @@
+package com.jetbrains.filesystem.storage;
+
+/**
+ * When {@link GroupCommitFileAppender} forces written batches to disk.
+ */
+public enum FsyncPolicy {
+    /** never, left to the OS; callers are released once the batch is written */
+    NONE,
+    /** after every batch, before callers are released */
+    PER_BATCH,
+    /** every {@code fsync-interval} for files written since the last one; callers are released once written */
+    INTERVAL
+}
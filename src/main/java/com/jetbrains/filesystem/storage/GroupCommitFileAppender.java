@@ -0,0 +1,247 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.lock.FileLockRegistry;
+import com.jetbrains.filesystem.util.FileUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind appends with group commit. Appends are queued per file; a writer thread takes whatever
+ * is pending (up to {@code max-batch-bytes}) and writes it with one gathering write, then releases every
+ * caller of the batch with the offset its data landed at. While a batch is being written and synced,
+ * new appends to that file queue up and form the next batch, so the cost of the write and fsync is
+ * shared by all appends that arrived meanwhile.
+ * <p>
+ * At most one batch per file is in flight; batches for different files run on the writer pool.
+ * An append from a {@link FileChannel} (a committed upload) forms a batch of its own.
+ * While a batch is written its start offset is published as the file's committed size (see
+ * {@link CommittedSizes}), so {@link #committedSize} never includes a half-written batch and readers do not
+ * wait for the write.
+ */
+@Component
+@ConditionalOnAppendMode(AppendMode.GROUP_COMMIT)
+@Log4j2
+public class GroupCommitFileAppender implements FileAppender {
+    private final Map<Path, FileQueue> queues = new ConcurrentHashMap<>();
+    private final Set<Path> unsynced = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService writer;
+    private final FileChannelPool channelPool;
+    private final CommittedSizes committedSizes;
+    private final FsyncPolicy fsync;
+    private final long maxBatchDelayNanos;
+    private final int maxBatchBytes;
+
+    public GroupCommitFileAppender(FileServiceProperties props, FileChannelPool channelPool, FileLockRegistry locks) {
+        this.channelPool = channelPool;
+        this.committedSizes = new CommittedSizes(locks);
+        FileServiceProperties.GroupCommit config = props.getAppend().getGroupCommit();
+        this.fsync = config.getFsync();
+        this.maxBatchDelayNanos = config.getMaxBatchDelay().toNanos();
+        this.maxBatchBytes = config.getMaxBatchBytes();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.writer = Executors.newScheduledThreadPool(config.getWriterThreads(), r -> {
+            Thread t = new Thread(r, "append-writer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        if (fsync == FsyncPolicy.INTERVAL) {
+            long interval = config.getFsyncInterval().toNanos();
+            writer.scheduleWithFixedDelay(this::syncUnsynced, interval, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long append(Path path, byte[] data) throws IOException {
+        return enqueue(path, new PendingAppend(data, null, data.length));
+    }
+
+    @Override
+    public long append(Path path, FileChannel source, long length) throws IOException {
+        return enqueue(path, new PendingAppend(null, source, length));
+    }
+
+    private long enqueue(Path path, PendingAppend pending) throws IOException {
+        boolean[] first = {false};
+        queues.compute(path, (p, q) -> {
+            if (q == null) {
+                // no batch pending or in flight for this file: this append starts one
+                q = new FileQueue();
+                first[0] = true;
+            }
+            q.pending.add(pending);
+            return q;
+        });
+        if (first[0]) {
+            try {
+                writer.schedule(() -> drain(path), maxBatchDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                queues.remove(path);
+                throw new IOException("append writer is shut down", e);
+            }
+        }
+
+        try {
+            return pending.offset.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for append to complete");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("append failed", e.getCause());
+        }
+    }
+
+    @Override
+    public long committedSize(Path path, FileChannel channel) throws IOException {
+        return committedSizes.committedSize(path, channel);
+    }
+
+    @Override
+    public void invalidate(Path path) {
+        unsynced.removeIf(p -> p.startsWith(path));
+    }
+
+    private void drain(Path path) {
+        boolean more = true;
+        while (more) {
+            List<PendingAppend> batch = new ArrayList<>();
+            queues.computeIfPresent(path, (p, q) -> {
+                long bytes = 0;
+                while (!q.pending.isEmpty()) {
+                    PendingAppend next = q.pending.peek();
+                    if (!batch.isEmpty() && (next.source != null || batch.get(0).source != null
+                            || bytes + next.length > maxBatchBytes)) {
+                        break;
+                    }
+                    q.pending.poll();
+                    bytes += next.length;
+                    batch.add(next);
+                }
+                return q;
+            });
+
+            write(path, batch);
+
+            // whatever arrived while this batch was written forms the next one, without further delay
+            boolean[] pending = {false};
+            queues.computeIfPresent(path, (p, q) -> {
+                if (q.pending.isEmpty()) {
+                    return null;
+                }
+                pending[0] = true;
+                return q;
+            });
+            more = pending[0];
+        }
+    }
+
+    private void write(Path path, List<PendingAppend> batch) {
+        PendingAppend first = batch.get(0);
+        ByteBuffer[] buffers = null;
+        long total = 0;
+        if (first.source == null) {
+            buffers = new ByteBuffer[batch.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.wrap(batch.get(i).data);
+                total += buffers[i].remaining();
+            }
+        } else {
+            total = first.length;
+        }
+
+        try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+            FileChannel channel = lease.channel();
+            long offset = channel.size();
+            committedSizes.writing(path, offset);
+            try {
+                if (buffers == null) {
+                    FileUtil.transferFrom(first.source, channel, offset, total);
+                } else {
+                    // the pooled channel's own position is only used here, and only one batch per file is in flight
+                    channel.position(offset);
+                    long written = 0;
+                    while (written < total) {
+                        written += channel.write(buffers);
+                    }
+                }
+            } finally {
+                committedSizes.written(path);
+            }
+            if (fsync == FsyncPolicy.PER_BATCH) {
+                channel.force(false);
+            } else if (fsync == FsyncPolicy.INTERVAL) {
+                unsynced.add(path);
+            }
+            log.debug("group commit: {} appends, {} bytes to {}", batch.size(), total, path);
+
+            for (PendingAppend pending : batch) {
+                pending.offset.complete(offset);
+                offset += pending.length;
+            }
+        } catch (Throwable e) {
+            for (PendingAppend pending : batch) {
+                pending.offset.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void syncUnsynced() {
+        for (Path path : unsynced) {
+            unsynced.remove(path);
+            try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+                lease.channel().force(false);
+            } catch (NoSuchFileException e) {
+                // deleted or moved since it was written
+            } catch (IOException e) {
+                log.warn("Failed to fsync {}", path, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("append writer did not finish pending batches in time");
+        }
+        if (fsync == FsyncPolicy.INTERVAL) {
+            syncUnsynced();
+        }
+    }
+
+    private static final class FileQueue {
+        final ArrayDeque<PendingAppend> pending = new ArrayDeque<>();
+    }
+
+    private static final class PendingAppend {
+        final byte[] data;
+        final FileChannel source;
+        final long length;
+        final CompletableFuture<Long> offset = new CompletableFuture<>();
+
+        PendingAppend(byte[] data, FileChannel source, long length) {
+            this.data = data;
+            this.source = source;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.exception.NotFoundException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Futures waiting for a file to grow past an offset, for {@code tailFile}. They are completed by the
+ * storage's own appends, so nothing polls the disk, and a waiting caller only holds a future, not a thread:
+ * thousands of followers cost little more than their futures.
+ * <p>
+ * A file's waiters are added and taken under the map's compute, so an append cannot miss a waiter being
+ * registered. Futures are completed outside of it, as completion runs the waiters' own callbacks.
+ */
+final class GrowthWaiters {
+    private final Map<Path, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * The caller must check the current size after registering and complete the future itself if the file
+     * is already long enough. A completed or cancelled future is deregistered.
+     */
+    CompletableFuture<Void> register(Path path, long offset) {
+        Waiter waiter = new Waiter(offset);
+        waiters.compute(path, (p, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+        waiter.future.whenComplete((v, e) -> waiters.computeIfPresent(path, (p, set) -> {
+            set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        }));
+        return waiter.future;
+    }
+
+    /**
+     * {@code path} is now {@code size} bytes long: wakes everyone waiting for less.
+     */
+    void grew(Path path, long size) {
+        if (!waiters.containsKey(path)) {
+            return;
+        }
+        List<Waiter> woken = new ArrayList<>();
+        waiters.computeIfPresent(path, (p, set) -> {
+            set.removeIf(waiter -> waiter.offset < size && woken.add(waiter));
+            return set.isEmpty() ? null : set;
+        });
+        woken.forEach(waiter -> waiter.future.complete(null));
+    }
+
+    /**
+     * {@code path} and everything below it was deleted or moved away: its waiters fail with not found.
+     */
+    void fail(Path path) {
+        List<Waiter> failed = new ArrayList<>();
+        for (Path p : waiters.keySet()) {
+            if (p.startsWith(path)) {
+                Set<Waiter> set = waiters.remove(p);
+                if (set != null) failed.addAll(set);
+            }
+        }
+        failed.forEach(waiter -> waiter.future.completeExceptionally(new NotFoundException("File not found")));
+    }
+
+    int waiting() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private static final class Waiter {
+        final long offset;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Waiter(long offset) {
+            this.offset = offset;
+        }
+    }
+}
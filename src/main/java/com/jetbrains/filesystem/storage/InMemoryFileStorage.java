@@ -0,0 +1,599 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.GetChecksumResponse;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
+import com.jetbrains.filesystem.exception.*;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the whole tree in memory, for load tests and benchmarks that should not measure the disk.
+ * Nothing survives a restart.
+ * <p>
+ * Directories form a trie: each holds its children in a {@link ConcurrentSkipListMap} keyed by name, so
+ * lookups and listings walk it without locking and pages come out ordered by name. Create, delete, move
+ * and copy change several nodes at once and are serialized by one lock.
+ * <p>
+ * File content lives in direct buffers of {@code chunk-size} bytes. Appends to a file are serialized by its
+ * own lock and publish the new size only once the bytes are in place, so a read sees the file as of some
+ * completed append and never the middle of one; chunks are only ever written past the published size.
+ * All chunks together are bounded by {@code max-bytes}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "fileservice.storage", name = "backend", havingValue = "memory")
+@Log4j2
+public class InMemoryFileStorage implements FileStorage {
+    private static final ByteBuffer[] NO_CHUNKS = new ByteBuffer[0];
+
+    private final Path root;
+    private final int chunkSize;
+    private final long maxBytes;
+    private final AtomicLong allocated = new AtomicLong();
+    private final Dir rootDir = new Dir();
+    private final ReentrantLock structure = new ReentrantLock();
+    private final GrowthWaiters growthWaiters = new GrowthWaiters();
+    private final ContentSearcher searcher;
+
+    public InMemoryFileStorage(FileServiceProperties props, MeterRegistry meterRegistry, ContentSearcher searcher) {
+        FileServiceProperties.Storage config = props.getStorage();
+        this.root = Paths.get(props.getRootFolder()).toAbsolutePath().normalize();
+        this.chunkSize = config.getChunkSize();
+        this.maxBytes = config.getMaxBytes();
+        this.searcher = searcher;
+
+        Gauge.builder("fileservice.memory.storage.bytes", allocated, AtomicLong::get)
+                .description("Direct memory held by file contents of the in-memory storage")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("in-memory storage under {} ({} byte chunks, at most {} bytes)", root, chunkSize, maxBytes);
+    }
+
+    @Override
+    public EntryType entryType(Path path) {
+        Node node = find(path);
+        if (node == null) {
+            return null;
+        }
+        return node instanceof Dir ? EntryType.FOLDER : EntryType.FILE;
+    }
+
+    @Override
+    public FileInfo getFileInfo(Path path) {
+        Node node = find(path);
+        if (node == null) {
+            throw new NotFoundException("File not found");
+        }
+        return toInfo(path, node);
+    }
+
+    @Override
+    public List<FileInfo> getFileInfolist(Path dir) {
+        return toInfos(dir, requireDirectory(dir).children, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ListDirectoryResponse getFileInfoPage(Path dir, String after, int limit) {
+        NavigableMap<String, Node> children = requireDirectory(dir).children;
+        List<FileInfo> page = toInfos(dir, after == null ? children : children.tailMap(after, false), limit);
+        String last = page.isEmpty() ? null : page.get(page.size() - 1).getName();
+        return new ListDirectoryResponse(page,
+                page.size() == limit && children.higherKey(last) != null ? last : null);
+    }
+
+    @Override
+    public Stream<FileInfo> streamFileInfos(Path dir) {
+        return requireDirectory(dir).children.entrySet().stream()
+                .map(child -> toInfo(dir.resolve(child.getKey()), child.getValue()));
+    }
+
+    @Override
+    public void create(Path p, EntryType type) {
+        structure.lock();
+        try {
+            if (type == EntryType.FILE) {
+                Dir parent = mkdirs(p.getParent());
+                if (parent == null || parent.children.putIfAbsent(name(p), new FileNode()) != null) {
+                    throw new ConflictException("already exists: " + p);
+                }
+            } else if (mkdirs(p) == null) {
+                throw new ConflictException("already exists: " + p);
+            }
+        } finally {
+            structure.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Path path) {
+        structure.lock();
+        try {
+            Node node = find(path);
+            if (node == null) {
+                throw new NotFoundException("File not found");
+            }
+            if (node == rootDir) {
+                // the root node stays, only its content goes
+                rootDir.children.values().forEach(this::release);
+                rootDir.children.clear();
+            } else {
+                ((Dir) find(path.getParent())).children.remove(name(path));
+                release(node);
+            }
+            growthWaiters.fail(path);
+            log.debug("Deleted path: {}", path);
+        } finally {
+            structure.unlock();
+        }
+    }
+
+    @Override
+    public void move(Path source, Path target) {
+        structure.lock();
+        try {
+            Node node = find(source);
+            if (node == null || node == rootDir) {
+                throw new FileOperationException("Failed to move file to target", new NoSuchFileException(source.toString()));
+            }
+            Dir targetParent = mkdirs(target.getParent());
+            if (targetParent == null) {
+                throw new FileOperationException("Failed to move file to target: a parent of " + target + " is a file");
+            }
+            ((Dir) find(source.getParent())).children.remove(name(source));
+            Node replaced = targetParent.children.put(name(target), node);
+            if (replaced != null) {
+                release(replaced);
+            }
+            growthWaiters.fail(source);
+        } finally {
+            structure.unlock();
+        }
+    }
+
+    @Override
+    public void copy(Path source, Path target) {
+        structure.lock();
+        try {
+            Node node = find(source);
+            if (node == null) {
+                throw new FileOperationException("Failed to copy file to target", new NoSuchFileException(source.toString()));
+            }
+            Dir targetParent = mkdirs(target.getParent());
+            if (targetParent == null) {
+                throw new FileOperationException("Failed to copy file to target: a parent of " + target + " is a file");
+            }
+            Node replaced = targetParent.children.put(name(target), copyOf(node));
+            if (replaced != null) {
+                release(replaced);
+            }
+        } finally {
+            structure.unlock();
+        }
+    }
+
+    @Override
+    public ByteBuffer read(Path source, long offset, int length) {
+        if (length <= 0) {
+            throw new ValidationException("length must be positive");
+        }
+        Node node = find(source);
+        long size = node instanceof FileNode file ? file.size : 0;
+        if (offset < 0 || offset > size) {
+            throw new ValidationException("offset must be in range [0," + size + ")");
+        }
+        if (!(node instanceof FileNode file)) {
+            throw new NotFoundException("File not found");
+        }
+        if (offset == size) {
+            throw new ValidationException("offset must be in range [0," + size + ")");
+        }
+        // size was read before the chunks, so they cover at least that much
+        return slice(file.chunks, offset, (int) Math.min(length, size - offset));
+    }
+
+    @Override
+    public List<ByteBuffer> read(Path source, List<SegmentRange> ranges) {
+        if (ranges == null || ranges.isEmpty()) {
+            throw new ValidationException("ranges must not be empty");
+        }
+        if (!(find(source) instanceof FileNode file)) {
+            throw new NotFoundException("File not found");
+        }
+        long size = file.size;
+        ByteBuffer[] chunks = file.chunks;
+        List<ByteBuffer> segments = new ArrayList<>(ranges.size());
+        for (SegmentRange range : ranges) {
+            if (range == null || range.getLength() <= 0) {
+                throw new ValidationException("length must be positive");
+            }
+            if (range.getOffset() < 0 || range.getOffset() >= size) {
+                throw new ValidationException("offset must be in range [0," + size + ")");
+            }
+            segments.add(slice(chunks, range.getOffset(), (int) Math.min(range.getLength(), size - range.getOffset())));
+        }
+        return segments;
+    }
+
+    @Override
+    public long transferTo(Path source, long offset, long length, WritableByteChannel target) {
+        if (!(find(source) instanceof FileNode file)) {
+            throw new NotFoundException("File not found");
+        }
+        long size = file.size;
+        ByteBuffer[] chunks = file.chunks;
+        long position = offset;
+        long end = Math.min(size, offset + length);
+        try {
+            while (position < end) {
+                int within = (int) (position % chunkSize);
+                int n = (int) Math.min(chunkSize - within, end - position);
+                ByteBuffer part = chunks[(int) (position / chunkSize)].slice(within, n);
+                while (part.hasRemaining()) {
+                    target.write(part);
+                }
+                position += n;
+            }
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to transfer file content", e);
+        }
+        return Math.max(0, position - offset);
+    }
+
+    @Override
+    public long append(Path source, byte[] data) {
+        FileNode file = requireFile(source);
+        long offset;
+        file.appendLock.lock();
+        try {
+            requireLive(file);
+            offset = file.size;
+            ensureCapacity(file, offset + data.length);
+            ByteBuffer[] chunks = file.chunks;
+            int written = 0;
+            while (written < data.length) {
+                long position = offset + written;
+                int within = (int) (position % chunkSize);
+                int n = Math.min(chunkSize - within, data.length - written);
+                chunks[(int) (position / chunkSize)].put(within, data, written, n);
+                written += n;
+            }
+            file.size = offset + data.length;
+        } finally {
+            file.appendLock.unlock();
+        }
+        growthWaiters.grew(source, offset + data.length);
+        return offset;
+    }
+
+    @Override
+    public long appendFile(Path target, Path data) {
+        FileNode file = requireFile(target);
+        try (FileChannel in = FileChannel.open(data, StandardOpenOption.READ)) {
+            file.appendLock.lock();
+            try {
+                requireLive(file);
+                long length = in.size();
+                long offset = file.size;
+                ensureCapacity(file, offset + length);
+                ByteBuffer[] chunks = file.chunks;
+                long position = offset;
+                while (position < offset + length) {
+                    int within = (int) (position % chunkSize);
+                    int n = (int) Math.min(chunkSize - within, offset + length - position);
+                    ByteBuffer part = chunks[(int) (position / chunkSize)].slice(within, n);
+                    while (part.hasRemaining()) {
+                        if (in.read(part, position - offset + part.position()) < 0) {
+                            throw new EOFException("file shrank while reading at " + (position - offset));
+                        }
+                    }
+                    position += n;
+                }
+                file.size = offset + length;
+                growthWaiters.grew(target, offset + length);
+                return offset;
+            } finally {
+                file.appendLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new FileOperationException("I/O error while appending file content", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitGrowth(Path path, long offset) {
+        // registered before the size is read, so an append completing in between is not missed
+        CompletableFuture<Void> grown = growthWaiters.register(path, offset);
+        if (!(find(path) instanceof FileNode file)) {
+            grown.cancel(false);
+            throw new NotFoundException("File not found");
+        }
+        if (file.size > offset) {
+            grown.complete(null);
+        }
+        return grown;
+    }
+
+    /**
+     * Always hashes the whole file: reading memory is cheap enough that no digest state is kept.
+     */
+    @Override
+    public GetChecksumResponse checksum(Path path, ChecksumAlgorithm algorithm) {
+        if (!(find(path) instanceof FileNode file)) {
+            throw new NotFoundException("File not found");
+        }
+        long size = file.size;
+        return new GetChecksumResponse(path.toString(), algorithm.label(),
+                FileChecksums.checksum(algorithm, content(file, size)), size);
+    }
+
+    /**
+     * Scans the chunks of each file in place, up to the size it had when the walk reached it.
+     */
+    @Override
+    public ContentSearch searchContent(Path dir, Predicate<Path> filter, ContentPattern pattern) {
+        Node node = find(dir);
+        return searcher.search(pattern, files -> {
+            if (node instanceof FileNode file) {
+                if (filter.test(dir.getFileName())) files.test(searchFile(dir, file));
+            } else if (node instanceof Dir d) {
+                walkFiles(d, dir, Paths.get(""), filter, files);
+            }
+        });
+    }
+
+    private boolean walkFiles(Dir dir, Path path, Path relative, Predicate<Path> filter,
+                              Predicate<ContentSearcher.SearchFile> files) {
+        for (Map.Entry<String, Node> child : dir.children.entrySet()) {
+            Path childPath = path.resolve(child.getKey());
+            Path childRelative = relative.resolve(child.getKey());
+            if (child.getValue() instanceof Dir d) {
+                if (!walkFiles(d, childPath, childRelative, filter, files)) return false;
+            } else if (child.getValue() instanceof FileNode file && filter.test(childRelative)) {
+                if (!files.test(searchFile(childPath, file))) return false;
+            }
+        }
+        return true;
+    }
+
+    private ContentSearcher.MemoryFile searchFile(Path path, FileNode file) {
+        return new ContentSearcher.MemoryFile(path, content(file, file.size));
+    }
+
+    /**
+     * The first {@code size} bytes of {@code file}, as slices of its chunks.
+     */
+    private List<ByteBuffer> content(FileNode file, long size) {
+        ByteBuffer[] chunks = file.chunks;
+        List<ByteBuffer> content = new ArrayList<>();
+        for (long position = 0; position < size; position += chunkSize) {
+            content.add(chunks[(int) (position / chunkSize)].slice(0, (int) Math.min(chunkSize, size - position)));
+        }
+        return content;
+    }
+
+    public long allocatedBytes() {
+        return allocated.get();
+    }
+
+    private Node find(Path path) {
+        if (path == null || !path.startsWith(root)) {
+            return null;
+        }
+        Node node = rootDir;
+        if (path.equals(root)) {
+            return node;
+        }
+        for (Path name : root.relativize(path)) {
+            if (!(node instanceof Dir dir)) {
+                return null;
+            }
+            node = dir.children.get(name.toString());
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Creates {@code path} and any missing parents as directories (under the structure lock).
+     *
+     * @return the directory at {@code path}, or {@code null} if a file is in the way
+     */
+    private Dir mkdirs(Path path) {
+        if (path == null || !path.startsWith(root)) {
+            return null;
+        }
+        Dir dir = rootDir;
+        if (path.equals(root)) {
+            return dir;
+        }
+        for (Path name : root.relativize(path)) {
+            Node child = dir.children.computeIfAbsent(name.toString(), n -> new Dir());
+            if (!(child instanceof Dir next)) {
+                return null;
+            }
+            dir = next;
+        }
+        return dir;
+    }
+
+    private Dir requireDirectory(Path dir) {
+        if (!(find(dir) instanceof Dir d)) throw new NotFoundException("File not found");
+        return d;
+    }
+
+    private FileNode requireFile(Path path) {
+        Node node = find(path);
+        if (node == null) {
+            throw new NotFoundException("File not found");
+        }
+        if (!(node instanceof FileNode file)) {
+            throw new ValidationException("Can't append to a directory");
+        }
+        return file;
+    }
+
+    private static void requireLive(FileNode file) {
+        if (file.deleted) {
+            // deleted or replaced after it was looked up
+            throw new NotFoundException("File not found");
+        }
+    }
+
+    /**
+     * Grows {@code file} to hold {@code size} bytes; called with its append lock held.
+     */
+    private void ensureCapacity(FileNode file, long size) {
+        ByteBuffer[] chunks = file.chunks;
+        long needed = (size + chunkSize - 1) / chunkSize;
+        if (needed <= chunks.length) {
+            return;
+        }
+        long bytes = (needed - chunks.length) * chunkSize;
+        if (allocated.addAndGet(bytes) > maxBytes) {
+            allocated.addAndGet(-bytes);
+            throw new FileOperationException("In-memory storage is full (" + maxBytes + " bytes)");
+        }
+        ByteBuffer[] grown = Arrays.copyOf(chunks, (int) needed);
+        for (int i = chunks.length; i < grown.length; i++) {
+            grown[i] = ByteBuffer.allocateDirect(chunkSize);
+        }
+        file.chunks = grown;
+    }
+
+    /**
+     * A range inside one chunk is returned as a read-only view of it, anything else is copied.
+     */
+    private ByteBuffer slice(ByteBuffer[] chunks, long offset, int length) {
+        int first = (int) (offset / chunkSize);
+        int within = (int) (offset % chunkSize);
+        if (within + length <= chunkSize) {
+            return chunks[first].slice(within, length).asReadOnlyBuffer();
+        }
+        byte[] out = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            int from = (int) (position % chunkSize);
+            int n = Math.min(chunkSize - from, length - copied);
+            chunks[(int) (position / chunkSize)].get(from, out, copied, n);
+            copied += n;
+        }
+        return ByteBuffer.wrap(out);
+    }
+
+    private Node copyOf(Node node) {
+        if (node instanceof Dir dir) {
+            Dir copy = new Dir();
+            try {
+                for (Map.Entry<String, Node> child : dir.children.entrySet()) {
+                    copy.children.put(child.getKey(), copyOf(child.getValue()));
+                }
+            } catch (RuntimeException e) {
+                // out of space part way: give back what the partial copy took
+                release(copy);
+                throw e;
+            }
+            return copy;
+        }
+        FileNode file = (FileNode) node;
+        long size = file.size;
+        ByteBuffer[] chunks = file.chunks;
+        FileNode copy = new FileNode();
+        ensureCapacity(copy, size);
+        for (int i = 0; (long) i * chunkSize < size; i++) {
+            copy.chunks[i].put(0, chunks[i], 0, (int) Math.min(chunkSize, size - (long) i * chunkSize));
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the chunks of a removed subtree to the budget; appends still holding one of its files fail.
+     */
+    private void release(Node node) {
+        if (node instanceof Dir dir) {
+            dir.children.values().forEach(this::release);
+            return;
+        }
+        FileNode file = (FileNode) node;
+        file.appendLock.lock();
+        try {
+            if (!file.deleted) {
+                file.deleted = true;
+                allocated.addAndGet(-(long) file.chunks.length * chunkSize);
+            }
+        } finally {
+            file.appendLock.unlock();
+        }
+    }
+
+    private List<FileInfo> toInfos(Path dir, Map<String, Node> children, int limit) {
+        List<FileInfo> infos = new ArrayList<>();
+        for (Map.Entry<String, Node> child : children.entrySet()) {
+            if (infos.size() >= limit) break;
+            infos.add(toInfo(dir.resolve(child.getKey()), child.getValue()));
+        }
+        return infos;
+    }
+
+    private static FileInfo toInfo(Path absolutePath, Node node) {
+        Path name = absolutePath.getFileName();
+        return new FileInfo(
+                name == null ? "" : name.toString(),
+                absolutePath.toString(),
+                node instanceof FileNode file ? file.size : 0,
+                node instanceof Dir
+        );
+    }
+
+    private static String name(Path path) {
+        return path.getFileName().toString();
+    }
+
+    private abstract static class Node {
+    }
+
+    private static final class Dir extends Node {
+        // names only live here, as keys, so a move re-parents a node without touching it
+        final ConcurrentSkipListMap<String, Node> children = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class FileNode extends Node {
+        final ReentrantLock appendLock = new ReentrantLock();
+        // written before size, and only grown; readers read size first
+        volatile ByteBuffer[] chunks = NO_CHUNKS;
+        volatile long size;
+        // set under appendLock once the file is no longer in the tree
+        boolean deleted;
+    }
+}
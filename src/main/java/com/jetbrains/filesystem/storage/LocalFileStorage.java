@@ -1,45 +1,183 @@
 package com.jetbrains.filesystem.storage;
 
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
 import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.GetChecksumResponse;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
 import com.jetbrains.filesystem.exception.*;
 import com.jetbrains.filesystem.dto.file.EntryType;
 import com.jetbrains.filesystem.util.FileUtil;
 
-import com.jetbrains.filesystem.lock.FileLockRegistry;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
-import java.util.List;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.locks.ReentrantLock;
-import java.io.FileOutputStream;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@ConditionalOnProperty(prefix = "fileservice.storage", name = "backend", havingValue = "local", matchIfMissing = true)
 @RequiredArgsConstructor
 @Log4j2
 public class LocalFileStorage implements FileStorage {
     private static final long MMAP_THRESHOLD = 10 * 1024 * 1024;
 
-    private final FileLockRegistry locks;
+    private final FileAppender appender;
+    private final FileChannelPool channelPool;
+    private final BlockCache blockCache;
+    private final FileMetadataCache metadataCache;
+    private final ParallelTreeCopier copier;
+    private final TrashPurger trash;
+    private final FileChecksums checksums;
+    private final ContentSearcher searcher;
+    private final GrowthWaiters growthWaiters = new GrowthWaiters();
+
+    @Override
+    public EntryType entryType(Path path) {
+        BasicFileAttributes attrs = readAttributesIfExists(path);
+        if (attrs == null) {
+            return null;
+        }
+        return attrs.isDirectory() ? EntryType.FOLDER : EntryType.FILE;
+    }
 
     @Override
     public FileInfo getFileInfo(Path p) {
-        File f = p.toFile();
-        if (!f.exists()) throw new NotFoundException("File not found");
-        return toInfo(f, p);
+        return metadataCache.getFileInfo(p, this::loadFileInfo);
     }
 
     @Override
     public List<FileInfo> getFileInfolist(Path dir) {
-        File directory = dir.toFile();
-        if (!directory.exists()||!directory.isDirectory()) throw new NotFoundException("File not found");
-        File[] files = directory.listFiles();
-        if (files == null) return List.of();
-        return Arrays.stream(files).map(f -> toInfo(f, dir.resolve(f.getName()))).toList();
+        return metadataCache.getFileInfoList(dir, this::loadFileInfoList);
+    }
+
+    private FileInfo loadFileInfo(Path p) {
+        try {
+            return toInfo(p, Files.readAttributes(p, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("File not found");
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read file attributes", e);
+        }
+    }
+
+    private List<FileInfo> loadFileInfoList(Path dir) {
+        requireDirectory(dir);
+        List<FileInfo> infos = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                if (trash.isTrash(child)) continue;
+                FileInfo info = readInfo(children, child);
+                if (info != null) infos.add(info);
+            }
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to list directory", e);
+        }
+        return infos;
+    }
+
+    @Override
+    public ListDirectoryResponse getFileInfoPage(Path dir, String after, int limit) {
+        requireDirectory(dir);
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            // bounded max-heap of the smallest names after the cursor: O(limit) memory however big the directory is;
+            // one name more than the page tells whether another page follows
+            int selected = limit + 1;
+            PriorityQueue<String> smallest = new PriorityQueue<>(selected + 1, Comparator.reverseOrder());
+            for (Path child : children) {
+                if (trash.isTrash(child)) continue;
+                String name = child.getFileName().toString();
+                if (after != null && name.compareTo(after) <= 0) continue;
+                if (smallest.size() < selected) {
+                    smallest.add(name);
+                } else if (name.compareTo(smallest.peek()) < 0) {
+                    smallest.poll();
+                    smallest.add(name);
+                }
+            }
+
+            String[] names = smallest.toArray(new String[0]);
+            Arrays.sort(names);
+            int size = Math.min(names.length, limit);
+            List<FileInfo> page = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                FileInfo info = readInfo(children, dir.resolve(names[i]));
+                if (info != null) page.add(info);
+            }
+            // decided on the names: an entry removed before its stat must not end the listing
+            return new ListDirectoryResponse(page, names.length > limit ? names[limit - 1] : null);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to list directory", e);
+        }
+    }
+
+    @Override
+    public Stream<FileInfo> streamFileInfos(Path dir) {
+        requireDirectory(dir);
+        DirectoryStream<Path> children;
+        try {
+            children = Files.newDirectoryStream(dir);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to list directory", e);
+        }
+        return StreamSupport.stream(children.spliterator(), false)
+                .filter(child -> !trash.isTrash(child))
+                .map(child -> {
+                    try {
+                        return readInfo(children, child);
+                    } catch (IOException e) {
+                        throw new FileOperationException("Failed to read file attributes", e);
+                    }
+                })
+                .filter(Objects::nonNull)
+                .onClose(() -> {
+                    try {
+                        children.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to close directory stream for {}", dir, e);
+                    }
+                });
+    }
+
+    /**
+     * One stat per entry. On platforms with a {@link SecureDirectoryStream} (Linux, macOS) the attributes
+     * are read relative to the already open directory (fstatat) instead of resolving the full path again.
+     * Returns {@code null} for an entry removed since it was listed.
+     */
+    private FileInfo readInfo(DirectoryStream<Path> dir, Path child) throws IOException {
+        try {
+            BasicFileAttributes attrs;
+            if (dir instanceof SecureDirectoryStream<Path> secure) {
+                attrs = secure.getFileAttributeView(child.getFileName(), BasicFileAttributeView.class).readAttributes();
+            } else {
+                attrs = Files.readAttributes(child, BasicFileAttributes.class);
+            }
+            return toInfo(child, attrs);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void requireDirectory(Path dir) {
+        if (!Files.isDirectory(dir)) throw new NotFoundException("File not found");
     }
 
     @Override
@@ -55,6 +193,12 @@ public class LocalFileStorage implements FileStorage {
             throw new ConflictException("already exists: " + p);
         } catch (IOException e) {
             throw new FileServiceException("File create failed", e) {};
+        } finally {
+            appender.invalidate(p);
+            channelPool.invalidate(p);
+            blockCache.invalidate(p);
+            checksums.invalidate(p);
+            metadataCache.invalidate(p);
         }
     }
 
@@ -63,85 +207,365 @@ public class LocalFileStorage implements FileStorage {
         if(!Files.exists(path)){
             throw new NotFoundException("File not found");
         }
+        boolean directory = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
 
         try {
-            FileUtil.deletePath(path);
+            trash.delete(path);
+            growthWaiters.fail(path);
             log.debug("Deleted path: {}", path);
         } catch (IOException e) {
             throw new FileOperationException("Failed to delete", e);
+        } finally {
+            appender.invalidate(path);
+            if (directory) {
+                channelPool.invalidateTree(path);
+            } else {
+                channelPool.invalidate(path);
+            }
+            blockCache.invalidate(path);
+            checksums.invalidate(path);
+            metadataCache.invalidateTree(path);
         }
     }
 
     @Override
     public void move(Path source, Path target) {
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
         try {
             //ensure the target's parent folder exists
             Files.createDirectories(target.getParent());
 
             Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            growthWaiters.fail(source);
         } catch (IOException e) {
             throw new FileOperationException("Failed to move file to target", e);
+        } finally {
+            appender.invalidate(source);
+            appender.invalidate(target);
+            if (directory) {
+                channelPool.invalidateTree(source);
+            } else {
+                channelPool.invalidate(source);
+            }
+            blockCache.invalidate(source);
+            // the move replaced at most a file or an empty directory: nothing was pooled below the target
+            channelPool.invalidate(target);
+            blockCache.invalidate(target);
+            checksums.invalidate(source);
+            checksums.invalidate(target);
+            metadataCache.invalidateTree(source);
+            metadataCache.invalidateTree(target);
         }
     }
 
     @Override
     public void copy(Path source, Path target) {
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
         try {
             //ensure the target's parent folder exists
             Files.createDirectories(target.getParent());
-            FileUtil.copyPath(source, target);
+            copier.copy(source, target);
         } catch (IOException e) {
             throw new FileOperationException("Failed to copy file to target", e);
+        } finally {
+            appender.invalidate(target);
+            if (directory) {
+                // copied into an existing tree, files below the target may have been overwritten
+                channelPool.invalidateTree(target);
+            } else {
+                channelPool.invalidate(target);
+            }
+            blockCache.invalidate(target);
+            checksums.invalidate(target);
+            metadataCache.invalidateTree(target);
         }
     }
 
     @Override
     public ByteBuffer read(Path source, long offset, int length) {
-        File sourceFile = source.toFile();
-        validateReadRequest(sourceFile, offset, length);
+        BasicFileAttributes attrs = validateReadRequest(source, offset, length);
 
-        try {
-            return FileUtil.readFileToBuffer(source, offset, length, MMAP_THRESHOLD);
+        try (FileChannelPool.Lease lease = channelPool.acquire(source, attrs)) {
+            long size = committedSize(source, lease.channel(), offset);
+            if (blockCache.isEnabled()) {
+                return blockCache.read(source, attrs, size, lease.channel(), offset, length);
+            }
+            return FileUtil.readFileToBuffer(lease.channel(), size, offset, length, MMAP_THRESHOLD);
         } catch (IOException e) {
             throw new FileOperationException("Failed to read file", e);
         }
     }
 
+    /**
+     * Ranges are sorted and overlapping or adjacent ones merged, so each merged run is read once and the
+     * requested ranges are slices of it. A file above the mmap threshold is mapped once over the span
+     * of all ranges instead.
+     */
     @Override
-    public int append(Path source, byte[] data) {
-        ReentrantLock lock = locks.lock(source.toString());
-        lock.lock();
-        try (FileOutputStream fos = new FileOutputStream(source.toFile(), true)) {
-            fos.write(data);
-        } catch (IllegalArgumentException e) {
-            throw new FileOperationException("Failed to decode base64 data for append", e);
+    public List<ByteBuffer> read(Path source, List<SegmentRange> ranges) {
+        BasicFileAttributes attrs = validateReadRequest(source, ranges);
+        int n = ranges.size();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = ranges.get(i).getOffset();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+
+        ByteBuffer[] segments = new ByteBuffer[n];
+        try (FileChannelPool.Lease lease = channelPool.acquire(source, attrs)) {
+            FileChannel channel = lease.channel();
+            long size = committedSize(source, channel, starts[order[n - 1]]);
+            for (int i = 0; i < n; i++) {
+                ends[i] = Math.min(starts[i] + ranges.get(i).getLength(), size);
+            }
+            long spanStart = starts[order[0]];
+            long spanEnd = Arrays.stream(ends).max().getAsLong();
+            if (!blockCache.isEnabled() && size > MMAP_THRESHOLD && spanEnd - spanStart <= Integer.MAX_VALUE) {
+                ByteBuffer span = channel.map(FileChannel.MapMode.READ_ONLY, spanStart, spanEnd - spanStart);
+                for (int i = 0; i < n; i++) {
+                    segments[i] = span.slice((int) (starts[i] - spanStart), (int) (ends[i] - starts[i]));
+                }
+                return Arrays.asList(segments);
+            }
+
+            int runs = 0;
+            int first = 0;
+            while (first < n) {
+                long runStart = starts[order[first]];
+                long runEnd = ends[order[first]];
+                int last = first + 1;
+                while (last < n && starts[order[last]] <= runEnd
+                        && Math.max(runEnd, ends[order[last]]) - runStart <= Integer.MAX_VALUE) {
+                    runEnd = Math.max(runEnd, ends[order[last]]);
+                    last++;
+                }
+                int runLength = (int) (runEnd - runStart);
+                ByteBuffer run = blockCache.isEnabled()
+                        ? blockCache.read(source, attrs, size, channel, runStart, runLength)
+                        : FileUtil.readFileToBuffer(channel, size, runStart, runLength, Long.MAX_VALUE);
+                for (int k = first; k < last; k++) {
+                    int i = order[k];
+                    segments[i] = run.slice((int) (starts[i] - runStart), (int) (ends[i] - starts[i]));
+                }
+                first = last;
+                runs++;
+            }
+            log.debug("read {} ranges of {} in {} runs", n, source, runs);
+            return Arrays.asList(segments);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read file", e);
+        }
+    }
+
+    @Override
+    public long transferTo(Path source, long offset, long length, WritableByteChannel target) {
+        BasicFileAttributes attrs = readAttributesIfExists(source);
+        if (attrs == null || !attrs.isRegularFile()) {
+            throw new NotFoundException("File not found");
+        }
+
+        try (FileChannelPool.Lease lease = channelPool.acquire(source, attrs)) {
+            return FileUtil.transferTo(lease.channel(), offset, length, target);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to transfer file content", e);
+        }
+    }
+
+    @Override
+    public long append(Path source, byte[] data) {
+        try {
+            // cached blocks lie below the old size, which the append leaves alone
+            long offset = appender.append(source, data);
+            growthWaiters.grew(source, offset + data.length);
+            return offset;
+        } catch (IOException e) {
+            throw new FileOperationException("I/O error while appending file content", e);
+        } finally {
+            metadataCache.invalidate(source);
+        }
+    }
+
+    @Override
+    public long appendFile(Path target, Path data) {
+        try (FileChannel in = FileChannel.open(data, StandardOpenOption.READ)) {
+            long length = in.size();
+            long offset = appender.append(target, in, length);
+            growthWaiters.grew(target, offset + length);
+            return offset;
         } catch (IOException e) {
             throw new FileOperationException("I/O error while appending file content", e);
         } finally {
-            lock.unlock();
+            metadataCache.invalidate(target);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitGrowth(Path path, long offset) {
+        // registered before the size is read, so an append completing in between is not missed
+        CompletableFuture<Void> grown = growthWaiters.register(path, offset);
+        BasicFileAttributes attrs = readAttributesIfExists(path);
+        if (attrs == null || !attrs.isRegularFile()) {
+            grown.cancel(false);
+            throw new NotFoundException("File not found");
+        }
+        try (FileChannelPool.Lease lease = channelPool.acquire(path, attrs)) {
+            if (appender.committedSize(path, lease.channel()) > offset) {
+                grown.complete(null);
+            }
+        } catch (IOException e) {
+            grown.cancel(false);
+            throw new FileOperationException("Failed to read file", e);
+        }
+        return grown;
+    }
+
+    @Override
+    public GetChecksumResponse checksum(Path path, ChecksumAlgorithm algorithm) {
+        BasicFileAttributes attrs = readAttributesIfExists(path);
+        if (attrs == null || !attrs.isRegularFile()) {
+            throw new NotFoundException("File not found");
+        }
+        try (FileChannelPool.Lease lease = channelPool.acquire(path, attrs)) {
+            long size = appender.committedSize(path, lease.channel());
+            String checksum = checksums.checksum(path, attrs.fileKey(), lease.channel(), size, algorithm,
+                    appender.committedPrefixIsFinal());
+            return new GetChecksumResponse(path.toString(), algorithm.label(), checksum, size);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read file", e);
+        }
+    }
+
+    @Override
+    public ContentSearch searchContent(Path root, Predicate<Path> filter, ContentPattern pattern) {
+        Map<Path, Path> roots = new LinkedHashMap<>();
+        roots.put(root, root);
+        return searchContent(roots, filter, pattern);
+    }
+
+    /**
+     * Searches the trees at the keys of {@code roots}, reporting their files as if they were under the
+     * matching value.
+     */
+    ContentSearch searchContent(Map<Path, Path> roots, Predicate<Path> filter, ContentPattern pattern) {
+        return searcher.search(pattern, files -> {
+            for (Map.Entry<Path, Path> root : roots.entrySet()) {
+                if (!walkFiles(root.getKey(), root.getValue(), filter, files)) return;
+            }
+        });
+    }
+
+    private boolean walkFiles(Path root, Path reportedRoot, Predicate<Path> filter,
+                              Predicate<ContentSearcher.SearchFile> files) throws IOException {
+        BasicFileAttributes rootAttrs = readAttributesIfExists(root);
+        if (rootAttrs == null) {
+            return true;
         }
-        return data.length;
+        if (!rootAttrs.isDirectory()) {
+            return !filter.test(root.getFileName()) || files.test(new ContentSearcher.DiskFile(reportedRoot, root));
+        }
+        boolean[] stopped = {false};
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return trash.isTrash(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Path relative = root.relativize(file);
+                if (!attrs.isRegularFile() || !filter.test(relative)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (!files.test(new ContentSearcher.DiskFile(reportedRoot.resolve(relative), file))) {
+                    stopped[0] = true;
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // e.g. deleted during the walk
+                log.debug("cannot visit {} while searching: {}", file, e.toString());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return !stopped[0];
+    }
+
+    int waitingForGrowth() {
+        return growthWaiters.waiting();
     }
 
-    private FileInfo toInfo(File f, Path absolutePath) {
+    private FileInfo toInfo(Path absolutePath, BasicFileAttributes attrs) {
+        Path name = absolutePath.getFileName();
         return new FileInfo(
-                f.getName(),
+                name == null ? "" : name.toString(),
                 absolutePath.toString(),
-                f.length(),
-                f.isDirectory()
+                attrs.size(),
+                attrs.isDirectory()
         );
     }
 
-    private void validateReadRequest(File sourceFile, long offset, int length) {
+    private BasicFileAttributes validateReadRequest(Path source, long offset, int length) {
         if (length <= 0) {
             throw new ValidationException("length must be positive");
         }
-        if (offset < 0 || offset > sourceFile.length()) {
-            throw new ValidationException("offset must be in range [0," + sourceFile.length() + ")");
+        BasicFileAttributes attrs = readAttributesIfExists(source);
+        long size = attrs == null ? 0 : attrs.size();
+        if (offset < 0 || offset > size) {
+            throw new ValidationException("offset must be in range [0," + size + ")");
         }
-        if (!sourceFile.exists() || !sourceFile.isFile()) {
+        if (attrs == null || !attrs.isRegularFile()) {
             throw new NotFoundException("File not found");
         }
+        return attrs;
+    }
+
+    /**
+     * The size reads of {@code source} are clamped to: bytes below it are complete and, the file being
+     * append-only, will not change, so they can be read (or mapped) without holding any lock.
+     */
+    private long committedSize(Path source, FileChannel channel, long maxOffset) throws IOException {
+        long size = appender.committedSize(source, channel);
+        if (maxOffset >= size) {
+            // past the data of an append still being written
+            throw new ValidationException("offset must be in range [0," + size + ")");
+        }
+        return size;
+    }
+
+    private BasicFileAttributes validateReadRequest(Path source, List<SegmentRange> ranges) {
+        if (ranges == null || ranges.isEmpty()) {
+            throw new ValidationException("ranges must not be empty");
+        }
+        BasicFileAttributes attrs = readAttributesIfExists(source);
+        if (attrs == null || !attrs.isRegularFile()) {
+            throw new NotFoundException("File not found");
+        }
+        long size = attrs.size();
+        for (SegmentRange range : ranges) {
+            if (range == null || range.getLength() <= 0) {
+                throw new ValidationException("length must be positive");
+            }
+            if (range.getOffset() < 0 || range.getOffset() >= size) {
+                throw new ValidationException("offset must be in range [0," + size + ")");
+            }
+        }
+        return attrs;
+    }
+
+    private BasicFileAttributes readAttributesIfExists(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read file attributes", e);
+        }
     }
 
 }
@@ -0,0 +1,79 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.lock.FileLockRegistry;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default mode: appends to one file are serialized by its lock from {@link FileLockRegistry};
+ * each one writes at the current end of file through a pooled channel.
+ * <p>
+ * While an append is written its start offset is published as the file's committed size (see
+ * {@link CommittedSizes}), so {@link #committedSize} never includes a half-written append; readers only take
+ * an optimistic stamp and wait neither for the append lock nor for the write.
+ */
+@Component
+@ConditionalOnAppendMode(AppendMode.LOCKING)
+public class LockingFileAppender implements FileAppender {
+    private final FileLockRegistry locks;
+    private final FileChannelPool channelPool;
+    private final CommittedSizes committedSizes;
+
+    public LockingFileAppender(FileLockRegistry locks, FileChannelPool channelPool) {
+        this.locks = locks;
+        this.channelPool = channelPool;
+        this.committedSizes = new CommittedSizes(locks);
+    }
+
+    @Override
+    public long append(Path path, byte[] data) throws IOException {
+        ReentrantLock lock = locks.lock(path.toString());
+        lock.lock();
+        try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+            FileChannel channel = lease.channel();
+            long offset = channel.size();
+            committedSizes.writing(path, offset);
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                long position = offset;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                return offset;
+            } finally {
+                committedSizes.written(path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long append(Path path, FileChannel source, long length) throws IOException {
+        ReentrantLock lock = locks.lock(path.toString());
+        lock.lock();
+        try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+            long offset = lease.channel().size();
+            committedSizes.writing(path, offset);
+            try {
+                FileUtil.transferFrom(source, lease.channel(), offset, length);
+                return offset;
+            } finally {
+                committedSizes.written(path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long committedSize(Path path, FileChannel channel) throws IOException {
+        return committedSizes.committedSize(path, channel);
+    }
+}
@@ -0,0 +1,136 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.util.FileUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies a directory tree with several threads: the tree is walked once to recreate every directory,
+ * then the files are copied concurrently in small chunks on a shared pool of {@code parallelism}
+ * threads, which also bounds the I/O concurrency of all copies running at the same time.
+ * <p>
+ * Files of at least {@code transfer-threshold} bytes are copied with {@link FileChannel#transferTo},
+ * letting the kernel move the data (sendfile / copy_file_range) without a user-space buffer.
+ * The first failure cancels the remaining work and is rethrown; what was already copied stays.
+ */
+@Component
+@Log4j2
+public class ParallelTreeCopier {
+    private static final int FILES_PER_TASK = 16;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final long transferThreshold;
+
+    public ParallelTreeCopier(FileServiceProperties props) {
+        FileServiceProperties.Copy config = props.getCopy();
+        this.parallelism = config.getParallelism();
+        this.transferThreshold = config.getTransferThreshold();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "copy-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    public void copy(Path source, Path target) throws IOException {
+        if (executor == null) {
+            FileUtil.copyPath(source, target);
+            return;
+        }
+        if (!Files.isDirectory(source)) {
+            copyFile(source, target, Files.size(source));
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(source.relativize(file));
+                sizes.add(attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        log.debug("copying {} files from {} to {}", files.size(), source, target);
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < files.size(); from += FILES_PER_TASK) {
+            int start = from;
+            int end = Math.min(from + FILES_PER_TASK, files.size());
+            tasks.add(executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    Path relative = files.get(i);
+                    copyFile(source.resolve(relative), target.resolve(relative), sizes.get(i));
+                }
+                return null;
+            }));
+        }
+        awaitAll(tasks);
+    }
+
+    private void copyFile(Path source, Path target, long size) throws IOException {
+        if (size < transferThreshold) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long remaining = in.size();
+            while (remaining > 0) {
+                long transferred = in.transferTo(position, remaining, out);
+                if (transferred <= 0) break;
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> tasks) throws IOException {
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach(t -> t.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while copying");
+        } catch (ExecutionException e) {
+            tasks.forEach(t -> t.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("copy failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.util.FileUtil;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free appends: an {@link AtomicLong} end-of-file per file, writes through the pooled channel.
+ * A writer reserves its region with {@code getAndAdd} and then does a positional write, so concurrent
+ * appends to the same file only contend on that counter.
+ * <p>
+ * Trade-offs: the service must be the only writer of the file (the end offset is read from the file size
+ * once, then only advanced in memory); a reader may see zeros in a region reserved by a write still in flight; a
+ * write that fails leaves its reserved region as a hole.
+ */
+@Component
+@ConditionalOnAppendMode(AppendMode.POSITIONAL)
+public class PositionalFileAppender implements FileAppender {
+    private final Map<Path, Handle> handles = new ConcurrentHashMap<>();
+    private final FileChannelPool channelPool;
+    private final long maxTrackedFiles;
+
+    public PositionalFileAppender(FileServiceProperties props, FileChannelPool channelPool) {
+        this.channelPool = channelPool;
+        this.maxTrackedFiles = props.getChannelPool().getMaxOpenFiles();
+    }
+
+    @Override
+    public long append(Path path, byte[] data) throws IOException {
+        try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+            Handle handle = acquire(path, lease.channel());
+            try {
+                long offset = handle.end.getAndAdd(data.length);
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                long position = offset;
+                while (buffer.hasRemaining()) {
+                    position += lease.channel().write(buffer, position);
+                }
+                return offset;
+            } finally {
+                release(handle);
+            }
+        }
+    }
+
+    @Override
+    public long append(Path path, FileChannel source, long length) throws IOException {
+        try (FileChannelPool.Lease lease = channelPool.acquire(path)) {
+            Handle handle = acquire(path, lease.channel());
+            try {
+                long offset = handle.end.getAndAdd(length);
+                FileUtil.transferFrom(source, lease.channel(), offset, length);
+                return offset;
+            } finally {
+                release(handle);
+            }
+        }
+    }
+
+    @Override
+    public boolean committedPrefixIsFinal() {
+        // a region below the size may still be waiting for its write
+        return false;
+    }
+
+    @Override
+    public void invalidate(Path path) {
+        handles.keySet().removeIf(p -> p.startsWith(path));
+    }
+
+    private Handle acquire(Path path, FileChannel channel) throws IOException {
+        try {
+            Handle handle = handles.compute(path, (p, h) -> {
+                if (h == null) {
+                    h = track(channel);
+                }
+                h.refs.incrementAndGet();
+                return h;
+            });
+            if (handles.size() > maxTrackedFiles) {
+                dropIdle();
+            }
+            return handle;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Handle track(FileChannel channel) {
+        try {
+            return new Handle(new AtomicLong(channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(Handle handle) {
+        handle.refs.decrementAndGet();
+    }
+
+    /**
+     * Forgets end offsets nobody is writing at; they are read again from the file size on the next append.
+     */
+    private void dropIdle() {
+        for (Path path : handles.keySet()) {
+            // refs only grow inside compute, so a handle seen idle here cannot be in use
+            handles.computeIfPresent(path, (p, h) -> h.refs.get() > 0 ? h : null);
+        }
+    }
+
+    private static final class Handle {
+        final AtomicLong end;
+        final AtomicInteger refs = new AtomicInteger();
+
+        Handle(AtomicLong end) {
+            this.end = end;
+        }
+    }
+}
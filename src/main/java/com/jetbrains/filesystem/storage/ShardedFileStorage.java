@@ -0,0 +1,417 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.GetChecksumResponse;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
+import com.jetbrains.filesystem.exception.ConflictException;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Spreads the tree under {@code rootFolder} over several shard directories, typically one per volume, so
+ * I/O is not capped by the IOPS of a single disk. Clients still see one namespace.
+ * <p>
+ * An entry is placed by the first {@code prefix-depth} names of its path (with the default of 1, its
+ * top-level folder), hashed onto a consistent-hash ring of the shards: the whole subtree below that prefix
+ * lives on one shard, at the same relative path as in the namespace. Paths with fewer names ("shallow",
+ * the root included) are directories that may exist on several shards; they are looked up on all of them
+ * and their listings merged.
+ * <p>
+ * Moves within a shard stay renames; a move to another shard is a copy followed by a delete, and is not
+ * atomic. Everything else is delegated to a {@link LocalFileStorage} on the physical path, so the channel
+ * pool, caches and append modes work as usual. Placement depends on the configured shard paths: existing
+ * entries are not rebalanced when shards are added or removed.
+ */
+@Service
+@ConditionalOnProperty(prefix = "fileservice.storage", name = "backend", havingValue = "sharded")
+@Log4j2
+public class ShardedFileStorage implements FileStorage {
+    // points per shard on the ring; more even out the share each shard gets
+    private static final int VIRTUAL_NODES = 128;
+
+    private final Path root;
+    private final List<Path> shards;
+    private final int prefixDepth;
+    private final NavigableMap<Integer, Path> ring = new TreeMap<>();
+    private final LocalFileStorage local;
+
+    public ShardedFileStorage(FileServiceProperties props, FileAppender appender, FileChannelPool channelPool,
+                              BlockCache blockCache, FileMetadataCache metadataCache, ParallelTreeCopier copier,
+                              TrashPurger trash, FileChecksums checksums, ContentSearcher searcher) {
+        FileServiceProperties.Storage config = props.getStorage();
+        if (config.getShards().isEmpty()) {
+            throw new IllegalStateException("fileservice.storage.shards must not be empty for the sharded backend");
+        }
+        if (config.getPrefixDepth() < 1) {
+            throw new IllegalStateException("fileservice.storage.prefix-depth must be at least 1");
+        }
+        this.root = Paths.get(props.getRootFolder()).toAbsolutePath().normalize();
+        this.prefixDepth = config.getPrefixDepth();
+        List<Path> paths = new ArrayList<>();
+        for (String shard : config.getShards()) {
+            Path path = Paths.get(shard).toAbsolutePath().normalize();
+            try {
+                Files.createDirectories(path);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create shard " + path, e);
+            }
+            paths.add(path);
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(path + "#" + i), path);
+            }
+        }
+        this.shards = List.copyOf(paths);
+        this.local = new LocalFileStorage(appender, channelPool, blockCache, metadataCache, copier, trash, checksums,
+                searcher);
+        log.info("sharded storage: {} spread over {} by the first {} path name(s)", root, shards, prefixDepth);
+    }
+
+    @Override
+    public EntryType entryType(Path path) {
+        if (!isShallow(path)) {
+            return local.entryType(physical(path));
+        }
+        if (path.equals(root)) {
+            return EntryType.FOLDER;
+        }
+        EntryType found = null;
+        for (Path shard : shards) {
+            EntryType type = local.entryType(physical(shard, path));
+            if (type == EntryType.FOLDER) return type;
+            if (type != null) found = type;
+        }
+        return found;
+    }
+
+    @Override
+    public FileInfo getFileInfo(Path path) {
+        if (!isShallow(path)) {
+            return toVirtual(path, local.getFileInfo(physical(path)));
+        }
+        if (path.equals(root)) {
+            return new FileInfo(root.getFileName() == null ? "" : root.getFileName().toString(), root.toString(), 0, true);
+        }
+        for (Path shard : shards) {
+            Path p = physical(shard, path);
+            if (local.entryType(p) != null) {
+                return toVirtual(path, local.getFileInfo(p));
+            }
+        }
+        throw new NotFoundException("File not found");
+    }
+
+    @Override
+    public List<FileInfo> getFileInfolist(Path dir) {
+        if (!isShallow(dir)) {
+            return local.getFileInfolist(physical(dir)).stream()
+                    .map(info -> toVirtual(dir.resolve(info.getName()), info)).toList();
+        }
+        return merge(dir, shard -> local.getFileInfolist(shard));
+    }
+
+    @Override
+    public ListDirectoryResponse getFileInfoPage(Path dir, String after, int limit) {
+        if (!isShallow(dir)) {
+            ListDirectoryResponse page = local.getFileInfoPage(physical(dir), after, limit);
+            return new ListDirectoryResponse(page.getFileInfos().stream()
+                    .map(info -> toVirtual(dir.resolve(info.getName()), info)).toList(), page.getNextCursor());
+        }
+        // each shard's page holds its smallest names after the cursor, so the merged page is among them; names
+        // up to the smallest shard cursor have been read on every shard, later ones not yet on all of them
+        TreeMap<String, FileInfo> merged = new TreeMap<>();
+        String bound = null;
+        for (Path shardDir : shardDirectories(dir)) {
+            ListDirectoryResponse page = local.getFileInfoPage(shardDir, after, limit);
+            for (FileInfo info : page.getFileInfos()) {
+                merged.putIfAbsent(info.getName(), info);
+            }
+            String cursor = page.getNextCursor();
+            if (cursor != null && (bound == null || cursor.compareTo(bound) < 0)) {
+                bound = cursor;
+            }
+        }
+        List<FileInfo> infos = new ArrayList<>();
+        for (FileInfo info : (bound == null ? merged : merged.headMap(bound, true)).values()) {
+            if (infos.size() == limit) {
+                return new ListDirectoryResponse(infos, infos.get(limit - 1).getName());
+            }
+            infos.add(toVirtual(dir.resolve(info.getName()), info));
+        }
+        return new ListDirectoryResponse(infos, bound);
+    }
+
+    @Override
+    public Stream<FileInfo> streamFileInfos(Path dir) {
+        if (!isShallow(dir)) {
+            return local.streamFileInfos(physical(dir)).map(info -> toVirtual(dir.resolve(info.getName()), info));
+        }
+        List<Path> dirs = shardDirectories(dir);
+        // a folder above the placement depth can exist on several shards: show it once
+        Set<String> seen = new HashSet<>();
+        return dirs.stream()
+                .flatMap(local::streamFileInfos)
+                .filter(info -> seen.add(info.getName()))
+                .map(info -> toVirtual(dir.resolve(info.getName()), info));
+    }
+
+    @Override
+    public void create(Path path, EntryType type) {
+        Path relative = root.relativize(path);
+        // creating below a shallow path makes it a folder on this entry's shard: it must not be a file elsewhere
+        for (int n = 1; n < Math.min(prefixDepth, nameCount(path)); n++) {
+            Path ancestor = root.resolve(relative.subpath(0, n));
+            if (entryType(ancestor) == EntryType.FILE) {
+                throw new ConflictException("already exists: " + ancestor);
+            }
+        }
+        if (isShallow(path)) {
+            EntryType existing = entryType(path);
+            if (existing == EntryType.FOLDER && type == EntryType.FOLDER) {
+                return;
+            }
+            if (existing != null) {
+                throw new ConflictException("already exists: " + path);
+            }
+        }
+        local.create(locate(path), type);
+    }
+
+    @Override
+    public void delete(Path path) {
+        if (!isShallow(path)) {
+            local.delete(physical(path));
+            return;
+        }
+        boolean found = false;
+        for (Path shard : shards) {
+            Path p = physical(shard, path);
+            if (local.entryType(p) != null) {
+                local.delete(p);
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NotFoundException("File not found");
+        }
+    }
+
+    @Override
+    public void move(Path source, Path target) {
+        transfer(source, target, true);
+    }
+
+    @Override
+    public void copy(Path source, Path target) {
+        transfer(source, target, false);
+    }
+
+    @Override
+    public ByteBuffer read(Path source, long offset, int length) {
+        return local.read(locate(source), offset, length);
+    }
+
+    @Override
+    public List<ByteBuffer> read(Path source, List<SegmentRange> ranges) {
+        return local.read(locate(source), ranges);
+    }
+
+    @Override
+    public long transferTo(Path source, long offset, long length, WritableByteChannel target) {
+        return local.transferTo(locate(source), offset, length, target);
+    }
+
+    @Override
+    public long append(Path absPath, byte[] data) {
+        return local.append(locate(absPath), data);
+    }
+
+    @Override
+    public long appendFile(Path target, Path data) {
+        return local.appendFile(locate(target), data);
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitGrowth(Path path, long offset) {
+        return local.awaitGrowth(locate(path), offset);
+    }
+
+    @Override
+    public GetChecksumResponse checksum(Path path, ChecksumAlgorithm algorithm) {
+        GetChecksumResponse response = local.checksum(locate(path), algorithm);
+        response.setPath(path.toString());
+        return response;
+    }
+
+    @Override
+    public ContentSearch searchContent(Path dir, Predicate<Path> filter, ContentPattern pattern) {
+        Map<Path, Path> roots = new LinkedHashMap<>();
+        if (!isShallow(dir)) {
+            roots.put(physical(dir), dir);
+        } else if (entryType(dir) == EntryType.FOLDER) {
+            // the part of the folder on each shard holding it
+            for (Path shardDir : shardDirectories(dir)) {
+                roots.put(shardDir, dir);
+            }
+        } else {
+            roots.put(locate(dir), dir);
+        }
+        return local.searchContent(roots, filter, pattern);
+    }
+
+    /**
+     * The shard {@code path} is placed on.
+     */
+    Path shardOf(Path path) {
+        Path relative = root.relativize(path);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < Math.min(prefixDepth, nameCount(path)); i++) {
+            key.append('/').append(relative.getName(i));
+        }
+        Map.Entry<Integer, Path> point = ring.ceilingEntry(hash(key.toString()));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    private void transfer(Path source, Path target, boolean move) {
+        if (!isShallow(source) && !isShallow(target)) {
+            Path from = physical(source);
+            Path to = physical(target);
+            if (!move) {
+                local.copy(from, to);
+            } else if (shardOf(source).equals(shardOf(target))) {
+                local.move(from, to);
+            } else {
+                log.debug("moving {} to {} across shards", source, target);
+                local.copy(from, to);
+                local.delete(from);
+            }
+            return;
+        }
+        if (entryType(source) != EntryType.FOLDER) {
+            // a file above the placement depth: it lives on one shard only
+            Path from = locate(source);
+            Path to = locate(target);
+            if (!move) {
+                local.copy(from, to);
+            } else if (shardContaining(from).equals(shardContaining(to))) {
+                local.move(from, to);
+            } else {
+                local.copy(from, to);
+                local.delete(from);
+            }
+            return;
+        }
+        // a folder spread over several shards, or one whose children get placed differently at the target:
+        // its children may all go to different shards
+        create(target, EntryType.FOLDER);
+        for (FileInfo child : getFileInfolist(source)) {
+            transfer(source.resolve(child.getName()), target.resolve(child.getName()), move);
+        }
+        if (move) {
+            delete(source);
+        }
+    }
+
+    private List<FileInfo> merge(Path dir, Function<Path, List<FileInfo>> lister) {
+        TreeMap<String, FileInfo> merged = new TreeMap<>();
+        for (Path shardDir : shardDirectories(dir)) {
+            for (FileInfo info : lister.apply(shardDir)) {
+                merged.putIfAbsent(info.getName(), info);
+            }
+        }
+        List<FileInfo> infos = new ArrayList<>();
+        for (FileInfo info : merged.values()) {
+            infos.add(toVirtual(dir.resolve(info.getName()), info));
+        }
+        return infos;
+    }
+
+    /**
+     * Where the shallow folder {@code dir} exists; not found if it is a folder on no shard.
+     */
+    private List<Path> shardDirectories(Path dir) {
+        List<Path> dirs = new ArrayList<>();
+        for (Path shard : shards) {
+            Path p = physical(shard, dir);
+            if (local.entryType(p) == EntryType.FOLDER) {
+                dirs.add(p);
+            }
+        }
+        if (dirs.isEmpty() && !dir.equals(root)) {
+            throw new NotFoundException("File not found");
+        }
+        return dirs;
+    }
+
+    /**
+     * The physical path of a single entry: on its shard if it is deep, otherwise wherever it exists
+     * (falling back to where it would be placed).
+     */
+    private Path locate(Path path) {
+        if (isShallow(path) && !path.equals(root)) {
+            for (Path shard : shards) {
+                Path p = physical(shard, path);
+                if (local.entryType(p) != null) {
+                    return p;
+                }
+            }
+        }
+        return physical(path);
+    }
+
+    private Path shardContaining(Path physical) {
+        return shards.stream().filter(physical::startsWith).findFirst().orElseThrow();
+    }
+
+    private Path physical(Path path) {
+        return physical(shardOf(path), path);
+    }
+
+    private Path physical(Path shard, Path path) {
+        return path.equals(root) ? shard : shard.resolve(root.relativize(path));
+    }
+
+    private boolean isShallow(Path path) {
+        return nameCount(path) < prefixDepth;
+    }
+
+    private int nameCount(Path path) {
+        return path.equals(root) ? 0 : root.relativize(path).getNameCount();
+    }
+
+    private static FileInfo toVirtual(Path path, FileInfo info) {
+        Path name = path.getFileName();
+        return new FileInfo(name == null ? "" : name.toString(), path.toString(), info.getSize(), info.isDirectory());
+    }
+
+    /**
+     * {@link String#hashCode} is fixed by the spec, so placement is the same on every JVM; the murmur3
+     * finalizer spreads its poorly distributed bits over the ring.
+     */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,8 @@
+package com.jetbrains.filesystem.storage;
+
+/**
+ * Where files live, see {@link LocalFileStorage}, {@link InMemoryFileStorage} and {@link ShardedFileStorage}.
+ */
+public enum StorageBackend {
+    LOCAL, MEMORY, SHARDED
+}
@@ -0,0 +1,229 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.util.FileUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deletes entries by renaming them into a hidden trash directory under the root, which is a single
+ * atomic rename whatever the size of the tree, and removes the trash in the background.
+ * <p>
+ * Purging runs on a small pool of {@code purge-threads}: files of a directory are deleted by the thread
+ * that lists it, subdirectories are forked to the other threads. Deletes are throttled to
+ * {@code max-deletes-per-second} so a huge purge does not starve foreground I/O. Trash left over by a
+ * previous run (crash, shutdown mid-purge) is purged at startup.
+ * When disabled, or for an entry the trash cannot take, deletion is synchronous.
+ * <p>
+ * With the sharded backend every shard has a trash of its own, so a delete stays a rename within its volume.
+ */
+@Component
+@Log4j2
+public class TrashPurger {
+    // roots, each with its trash directory below it
+    private final Map<Path, Path> trashDirs = new LinkedHashMap<>();
+    private final ForkJoinPool pool;
+    private final long nanosPerDelete;
+    private final AtomicLong nextDeleteAt = new AtomicLong(System.nanoTime());
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public TrashPurger(FileServiceProperties props, MeterRegistry meterRegistry) {
+        FileServiceProperties.Trash config = props.getTrash();
+        if (config.isEnabled() && props.getRootFolder() != null) {
+            List<String> roots = new ArrayList<>();
+            roots.add(props.getRootFolder());
+            if (props.getStorage().getBackend() == StorageBackend.SHARDED) {
+                roots.addAll(props.getStorage().getShards());
+            }
+            for (String r : roots) {
+                Path root = Paths.get(r).toAbsolutePath().normalize();
+                trashDirs.put(root, root.resolve(config.getDirName()));
+            }
+            AtomicInteger counter = new AtomicInteger();
+            this.pool = new ForkJoinPool(config.getPurgeThreads(), p -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("trash-purger-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+        } else {
+            this.pool = null;
+        }
+        int rate = config.getMaxDeletesPerSecond();
+        this.nanosPerDelete = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+
+        Gauge.builder("fileservice.trash.pending", pending, AtomicInteger::get)
+                .description("Deleted entries waiting in the trash to be purged")
+                .register(meterRegistry);
+
+        purgeLeftovers();
+    }
+
+    /**
+     * Whether {@code path} is the trash directory or inside it; such paths are not part of the visible tree.
+     */
+    public boolean isTrash(Path path) {
+        for (Path trashDir : trashDirs.values()) {
+            if (path.startsWith(trashDir)) return true;
+        }
+        return false;
+    }
+
+    public void delete(Path path) throws IOException {
+        Path trashDir = trashDirFor(path);
+        if (trashDir == null) {
+            FileUtil.deletePath(path);
+            return;
+        }
+
+        Files.createDirectories(trashDir);
+        Path entry = trashDir.resolve(UUID.randomUUID().toString());
+        try {
+            Files.move(path, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // path is on another file system mounted below the root
+            FileUtil.deletePath(path);
+            return;
+        }
+        log.debug("moved {} to trash as {}", path, entry.getFileName());
+        schedule(entry);
+    }
+
+    public int pendingEntries() {
+        return pending.get();
+    }
+
+    /**
+     * Waits until everything scheduled so far is purged; for tests and benchmarks.
+     */
+    public boolean awaitPurged(long timeout, TimeUnit unit) {
+        return pool == null || pool.awaitQuiescence(timeout, unit);
+    }
+
+    /**
+     * The trash of the innermost root strictly above {@code path}, {@code null} if there is none.
+     */
+    private Path trashDirFor(Path path) {
+        Path best = null;
+        for (Path root : trashDirs.keySet()) {
+            if (path.startsWith(root) && !path.equals(root) && (best == null || root.startsWith(best))) {
+                best = root;
+            }
+        }
+        return best == null ? null : trashDirs.get(best);
+    }
+
+    private void purgeLeftovers() {
+        trashDirs.values().forEach(this::purgeLeftovers);
+    }
+
+    private void purgeLeftovers(Path trashDir) {
+        if (!Files.isDirectory(trashDir)) {
+            return;
+        }
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(trashDir)) {
+            entries.forEach(leftovers::add);
+        } catch (IOException e) {
+            log.warn("Failed to list trash {}", trashDir, e);
+            return;
+        }
+        if (!leftovers.isEmpty()) {
+            log.info("purging {} entries left in trash {}", leftovers.size(), trashDir);
+            leftovers.forEach(this::schedule);
+        }
+    }
+
+    private void schedule(Path entry) {
+        pending.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                new PurgeTask(entry).invoke();
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void throttle() {
+        if (nanosPerDelete == 0) return;
+        long now = System.nanoTime();
+        long slot = Math.max(nextDeleteAt.getAndAccumulate(now, (next, n) -> Math.max(next, n) + nanosPerDelete), now);
+        if (slot > now) {
+            LockSupport.parkNanos(slot - now);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            // whatever is not purged yet stays in the trash and is picked up on the next start
+            pool.shutdownNow();
+        }
+    }
+
+    private final class PurgeTask extends RecursiveAction {
+        private final Path path;
+
+        PurgeTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                throttle();
+                Files.delete(path);
+                return;
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (DirectoryNotEmptyException e) {
+                // purge the children first
+            } catch (IOException e) {
+                log.warn("Failed to purge {}", path, e);
+                return;
+            }
+
+            List<PurgeTask> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                for (Path child : children) {
+                    throttle();
+                    try {
+                        Files.delete(child);
+                    } catch (DirectoryNotEmptyException e) {
+                        subdirs.add(new PurgeTask(child));
+                    } catch (NoSuchFileException ignored) {
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to purge {}", path, e);
+                return;
+            }
+            invokeAll(subdirs);
+
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Failed to purge {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.jetbrains.filesystem.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.exception.ConflictException;
+import com.jetbrains.filesystem.exception.FileOperationException;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open upload sessions: a target file plus a staging file the chunks are written to, so an upload of
+ * any size goes to disk through one fixed-size buffer and reaches the target in a single append on commit.
+ * <p>
+ * The confirmed offset of a session is the size of its staging file: a chunk must start there, and after
+ * a dropped connection the client asks for it and resumes from it. Sessions live in memory; idle ones
+ * expire with their staging file.
+ * <p>
+ * Staging files live in a subdirectory of {@code staging-dir} named after the root folder, so instances
+ * serving different roots can share the same staging directory. Staging files left by a previous run are
+ * removed at startup once they are older than the idle timeout; younger ones may belong to another instance
+ * serving the same root and are left to it.
+ */
+@Component
+@Log4j2
+public class UploadSessions {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path stagingDir;
+    private final Duration idleTimeout;
+    private final Cache<String, Session> sessions;
+
+    public UploadSessions(FileServiceProperties props) {
+        FileServiceProperties.Upload config = props.getUpload();
+        this.stagingDir = Paths.get(config.getStagingDir()).toAbsolutePath().normalize()
+                .resolve(instanceDir(props.getRootFolder()));
+        this.idleTimeout = config.getIdleTimeout();
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(config.getIdleTimeout())
+                .scheduler(Scheduler.systemScheduler())
+                .executor(Runnable::run)
+                .removalListener((String id, Session session, RemovalCause cause) -> {
+                    if (session == null) return;
+                    if (cause.wasEvicted()) {
+                        log.info("upload {} to {} expired", id, session.target);
+                    }
+                    deleteStaging(session);
+                })
+                .build();
+        removeLeftovers();
+    }
+
+    public Session begin(Path target) {
+        String id = UUID.randomUUID().toString();
+        Session session = new Session(id, target, stagingDir.resolve(id));
+        try {
+            Files.createDirectories(stagingDir);
+            Files.createFile(session.staging);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to create upload staging file", e);
+        }
+        sessions.put(id, session);
+        log.debug("upload {} to {} started", id, target);
+        return session;
+    }
+
+    public Session get(String id) {
+        Session session = id == null ? null : sessions.getIfPresent(id);
+        if (session == null) {
+            throw new NotFoundException("upload not found: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Bytes received and written so far: where the next chunk has to start.
+     */
+    public long offset(Session session) {
+        try {
+            return Files.size(session.staging);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read upload state", e);
+        }
+    }
+
+    /**
+     * Writes {@code data} to the session at {@code offset}, which must be its confirmed offset, and syncs it.
+     * If the stream breaks off, what was written so far stays and the session can resume from there.
+     *
+     * @return the new confirmed offset
+     */
+    public long write(String id, long offset, InputStream data) {
+        Session session = lock(id);
+        try (FileChannel channel = FileChannel.open(session.staging, StandardOpenOption.WRITE)) {
+            long position = channel.size();
+            if (offset != position) {
+                throw new ConflictException("upload is at offset " + position + ", not " + offset);
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+            }
+            channel.force(false);
+            return position;
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to write upload chunk", e);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Locks the session against concurrent chunks and commits. Fails if another call holds it.
+     */
+    public Session lock(String id) {
+        Session session = get(id);
+        if (!session.lock.tryLock()) {
+            throw new ConflictException("upload " + id + " is busy");
+        }
+        return session;
+    }
+
+    public void unlock(Session session) {
+        session.lock.unlock();
+    }
+
+    /**
+     * Ends the session and deletes its staged data.
+     */
+    public void remove(Session session) {
+        sessions.asMap().remove(session.id, session);
+    }
+
+    private void deleteStaging(Session session) {
+        try {
+            Files.deleteIfExists(session.staging);
+        } catch (IOException e) {
+            log.warn("Failed to delete upload staging file {}", session.staging, e);
+        }
+    }
+
+    private static String instanceDir(String rootFolder) {
+        String root = rootFolder == null ? "" : Paths.get(rootFolder).toAbsolutePath().normalize().toString();
+        return UUID.nameUUIDFromBytes(root.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private void removeLeftovers() {
+        if (!Files.isDirectory(stagingDir)) return;
+        FileTime cutoff = FileTime.from(Instant.now().minus(idleTimeout));
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(stagingDir)) {
+            for (Path leftover : leftovers) {
+                try {
+                    if (Files.getLastModifiedTime(leftover).compareTo(cutoff) < 0) {
+                        Files.deleteIfExists(leftover);
+                    }
+                } catch (NoSuchFileException e) {
+                    // removed meanwhile by the instance that staged it
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean upload staging directory {}", stagingDir, e);
+        }
+    }
+
+    public static final class Session {
+        private final String id;
+        private final Path target;
+        private final Path staging;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Session(String id, Path target, Path staging) {
+            this.id = id;
+            this.target = target;
+            this.staging = staging;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public Path target() {
+            return target;
+        }
+
+        public Path staging() {
+            return staging;
+        }
+    }
+}
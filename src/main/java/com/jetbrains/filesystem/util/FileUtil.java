@@ -1,9 +1,11 @@
 package com.jetbrains.filesystem.util;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Base64;
@@ -75,33 +77,85 @@ public class FileUtil {
 
     public static ByteBuffer readFileToBuffer(Path path, long offset, int length, long mmapThreshold) throws IOException {
         try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
-            long fileSize = channel.size();
+            return readFileToBuffer(channel, offset, length, mmapThreshold);
+        }
+    }
+
+    /**
+     * Same as {@link #readFileToBuffer(Path, long, int, long)} on an open channel. Only positional reads
+     * are used, so the channel may be shared.
+     */
+    public static ByteBuffer readFileToBuffer(FileChannel channel, long offset, int length, long mmapThreshold) throws IOException {
+        return readFileToBuffer(channel, channel.size(), offset, length, mmapThreshold);
+    }
+
+    /**
+     * Same as {@link #readFileToBuffer(FileChannel, long, int, long)}, treating the file as {@code fileSize}
+     * bytes long: nothing past it is read even if the file has grown since.
+     */
+    public static ByteBuffer readFileToBuffer(FileChannel channel, long fileSize, long offset, int length, long mmapThreshold) throws IOException {
+        if (offset < 0 || offset >= fileSize) {
+            throw new IllegalArgumentException("Invalid offset: " + offset);
+        }
 
-            if (offset < 0 || offset >= fileSize) {
-                throw new IllegalArgumentException("Invalid offset: " + offset);
+        long maxLength = fileSize - offset;
+        int safeLength = (int) Math.min(length, maxLength); // prevent reading exceeds EOF
+
+        if (fileSize > mmapThreshold) {
+            // MMAP to read part of content
+            MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, safeLength);
+            return mappedBuffer;
+        } else {
+            // normal ByteBuffer to read part of content
+            ByteBuffer buffer = ByteBuffer.allocate(safeLength);
+            int bytesRead = 0;
+            while (bytesRead < safeLength) {
+                int read = channel.read(buffer, offset + bytesRead);
+                if (read == -1) break;
+                bytesRead += read;
             }
+            buffer.flip();
+            return buffer;
+        }
+    }
 
-            long maxLength = fileSize - offset;
-            int safeLength = (int) Math.min(length, maxLength); // prevent reading exceeds EOF
+    /**
+     * Copies {@code length} bytes starting at {@code offset} into {@code target} with
+     * {@link FileChannel#transferTo}, so the bytes never pass through a heap buffer of ours.
+     * Stops early at EOF and returns the number of bytes transferred.
+     */
+    public static long transferTo(Path path, long offset, long length, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return transferTo(channel, offset, length, target);
+        }
+    }
 
-            if (fileSize > mmapThreshold) {
-                // MMAP to read part of content
-                MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, safeLength);
-                return mappedBuffer;
-            } else {
-                // normal ByteBuffer to read part of content
-                ByteBuffer buffer = ByteBuffer.allocate(safeLength);
-                channel.position(offset);
-                int bytesRead = 0;
-                while (bytesRead < safeLength) {
-                    int read = channel.read(buffer);
-                    if (read == -1) break;
-                    bytesRead += read;
-                }
-                buffer.flip();
-                return buffer;
+    /**
+     * Writes {@code length} bytes read from {@code source} (from its current position) into {@code target}
+     * at {@code position}, with {@link FileChannel#transferFrom}. Only positional writes are used on
+     * {@code target}, so it may be shared.
+     */
+    public static void transferFrom(FileChannel source, FileChannel target, long position, long length) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long n = target.transferFrom(source, position + transferred, length - transferred);
+            if (n <= 0) {
+                throw new EOFException("source ended after " + transferred + " of " + length + " bytes");
             }
+            transferred += n;
+        }
+    }
+
+    public static long transferTo(FileChannel channel, long offset, long length, WritableByteChannel target) throws IOException {
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) break;
+            position += transferred;
+            remaining -= transferred;
         }
+        return length - remaining;
     }
 
 }
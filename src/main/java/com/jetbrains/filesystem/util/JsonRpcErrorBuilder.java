@@ -1,5 +1,6 @@
 package com.jetbrains.filesystem.util;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.NullNode;
@@ -23,6 +24,10 @@ public class JsonRpcErrorBuilder {
         return buildErrorResponse(idNode, JsonRpcErrorCode.INTERNAL_ERROR, ex.getMessage());
     }
 
+    public static JsonRpcResponse fromParseException(JsonProcessingException ex) {
+        return buildErrorResponse(NullNode.getInstance(), JsonRpcErrorCode.PARSE_ERROR, ex.getOriginalMessage());
+    }
+
     private static JsonNode convertId(Object id) {
         if (id == null) {
             return NullNode.getInstance();
@@ -50,6 +55,8 @@ public class JsonRpcErrorBuilder {
             return JsonRpcErrorCode.FILE_OPP_ERROR;
         } else if (ex instanceof MethodNotFoundException) {
             return JsonRpcErrorCode.METHOD_NOT_FOUND;
+        } else if (ex instanceof InvalidRequestException) {
+            return JsonRpcErrorCode.INVALID_REQUEST;
         } else {
             return JsonRpcErrorCode.INTERNAL_ERROR;
         }
@@ -4,19 +4,47 @@ import com.jetbrains.filesystem.exception.ConflictException;
 import com.jetbrains.filesystem.exception.NotFoundException;
 import com.jetbrains.filesystem.exception.ValidationException;
 import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.storage.FileStorage;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.nio.file.*;
+import java.util.function.Function;
 
 @Component
 public class PathValidator {
     private final FileServiceProperties props;
     private final Path rootPath;
+    private final Path trashPath;
+    // what exists where: asked of the storage backend, which need not be the local disk
+    private final Function<Path, EntryType> entryTypes;
 
+    /**
+     * Checks existence on the local file system.
+     */
     public PathValidator(FileServiceProperties props) {
+        this(props, PathValidator::diskEntryType);
+    }
+
+    @Autowired
+    public PathValidator(FileServiceProperties props, FileStorage storage) {
+        this(props, storage::entryType);
+    }
+
+    private PathValidator(FileServiceProperties props, Function<Path, EntryType> entryTypes) {
         this.props = props;
         this.rootPath = Paths.get(props.getRootFolder()).toAbsolutePath().normalize();
+        this.trashPath = rootPath.resolve(props.getTrash().getDirName());
+        this.entryTypes = entryTypes;
+    }
+
+    private static EntryType diskEntryType(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        return Files.isDirectory(path) ? EntryType.FOLDER : EntryType.FILE;
     }
 
     public Path toAbsolute(String relative) {
@@ -25,6 +53,8 @@ public class PathValidator {
         Path target = rootPath.resolve(relative).normalize();
         if (!target.startsWith(rootPath))
             throw new ValidationException("outside root");
+        if (props.getTrash().isEnabled() && target.startsWith(trashPath))
+            throw new ValidationException("reserved path");
         return target;
     }
 
@@ -32,14 +62,14 @@ public class PathValidator {
         if (!source.startsWith(rootPath)||!target.startsWith(rootPath)) {
             throw new ValidationException("outside root");
         }
-        if(!Files.exists(source)){
+        if (entryTypes.apply(source) == null) {
             throw new NotFoundException("source not found");
         }
         //prevent self-contain
         if (target.startsWith(source)) {
             throw new ConflictException("own subdirectories");
         }
-        if(Files.exists(target)){
+        if (entryTypes.apply(target) != null) {
             throw new ConflictException("target already exists");
         }
     }
@@ -55,11 +85,11 @@ public class PathValidator {
     }
 
     public void validateSourceForAppend(Path source) {
-        File sourceFile = source.toFile();
-        if(!sourceFile.exists()){
+        EntryType type = entryTypes.apply(source);
+        if (type == null) {
             throw new NotFoundException("File not found");
         }
-        if(!sourceFile.isFile()){
+        if (type != EntryType.FILE) {
             throw new ValidationException("Can't append to a directory");
         }
     }
@@ -2,7 +2,9 @@ package com.jetbrains.filesystem.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.EntryType;
 import com.jetbrains.filesystem.service.LocalFileManager;
+import com.jetbrains.filesystem.storage.FileStorage;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,10 +12,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.util.stream.Stream;
 
+/**
+ * Base of the controller suites. Fixtures are set up and checked through the service, never on the disk
+ * under the root folder, so every suite runs unchanged against any {@code fileservice.storage.backend};
+ * {@link InMemoryBackendControllerTest} runs them against {@code memory}.
+ */
 @SpringBootTest
 @AutoConfigureMockMvc
 public abstract class AbstractFileManageControllerTest {
@@ -30,6 +37,9 @@ public abstract class AbstractFileManageControllerTest {
     @Autowired
     protected LocalFileManager fileService;
 
+    @Autowired
+    protected FileStorage storage;
+
     protected Path root;
 
     protected final String endpoint = "/api/v1/files";
@@ -40,24 +50,51 @@ public abstract class AbstractFileManageControllerTest {
     }
 
     @AfterEach
-    void tearDownBase() throws IOException {
-        Path testDir = root.resolve("test-folder");
-        if (Files.exists(testDir)) {
-            deleteRecursively(testDir);
+    void tearDownBase() {
+        if (exists("test-folder")) {
+            fileService.deleteEntry("test-folder");
         }
     }
 
-    protected void deleteRecursively(Path path) throws IOException {
-        if (!Files.exists(path)) return;
-        if (Files.isDirectory(path)) {
-            try (Stream<Path> paths = Files.list(path)) {
-                for (Path child : paths.toList()) {
-                    deleteRecursively(child);
-                }
-            }
+    /**
+     * Creates the folder {@code path} and any missing parents, unless it exists.
+     */
+    protected void createFolder(String path) {
+        if (!exists(path)) {
+            fileService.createEntry(path, "folder");
         }
-        Files.deleteIfExists(path);
     }
 
-}
+    /**
+     * Creates the file {@code path}, and any missing parents, with {@code content}.
+     */
+    protected void createFile(String path, String content) {
+        createFile(path, content.getBytes(StandardCharsets.UTF_8));
+    }
 
+    protected void createFile(String path, byte[] content) {
+        fileService.createEntry(path, "file");
+        if (content.length > 0) {
+            fileService.appendDataToFile(path, content);
+        }
+    }
+
+    protected boolean exists(String path) {
+        return storage.entryType(root.resolve(path)) != null;
+    }
+
+    protected boolean isDirectory(String path) {
+        return storage.entryType(root.resolve(path)) == EntryType.FOLDER;
+    }
+
+    protected String readString(String path) {
+        Path file = root.resolve(path);
+        int size = (int) storage.getFileInfo(file).getSize();
+        if (size == 0) {
+            return "";
+        }
+        ByteBuffer data = storage.read(file, 0, size);
+        return StandardCharsets.UTF_8.decode(data).toString();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.jetbrains.filesystem.controller;
+
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpHeaders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileContentControllerTest extends AbstractFileManageControllerTest {
+    private final String contentEndpoint = "/api/v1/files/content";
+
+    @Test
+    void testReadContent_WholeFile() throws Exception {
+        createFile("test-folder/raw.txt", "0123456789");
+
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/raw.txt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().bytes("0123456789".getBytes()));
+    }
+
+    @Test
+    void testReadContent_Range() throws Exception {
+        createFile("test-folder/raw.txt", "0123456789");
+
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/raw.txt")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes()));
+    }
+
+    @Test
+    void testReadContent_SuffixRange() throws Exception {
+        createFile("test-folder/raw.txt", "0123456789");
+
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/raw.txt")
+                        .header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().bytes("789".getBytes()));
+    }
+
+    @Test
+    void testReadContent_RangeBeyondEof_ShouldReturn416() throws Exception {
+        createFile("test-folder/raw.txt", "0123456789");
+
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/raw.txt")
+                        .header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void testReadContent_PathOutsideRoot_ShouldReturn400() throws Exception {
+        mockMvc.perform(get(contentEndpoint).param("path", "../../etc/passwd"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testReadContent_FileNotExist_ShouldReturn404() throws Exception {
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/missing.txt"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testReadContent_Directory_ShouldReturn404() throws Exception {
+        createFolder("test-folder/dir");
+
+        mockMvc.perform(get(contentEndpoint).param("path", "test-folder/dir"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -6,7 +6,6 @@ import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
 import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,9 +34,7 @@ public class FileManageControllerAppendDataToFileTest extends  AbstractFileManag
     @Test
     void testAppendDataToFile_Success() throws Exception {
         String path = "test-folder/append.txt";
-        Path filePath = root.resolve(path);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, "hello ");
+        createFile(path, "hello ");
 
         String base64Data = Base64.getEncoder().encodeToString("world".getBytes(StandardCharsets.UTF_8));
 
@@ -47,10 +44,11 @@ public class FileManageControllerAppendDataToFileTest extends  AbstractFileManag
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result.path").value(path))
                 .andExpect(jsonPath("$.result.appendLength").value(5))
+                .andExpect(jsonPath("$.result.offset").value(6))
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-1"));
 
-        String content = Files.readString(filePath);
+        String content = readString(path);
         Assertions.assertEquals("hello world", content);
     }
 
@@ -85,7 +83,7 @@ public class FileManageControllerAppendDataToFileTest extends  AbstractFileManag
     @Test
     void testAppendDataToFile_PathIsDirectory_ShouldReturnError() throws Exception {
         String path = "test-folder/dir";
-        Files.createDirectories(root.resolve(path));
+        createFolder(path);
         String base64 = Base64.getEncoder().encodeToString("abc".getBytes(StandardCharsets.UTF_8));
 
         mockMvc.perform(post(endpoint)
@@ -100,9 +98,7 @@ public class FileManageControllerAppendDataToFileTest extends  AbstractFileManag
     @Test
     void testAppendDataToFile_InvalidBase64_ShouldReturnError() throws Exception {
         String path = "test-folder/invalid.txt";
-        Path filePath = root.resolve(path);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, "");
+        createFile(path, "");
 
         String invalidBase64 = "!!!$$%%INVALID==";
 
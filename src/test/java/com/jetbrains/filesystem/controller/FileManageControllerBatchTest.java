@@ -5,7 +5,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
@@ -33,12 +32,11 @@ public class FileManageControllerBatchTest extends AbstractFileManageControllerT
     void testBatch_ListAndGetFileInfo_Success() throws Exception {
         // Arrange ── create test directory and files
         String testDir = "test-folder";
-        Path dirPath = root.resolve(testDir);
-        Files.createDirectories(dirPath);
+        createFolder(testDir);
 
-        Files.writeString(dirPath.resolve("file1.txt"), "content1");
-        Files.writeString(dirPath.resolve("file2.txt"), "content2");
-        Files.createDirectory(dirPath.resolve("subdir"));
+        createFile(testDir + "/file1.txt", "content1");
+        createFile(testDir + "/file2.txt", "content2");
+        createFolder(testDir + "/subdir");
 
         // Build batch payload with 2 JSON-RPC requests
         String req1 = toJsonRpc("listDirectoryChildren", "case-1", testDir);
@@ -77,11 +75,10 @@ public class FileManageControllerBatchTest extends AbstractFileManageControllerT
     void testBatch_ListAndGetFileInfo_WithOneError() throws Exception {
         // Arrange ── create test directory and files
         String testDir = "test-folder";
-        Path dirPath = root.resolve(testDir);
-        Files.createDirectories(dirPath);
+        createFolder(testDir);
 
-        Files.writeString(dirPath.resolve("valid.txt"), "hello");
-        Files.createDirectory(dirPath.resolve("subdir"));
+        createFile(testDir + "/valid.txt", "hello");
+        createFolder(testDir + "/subdir");
 
         // construct 3 requests：the second request has no exists file.
         String req1 = toJsonRpc("listDirectoryChildren", "req-1", testDir);
@@ -113,4 +110,63 @@ public class FileManageControllerBatchTest extends AbstractFileManageControllerT
                 );
     }
 
+    /* ---------- Parallel batch mode ---------- */
+
+    @Test
+    void testParallelBatch_ErrorDoesNotStopOtherEntries() throws Exception {
+        String testDir = "test-folder";
+        createFolder(testDir);
+        createFile(testDir + "/valid.txt", "hello");
+
+        String req1 = toJsonRpc("getFileInfo", "req-1", testDir + "/valid.txt");
+        String req2 = toJsonRpc("getFileInfo", "req-2", testDir + "/nonexistent.txt");
+        String req3 = toJsonRpc("listDirectoryChildren", "req-3", testDir);
+        String batchJson = "[" + req1 + "," + req2 + "," + req3 + "]";
+
+        mockMvc.perform(post(endpoint)
+                        .header(FileManageController.BATCH_MODE_HEADER, "parallel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$", hasSize(3)),
+                        jsonPath("$[0].id").value("req-1"),
+                        jsonPath("$[0].result.size").value(5),
+                        jsonPath("$[1].id").value("req-2"),
+                        jsonPath("$[1].error.code").value(-32000),
+                        jsonPath("$[2].id").value("req-3"),
+                        jsonPath("$[2].result.fileInfos", hasSize(1))
+                );
+    }
+
+    @Test
+    void testParallelBatch_MutationsOnSamePathKeepRequestOrder() throws Exception {
+        String file = "test-folder/ordered.txt";
+        createFolder("test-folder");
+
+        StringBuilder batchJson = new StringBuilder("[");
+        batchJson.append("{\"jsonrpc\":\"2.0\",\"method\":\"createEntry\",\"id\":0,")
+                .append("\"params\":{\"path\":\"").append(file).append("\",\"type\":\"file\"}}");
+        for (int i = 1; i <= 20; i++) {
+            String data = Base64.getEncoder().encodeToString(String.valueOf(i % 10).getBytes());
+            batchJson.append(",{\"jsonrpc\":\"2.0\",\"method\":\"appendDataToFile\",\"id\":").append(i)
+                    .append(",\"params\":{\"path\":\"").append(file).append("\",\"data\":\"").append(data).append("\"}}");
+        }
+        batchJson.append(",").append(toJsonRpc("getFileInfo", "last", file)).append("]");
+
+        mockMvc.perform(post(endpoint)
+                        .header(FileManageController.BATCH_MODE_HEADER, "parallel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson.toString()))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$", hasSize(22)),
+                        jsonPath("$[*].error").doesNotExist(),
+                        jsonPath("$[21].id").value("last"),
+                        jsonPath("$[21].result.size").value(20)
+                );
+
+        Assertions.assertEquals("12345678901234567890", readString(file));
+    }
+
 }
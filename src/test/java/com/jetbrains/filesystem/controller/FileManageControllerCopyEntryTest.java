@@ -6,7 +6,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,9 +34,7 @@ public class FileManageControllerCopyEntryTest extends AbstractFileManageControl
         String source = "test-folder/source.txt";
         String target = "test-folder/copied.txt";
 
-        Path sourcePath = root.resolve(source);
-        Files.createDirectories(sourcePath.getParent());
-        Files.writeString(sourcePath, "copy me");
+        createFile(source, "copy me");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -48,17 +45,15 @@ public class FileManageControllerCopyEntryTest extends AbstractFileManageControl
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-1"));
 
-        Assertions.assertTrue(Files.exists(root.resolve(target)));
-        Assertions.assertEquals("copy me", Files.readString(root.resolve(target)));
+        Assertions.assertTrue(exists(target));
+        Assertions.assertEquals("copy me", readString(target));
     }
 
     @Test
     void testCopyEntry_Success_Directory() throws Exception {
         String source = "test-folder/dir-src";
         String target = "test-folder/dir-dst";
-        Path sourceDir = root.resolve(source);
-        Files.createDirectories(sourceDir);
-        Files.writeString(sourceDir.resolve("a.txt"), "data");
+        createFile(source + "/a.txt", "data");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -69,7 +64,7 @@ public class FileManageControllerCopyEntryTest extends AbstractFileManageControl
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-2"));
 
-        Assertions.assertTrue(Files.exists(root.resolve(target + "/a.txt")));
+        Assertions.assertTrue(exists(target + "/a.txt"));
     }
 
     @Test
@@ -86,9 +81,7 @@ public class FileManageControllerCopyEntryTest extends AbstractFileManageControl
     @Test
     void testCopyEntry_TargetPathOutsideRoot_ShouldReturnError() throws Exception {
         String source = "test-folder/source.txt";
-        Path sourcePath = root.resolve(source);
-        Files.createDirectories(sourcePath.getParent());
-        Files.writeString(sourcePath, "abc");
+        createFile(source, "abc");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -115,9 +108,8 @@ public class FileManageControllerCopyEntryTest extends AbstractFileManageControl
         String source = "test-folder/src.txt";
         String target = "test-folder/dst.txt";
 
-        Files.createDirectories(root.resolve("test-folder"));
-        Files.writeString(root.resolve(source), "abc");
-        Files.writeString(root.resolve(target), "exists");
+        createFile(source, "abc");
+        createFile(target, "exists");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -6,7 +6,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -55,9 +54,7 @@ public class FileManageControllerCreateEntryTest extends AbstractFileManageContr
     @Test
     void testCreateEntry_PathAlreadyExists_ShouldReturnError() throws Exception {
         String path = "test-folder/existing.txt";
-        Path fullPath = root.resolve(path);
-        Files.createDirectories(fullPath.getParent());
-        Files.writeString(fullPath, "exists");
+        createFile(path, "exists");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -6,7 +6,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,9 +31,7 @@ public class FileManageControllerDeleteEntryTest extends AbstractFileManageContr
     @Test
     void testDeleteEntry_Success_File() throws Exception {
         String path = "test-folder/testfile.txt";
-        Path fullPath = root.resolve(path);
-        Files.createDirectories(fullPath.getParent());
-        Files.writeString(fullPath, "delete me");
+        createFile(path, "delete me");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -44,14 +41,13 @@ public class FileManageControllerDeleteEntryTest extends AbstractFileManageContr
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-1"));
 
-        Assertions.assertFalse(Files.exists(fullPath));
+        Assertions.assertFalse(exists(path));
     }
 
     @Test
     void testDeleteEntry_Success_EmptyFolder() throws Exception {
         String path = "test-folder/empty-dir";
-        Path fullPath = root.resolve(path);
-        Files.createDirectories(fullPath);
+        createFolder(path);
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -61,7 +57,24 @@ public class FileManageControllerDeleteEntryTest extends AbstractFileManageContr
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-2"));
 
-        Assertions.assertFalse(Files.exists(fullPath));
+        Assertions.assertFalse(exists(path));
+    }
+
+    @Test
+    void testDeleteEntry_Success_FolderTree_HiddenFromListing() throws Exception {
+        String path = "test-folder/tree";
+        createFile(path + "/a/b/file.txt", "delete me");
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(path, "case-5")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.path").value(path))
+                .andExpect(jsonPath("$.error").doesNotExist());
+
+        Assertions.assertFalse(exists(path));
+        Assertions.assertTrue(fileService.listDirectoryChildren(".").getFileInfos().stream()
+                .noneMatch(info -> info.getName().equals(".trash")));
     }
 
     @Test
@@ -0,0 +1,100 @@
+package com.jetbrains.filesystem.controller;
+
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileManageControllerGetChecksumTest extends AbstractFileManageControllerTest {
+    private String toJsonRpc(String path, String algorithm, String id) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod("getChecksum");
+        request.setId(objectMapper.readTree("\"" + id + "\""));
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", path);
+        if (algorithm != null) params.put("algorithm", algorithm);
+        request.setParams(objectMapper.valueToTree(params));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static String sha256(String s) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes()));
+    }
+
+    @Test
+    void testGetChecksum_DefaultSha256_ShouldSucceed() throws Exception {
+        createFile("test-folder/file.txt", "hello");
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/file.txt", null, "case-1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.path").value("test-folder/file.txt"))
+                .andExpect(jsonPath("$.result.algorithm").value("sha-256"))
+                .andExpect(jsonPath("$.result.checksum").value(sha256("hello")))
+                .andExpect(jsonPath("$.result.size").value(5))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.id").value("case-1"));
+    }
+
+    @Test
+    void testGetChecksum_Crc32c_ShouldSucceed() throws Exception {
+        createFile("test-folder/file.txt", "123456789");
+
+        // CRC-32C check value
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/file.txt", "crc32c", "case-2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.algorithm").value("crc32c"))
+                .andExpect(jsonPath("$.result.checksum").value("e3069283"));
+    }
+
+    @Test
+    void testGetChecksum_AfterAppend_ShouldCoverTheWholeFile() throws Exception {
+        createFile("test-folder/log.txt", "first\n");
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/log.txt", "sha-256", "case-3a")))
+                .andExpect(jsonPath("$.result.checksum").value(sha256("first\n")));
+
+        fileService.appendDataToFile("test-folder/log.txt", "second\n".getBytes());
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/log.txt", "sha-256", "case-3b")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.checksum").value(sha256("first\nsecond\n")))
+                .andExpect(jsonPath("$.result.size").value(13));
+    }
+
+    @Test
+    void testGetChecksum_FileNotFound_ShouldReturnError() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/missing.txt", null, "case-4")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32000))
+                .andExpect(jsonPath("$.id").value("case-4"));
+    }
+
+    @Test
+    void testGetChecksum_UnknownAlgorithm_ShouldReturnError() throws Exception {
+        createFile("test-folder/file.txt", "hello");
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/file.txt", "md5", "case-5")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.error.message").value(containsString("md5")));
+    }
+}
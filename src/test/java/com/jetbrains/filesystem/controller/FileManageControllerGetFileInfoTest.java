@@ -5,8 +5,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,10 +29,7 @@ public class FileManageControllerGetFileInfoTest extends AbstractFileManageContr
     @Test
     public void testGetFileInfo_Success() throws Exception {
         String testFilePath = "test-folder/file01.txt";
-        Path path = root.resolve(testFilePath);
-        Files.createDirectories(path.getParent());
-        Files.createFile(path);
-        Files.writeString(path, "Hello World");
+        createFile(testFilePath, "Hello World");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
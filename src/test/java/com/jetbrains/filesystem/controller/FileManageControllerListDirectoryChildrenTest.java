@@ -6,10 +6,10 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -34,13 +34,12 @@ public class FileManageControllerListDirectoryChildrenTest extends AbstractFileM
     void testListDirectoryChildren_Success() throws Exception {
         // Arrange
         String testDir = "test-folder";
-        Path dirPath = root.resolve(testDir);
-        Files.createDirectories(dirPath);
+        createFolder(testDir);
 
         // add 2 files and 1 dir
-        Files.writeString(dirPath.resolve("file1.txt"), "content1");
-        Files.writeString(dirPath.resolve("file2.txt"), "content2");
-        Files.createDirectory(dirPath.resolve("subdir"));
+        createFile(testDir + "/file1.txt", "content1");
+        createFile(testDir + "/file2.txt", "content2");
+        createFolder(testDir + "/subdir");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -73,9 +72,7 @@ public class FileManageControllerListDirectoryChildrenTest extends AbstractFileM
     @Test
     void testListDirectoryChildren_FileNotDirectory_ShouldReturnError() throws Exception {
         String filePath = "test-folder/not-a-dir.txt";
-        Path fullPath = root.resolve(filePath);
-        Files.createDirectories(fullPath.getParent());
-        Files.writeString(fullPath, "this is a file");
+        createFile(filePath, "this is a file");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -127,5 +124,101 @@ public class FileManageControllerListDirectoryChildrenTest extends AbstractFileM
                 .andExpect(jsonPath("$.error.message").value(org.hamcrest.Matchers.containsString("Invalid params")))
                 .andExpect(jsonPath("$.id").value("case-5"));
     }
-}
 
+    private String toJsonRpc(String id, Map<String, Object> params) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod("listDirectoryChildren");
+        request.setId(objectMapper.readTree("\"" + id + "\""));
+        request.setParams(objectMapper.valueToTree(params));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Test
+    void testListDirectoryChildren_Paginated_ShouldWalkAllEntriesInNameOrder() throws Exception {
+        createFolder("test-folder");
+        for (String name : new String[]{"e.txt", "a.txt", "d.txt", "b.txt", "c.txt"}) {
+            createFile("test-folder/" + name, name);
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", "test-folder");
+        params.put("limit", 2);
+
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("page-1", params)))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.result.fileInfos[*].name", contains("a.txt", "b.txt")),
+                        jsonPath("$.result.nextCursor").value("b.txt"));
+
+        params.put("cursor", "b.txt");
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("page-2", params)))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.result.fileInfos[*].name", contains("c.txt", "d.txt")),
+                        jsonPath("$.result.fileInfos[0].path").value("test-folder/c.txt"),
+                        jsonPath("$.result.nextCursor").value("d.txt"));
+
+        params.put("cursor", "d.txt");
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("page-3", params)))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.result.fileInfos[*].name", contains("e.txt")),
+                        jsonPath("$.result.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testListDirectoryChildren_InvalidLimit_ShouldReturnError() throws Exception {
+        createFolder("test-folder");
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", "test-folder");
+        params.put("limit", 0);
+
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("case-6", params)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.error.message").value(org.hamcrest.Matchers.containsString("limit")));
+    }
+
+    @Test
+    void testListDirectoryChildren_Stream_ShouldReturnAllEntries() throws Exception {
+        createFolder("test-folder/subdir");
+        createFile("test-folder/file1.txt", "content1");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", "test-folder");
+        params.put("stream", true);
+
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("case-7", params)))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.id").value("case-7"),
+                        jsonPath("$.result.fileInfos", hasSize(2)),
+                        jsonPath("$.result.fileInfos[*].path",
+                                containsInAnyOrder("test-folder/file1.txt", "test-folder/subdir")));
+    }
+
+    @Test
+    void testListDirectoryChildren_StreamWithLimit_ShouldReturnError() throws Exception {
+        createFolder("test-folder");
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", "test-folder");
+        params.put("stream", true);
+        params.put("limit", 10);
+
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("case-8", params)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602));
+    }
+
+    @Test
+    void testListDirectoryChildren_StreamNonExistentPath_ShouldReturnError() throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", "nonexistent-folder");
+        params.put("stream", true);
+
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(toJsonRpc("case-9", params)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32000))
+                .andExpect(jsonPath("$.error.message").value(org.hamcrest.Matchers.containsString("File not found")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.jetbrains.filesystem.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.http.MediaType;
+
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureObservability
+public class FileManageControllerMetricsTest extends AbstractFileManageControllerTest {
+
+    private static String call(String method, String id, String params) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"" + method + "\",\"id\":\"" + id + "\",\"params\":" + params + "}";
+    }
+
+    @Test
+    void prometheus_shouldExposeCallTimersByMethodAndOutcome() throws Exception {
+        createFile("test-folder/metrics.txt", "hello");
+
+        String batch = "[" + call("readFileSegment", "1", "{\"path\":\"test-folder/metrics.txt\",\"offset\":0,\"length\":5}")
+                + "," + call("appendDataToFile", "2", "{\"path\":\"test-folder/metrics.txt\",\"data\":\"IQ==\"}")
+                + "," + call("getFileInfo", "3", "{\"path\":\"test-folder/missing.txt\"}") + "]";
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON)
+                        .content(call("noSuchMethod", "4", "{}")))
+                .andExpect(jsonPath("$.error").exists());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().string(containsString("fileservice_rpc_calls_seconds_count{method=\"readFileSegment\",outcome=\"success\"}")),
+                        content().string(containsString("fileservice_rpc_calls_seconds_count{method=\"getFileInfo\",outcome=\"error\"}")),
+                        content().string(containsString("fileservice_rpc_calls_seconds_count{method=\"unknown\",outcome=\"error\"}")),
+                        content().string(containsString("fileservice_rpc_batch_size_count{mode=\"sequential\"}")),
+                        content().string(containsString("fileservice_bytes_read_bytes_sum")),
+                        content().string(containsString("fileservice_bytes_appended_bytes_sum")),
+                        content().string(containsString("fileservice_lock_wait_seconds_count"))
+                );
+    }
+}
@@ -6,7 +6,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,9 +34,7 @@ public class FileManageControllerMoveEntryTest extends AbstractFileManageControl
         String source = "test-folder/original.txt";
         String target = "test-folder/moved.txt";
 
-        Path sourcePath = root.resolve(source);
-        Files.createDirectories(sourcePath.getParent());
-        Files.writeString(sourcePath, "test data");
+        createFile(source, "test data");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -48,8 +45,8 @@ public class FileManageControllerMoveEntryTest extends AbstractFileManageControl
                 .andExpect(jsonPath("$.error").doesNotExist())
                 .andExpect(jsonPath("$.id").value("case-1"));
 
-        Assertions.assertFalse(Files.exists(sourcePath));
-        Assertions.assertTrue(Files.exists(root.resolve(target)));
+        Assertions.assertFalse(exists(source));
+        Assertions.assertTrue(exists(target));
     }
 
     @Test
@@ -66,9 +63,7 @@ public class FileManageControllerMoveEntryTest extends AbstractFileManageControl
     @Test
     void testMoveEntry_TargetOutsideRoot_ShouldReturnError() throws Exception {
         String source = "test-folder/file.txt";
-        Path sourcePath = root.resolve(source);
-        Files.createDirectories(sourcePath.getParent());
-        Files.writeString(sourcePath, "test");
+        createFile(source, "test");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -94,11 +89,8 @@ public class FileManageControllerMoveEntryTest extends AbstractFileManageControl
     void testMoveEntry_TargetAlreadyExists_ShouldReturnError() throws Exception {
         String source = "test-folder/src.txt";
         String target = "test-folder/exist.txt";
-        Path sourcePath = root.resolve(source);
-        Path targetPath = root.resolve(target);
-        Files.createDirectories(sourcePath.getParent());
-        Files.writeString(sourcePath, "data");
-        Files.writeString(targetPath, "existing");
+        createFile(source, "data");
+        createFile(target, "existing");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -114,8 +106,7 @@ public class FileManageControllerMoveEntryTest extends AbstractFileManageControl
         String source = "test-folder/parent";
         String target = "test-folder/parent/child";
 
-        Path sourcePath = root.resolve(source);
-        Files.createDirectories(sourcePath);
+        createFolder(source);
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -6,7 +6,6 @@ import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.http.MediaType;
 
-import java.nio.file.*;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,9 +34,7 @@ public class FileManageControllerReadFileSegmentTest extends AbstractFileManageC
     @Test
     void testReadFileSegment_Success() throws Exception {
         String path = "test-folder/sample.txt";
-        Path filePath = root.resolve(path);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, "hello");
+        createFile(path, "hello");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -73,7 +70,7 @@ public class FileManageControllerReadFileSegmentTest extends AbstractFileManageC
     @Test
     void testReadFileSegment_PathIsDirectory_ShouldReturnError() throws Exception {
         String path = "test-folder/dir";
-        Files.createDirectories(root.resolve(path));
+        createFolder(path);
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -117,9 +114,7 @@ public class FileManageControllerReadFileSegmentTest extends AbstractFileManageC
     @Test
     void testReadFileSegment_OffsetExceedsFileLength_ShouldReturnError() throws Exception {
         String path = "test-folder/short.txt";
-        Path filePath = root.resolve(path);
-        Files.createDirectories(filePath.getParent());
-        Files.writeString(filePath, "abcde");
+        createFile(path, "abcde");
 
         mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
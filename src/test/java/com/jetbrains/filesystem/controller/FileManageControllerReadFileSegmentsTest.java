@@ -0,0 +1,80 @@
+package com.jetbrains.filesystem.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileManageControllerReadFileSegmentsTest extends AbstractFileManageControllerTest {
+    private String toJsonRpc(String path, List<Map<String, Object>> ranges, String id) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod("readFileSegments");
+        request.setId(objectMapper.readTree("\"" + id + "\""));
+        request.setParams(objectMapper.valueToTree(Map.of("path", path, "ranges", ranges)));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static String base64(String s) {
+        return Base64.getEncoder().encodeToString(s.getBytes());
+    }
+
+    @Test
+    void testReadFileSegments_Success() throws Exception {
+        String path = "test-folder/columns.txt";
+        createFile(path, "0123456789");
+
+        List<Map<String, Object>> ranges = List.of(
+                Map.of("offset", 6, "length", 2),
+                Map.of("offset", 0, "length", 3),
+                Map.of("offset", 2, "length", 3),
+                Map.of("offset", 8, "length", 10));
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(path, ranges, "case-1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.segments.length()").value(4))
+                .andExpect(jsonPath("$.result.segments[0].offset").value(6))
+                .andExpect(jsonPath("$.result.segments[0].data").value(base64("67")))
+                .andExpect(jsonPath("$.result.segments[1].data").value(base64("012")))
+                .andExpect(jsonPath("$.result.segments[2].data").value(base64("234")))
+                .andExpect(jsonPath("$.result.segments[3].data").value(base64("89")))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.id").value("case-1"));
+    }
+
+    @Test
+    void testReadFileSegments_OffsetBeyondEof_ShouldReturnError() throws Exception {
+        String path = "test-folder/short.txt";
+        createFile(path, "abc");
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(path, List.of(Map.of("offset", 0, "length", 1), Map.of("offset", 5, "length", 1)), "case-2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.error.message").value(containsString("offset")))
+                .andExpect(jsonPath("$.id").value("case-2"));
+    }
+
+    @Test
+    void testReadFileSegments_NoRanges_ShouldReturnError() throws Exception {
+        String path = "test-folder/empty-ranges.txt";
+        createFile(path, "abc");
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(path, List.of(), "case-3")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.id").value("case-3"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.jetbrains.filesystem.controller;
+
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileManageControllerRequestParsingTest extends AbstractFileManageControllerTest {
+
+    @Test
+    void testParamsBeforeMethod_ShouldStillBind() throws Exception {
+        String path = "test-folder/ordered.txt";
+        createFile(path, "abc");
+
+        String data = Base64.getEncoder().encodeToString("def".getBytes(StandardCharsets.UTF_8));
+        String json = "{\"params\":{\"path\":\"" + path + "\",\"data\":\"" + data + "\"},"
+                + "\"id\":7,\"jsonrpc\":\"2.0\",\"method\":\"appendDataToFile\"}";
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.result.appendLength").value(3))
+                .andExpect(jsonPath("$.error").doesNotExist());
+
+        Assertions.assertEquals("abcdef", readString(path));
+    }
+
+    @Test
+    void testUnknownMethod_ShouldReturnMethodNotFound() throws Exception {
+        String json = "{\"jsonrpc\":\"2.0\",\"method\":\"noSuchMethod\",\"params\":{\"path\":\"a\"},\"id\":\"case-1\"}";
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32601))
+                .andExpect(jsonPath("$.id").value("case-1"));
+    }
+
+    @Test
+    void testUnbindableParams_ShouldReturnInvalidParams() throws Exception {
+        String json = "{\"jsonrpc\":\"2.0\",\"method\":\"readFileSegment\","
+                + "\"params\":{\"path\":\"a.txt\",\"offset\":{\"nested\":[1,2]},\"length\":4},\"id\":\"case-2\"}";
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.id").value("case-2"));
+    }
+
+    @Test
+    void testMalformedJson_ShouldReturnParseError() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jsonrpc\":\"2.0\",\"method\":"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32700));
+    }
+
+    @Test
+    void testBatch_NonObjectEntry_ShouldReturnInvalidRequest() throws Exception {
+        createFolder("test-folder");
+        String json = "[{\"jsonrpc\":\"2.0\",\"method\":\"getFileInfo\",\"params\":{\"path\":\"test-folder\"},\"id\":1},42]";
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$", hasSize(2)),
+                        jsonPath("$[0].result.name").value("test-folder"),
+                        jsonPath("$[1].error.code").value(-32600)
+                );
+    }
+}
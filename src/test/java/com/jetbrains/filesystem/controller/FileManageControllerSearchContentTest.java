@@ -0,0 +1,137 @@
+package com.jetbrains.filesystem.controller;
+
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileManageControllerSearchContentTest extends AbstractFileManageControllerTest {
+    private String toJsonRpc(Map<String, Object> params, String id) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod("searchContent");
+        request.setId(objectMapper.readTree("\"" + id + "\""));
+        request.setParams(objectMapper.valueToTree(params));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static Map<String, Object> params(String path, String glob, String pattern) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", path);
+        if (glob != null) params.put("glob", glob);
+        params.put("pattern", pattern);
+        return params;
+    }
+
+    @BeforeEach
+    void createTree() throws Exception {
+        createFile("test-folder/app.log", "boot\nrequest req-42 accepted\n");
+        createFile("test-folder/nested/deep/worker.log", "idle\nreq-42 done\nreq-7 done\n");
+        createFile("test-folder/nested/notes.txt", "mentions req-42 too\n");
+    }
+
+    @Test
+    void testSearchContent_GlobByName_ShouldSearchEveryDepth() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params("test-folder", "*.log", "req-42"), "case-1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.matches", hasSize(2)))
+                .andExpect(jsonPath("$.result.matches[*].path",
+                        containsInAnyOrder("test-folder/app.log", "test-folder/nested/deep/worker.log")))
+                .andExpect(jsonPath("$.result.matches[*].line",
+                        containsInAnyOrder("request req-42 accepted", "req-42 done")))
+                .andExpect(jsonPath("$.result.filesScanned").value(2))
+                .andExpect(jsonPath("$.result.truncated").value(false))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.id").value("case-1"));
+    }
+
+    @Test
+    void testSearchContent_NoGlob_ShouldSearchAllFilesWithOffsets() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params("test-folder/nested", null, "req-42"), "case-2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.matches", hasSize(2)))
+                .andExpect(jsonPath("$.result.matches[?(@.path == 'test-folder/nested/notes.txt')].offset")
+                        .value(contains(9)))
+                .andExpect(jsonPath("$.result.matches[?(@.path == 'test-folder/nested/deep/worker.log')].offset")
+                        .value(contains(5)));
+    }
+
+    @Test
+    void testSearchContent_GlobWithSlash_ShouldMatchTheRelativePath() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params("test-folder", "nested/*", "req-42"), "case-3")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.matches", hasSize(1)))
+                .andExpect(jsonPath("$.result.matches[0].path").value("test-folder/nested/notes.txt"));
+    }
+
+    @Test
+    void testSearchContent_Regex_ShouldSucceed() throws Exception {
+        Map<String, Object> params = params("test-folder", "*.log", "^req-\\d+ done$");
+        params.put("regex", true);
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params, "case-4")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.matches[*].line", containsInAnyOrder("req-42 done", "req-7 done")));
+    }
+
+    @Test
+    void testSearchContent_MaxMatches_ShouldTruncate() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            createFile("test-folder/many/file-" + i + ".txt", "hit\n");
+        }
+        Map<String, Object> params = params("test-folder/many", null, "hit");
+        params.put("maxMatches", 5);
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params, "case-5")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.matches", hasSize(5)))
+                .andExpect(jsonPath("$.result.truncated").value(true));
+    }
+
+    @Test
+    void testSearchContent_InvalidRegex_ShouldReturnError() throws Exception {
+        Map<String, Object> params = params("test-folder", null, "req-(");
+        params.put("regex", true);
+
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params, "case-6")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.error.message").value(containsString("regex")));
+    }
+
+    @Test
+    void testSearchContent_EmptyPattern_ShouldReturnError() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params("test-folder", null, ""), "case-7")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602));
+    }
+
+    @Test
+    void testSearchContent_PathNotFound_ShouldReturnError() throws Exception {
+        mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(params("test-folder/missing", null, "x"), "case-8")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32000))
+                .andExpect(jsonPath("$.id").value("case-8"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.jetbrains.filesystem.controller;
+
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileManageControllerTailFileTest extends AbstractFileManageControllerTest {
+    private String toJsonRpc(String path, long offset, long timeoutMs, String id) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod("tailFile");
+        request.setId(objectMapper.readTree("\"" + id + "\""));
+        request.setParams(objectMapper.valueToTree(Map.of("path", path, "offset", offset, "timeoutMs", timeoutMs)));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static String base64(String s) {
+        return Base64.getEncoder().encodeToString(s.getBytes());
+    }
+
+    // a call that has to wait for data is answered asynchronously
+    private ResultActions perform(String body) throws Exception {
+        ResultActions actions = mockMvc.perform(post(endpoint)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    @Test
+    void testTailFile_DataAvailable_ShouldReturnAtOnce() throws Exception {
+        createFile("test-folder/ready.log", "line1\nline2\n");
+
+        perform(toJsonRpc("test-folder/ready.log", 6, 10_000, "case-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.offset").value(6))
+                .andExpect(jsonPath("$.result.nextOffset").value(12))
+                .andExpect(jsonPath("$.result.data").value(base64("line2\n")))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.id").value("case-1"));
+    }
+
+    @Test
+    void testTailFile_WaitsForAppend() throws Exception {
+        createFile("test-folder/follow.log", "old\n");
+
+        // append once the tail call is waiting; it must wake long before the timeout
+        CompletableFuture<Void> appender = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            fileService.appendDataToFile("test-folder/follow.log", "new\n".getBytes());
+        });
+
+        long start = System.nanoTime();
+        perform(toJsonRpc("test-folder/follow.log", 4, 30_000, "case-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.offset").value(4))
+                .andExpect(jsonPath("$.result.nextOffset").value(8))
+                .andExpect(jsonPath("$.result.data").value(base64("new\n")));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        appender.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(elapsedMs < 10_000, "woken by the append, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testTailFile_Waiting_ShouldNotHoldTheRequestThread() throws Exception {
+        createFile("test-folder/idle.log", "old\n");
+
+        // the request returns while the call still waits; the append completes it
+        MvcResult waiting = mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc("test-folder/idle.log", 4, 30_000, "case-7")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        fileService.appendDataToFile("test-folder/idle.log", "new\n".getBytes());
+
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.nextOffset").value(8))
+                .andExpect(jsonPath("$.result.data").value(base64("new\n")))
+                .andExpect(jsonPath("$.id").value("case-7"));
+    }
+
+    @Test
+    void testTailFile_Timeout_ShouldReturnNoData() throws Exception {
+        createFile("test-folder/quiet.log", "abc");
+
+        perform(toJsonRpc("test-folder/quiet.log", 3, 200, "case-3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.offset").value(3))
+                .andExpect(jsonPath("$.result.nextOffset").value(3))
+                .andExpect(jsonPath("$.result.data").value(""))
+                .andExpect(jsonPath("$.error").doesNotExist());
+    }
+
+    @Test
+    void testTailFile_ParallelBatchOfTimeouts_ShouldNotStarveTheBatchPool() throws Exception {
+        createFile("test-folder/quiet.log", "abc");
+        // more waiting entries than batch threads
+        int entries = properties.getBatch().getParallelism() + 2;
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < entries; i++) {
+            batch.append(i == 0 ? "" : ",").append(toJsonRpc("test-folder/quiet.log", 3, 500, "batch-" + i));
+        }
+        String body = batch.append("]").toString();
+
+        for (int round = 0; round < 2; round++) {
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(15), () -> mockMvc.perform(post(endpoint)
+                            .header(FileManageController.BATCH_MODE_HEADER, "parallel")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(entries))
+                    .andExpect(jsonPath("$[*].result.nextOffset", everyItem(is(3))))
+                    .andExpect(jsonPath("$[%d].id", entries - 1).value("batch-" + (entries - 1))));
+        }
+    }
+
+    @Test
+    void testTailFile_FileNotFound_ShouldReturnError() throws Exception {
+        perform(toJsonRpc("test-folder/missing.log", 0, 100, "case-4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32000))
+                .andExpect(jsonPath("$.id").value("case-4"));
+    }
+
+    @Test
+    void testTailFile_TimeoutTooLong_ShouldReturnError() throws Exception {
+        createFile("test-folder/any.log", "abc");
+
+        perform(toJsonRpc("test-folder/any.log", 0, 3_600_000, "case-5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32602))
+                .andExpect(jsonPath("$.error.message").value(containsString("timeoutMs")));
+    }
+
+    @Test
+    void testTailFile_DeletedWhileWaiting_ShouldReturnError() throws Exception {
+        createFile("test-folder/doomed.log", "abc");
+
+        CompletableFuture<Void> deleter = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            fileService.deleteEntry("test-folder/doomed.log");
+        });
+
+        perform(toJsonRpc("test-folder/doomed.log", 3, 30_000, "case-6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32000));
+        deleter.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,119 @@
+package com.jetbrains.filesystem.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FileUploadControllerTest extends AbstractFileManageControllerTest {
+    private final String uploadEndpoint = "/api/v1/files/uploads";
+
+    private String toJsonRpc(String method, Map<String, Object> params) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest();
+        request.setMethod(method);
+        request.setParams(objectMapper.valueToTree(params));
+        request.setId(objectMapper.readTree("1"));
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private JsonNode rpc(String method, Map<String, Object> params) throws Exception {
+        String body = mockMvc.perform(post(endpoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonRpc(method, params)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private String begin(String file, String initial) throws Exception {
+        createFile(file, initial);
+        JsonNode response = rpc("beginUpload", Map.of("path", file));
+        Assertions.assertEquals(0, response.at("/result/offset").asLong());
+        return response.at("/result/uploadId").asText();
+    }
+
+    @Test
+    void testUpload_ChunksThenCommit_ShouldAppendToFile() throws Exception {
+        String file = "test-folder/upload.txt";
+        String uploadId = begin(file, "head-");
+
+        mockMvc.perform(put(uploadEndpoint + "/" + uploadId).param("offset", "0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("hello ".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(6));
+        String base64 = Base64.getEncoder().encodeToString("world".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(put(uploadEndpoint + "/" + uploadId).param("offset", "6").param("encoding", "base64")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(base64))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(11));
+        // nothing reaches the target before the commit
+        Assertions.assertEquals("head-", readString(file));
+
+        JsonNode commit = rpc("commitUpload", Map.of("uploadId", uploadId));
+        Assertions.assertEquals("test-folder/upload.txt", commit.at("/result/path").asText());
+        Assertions.assertEquals(11, commit.at("/result/length").asLong());
+        Assertions.assertEquals(5, commit.at("/result/offset").asLong());
+        Assertions.assertEquals("head-hello world", readString(file));
+
+        mockMvc.perform(get(uploadEndpoint + "/" + uploadId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpload_WrongOffset_ShouldReturnConflictAndReportConfirmedOffset() throws Exception {
+        String file = "test-folder/resume.txt";
+        String uploadId = begin(file, "");
+
+        mockMvc.perform(put(uploadEndpoint + "/" + uploadId).param("offset", "0")
+                        .content("abc".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(uploadEndpoint + "/" + uploadId).param("offset", "0")
+                        .content("abc".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get(uploadEndpoint + "/" + uploadId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.path").value("test-folder/resume.txt"))
+                .andExpect(jsonPath("$.offset").value(3));
+    }
+
+    @Test
+    void testUpload_Abort_ShouldLeaveFileUntouched() throws Exception {
+        String file = "test-folder/abort.txt";
+        String uploadId = begin(file, "keep");
+        mockMvc.perform(put(uploadEndpoint + "/" + uploadId).param("offset", "0")
+                        .content("discard".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk());
+
+        JsonNode abort = rpc("abortUpload", Map.of("uploadId", uploadId));
+        Assertions.assertEquals(7, abort.at("/result/offset").asLong());
+
+        JsonNode commit = rpc("commitUpload", Map.of("uploadId", uploadId));
+        Assertions.assertTrue(commit.has("error"));
+        Assertions.assertEquals("keep", readString(file));
+    }
+
+    @Test
+    void testBeginUpload_Directory_ShouldReturnError() throws Exception {
+        createFolder("test-folder/dir");
+
+        JsonNode response = rpc("beginUpload", Map.of("path", "test-folder/dir"));
+        Assertions.assertTrue(response.has("error"));
+    }
+
+    @Test
+    void testPutChunk_UnknownUpload_ShouldReturn404() throws Exception {
+        mockMvc.perform(put(uploadEndpoint + "/missing").param("offset", "0")
+                        .content("abc".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,146 @@
+package com.jetbrains.filesystem.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jetbrains.filesystem.dto.rpc.JsonRpcRequest;
+import com.jetbrains.filesystem.storage.InMemoryFileStorage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The controller suites again, on the in-memory backend. Each one sets its fixtures up through the
+ * service, so it runs here unchanged.
+ */
+@TestPropertySource(properties = "fileservice.storage.backend=memory")
+public class InMemoryBackendControllerTest {
+
+    @Nested
+    class Backend extends AbstractFileManageControllerTest {
+
+        private ResultActions call(String method, Map<String, ?> params) throws Exception {
+            JsonRpcRequest request = new JsonRpcRequest();
+            request.setMethod(method);
+            request.setId(objectMapper.readTree("\"" + method + "\""));
+            request.setParams(objectMapper.<JsonNode>valueToTree(params));
+            return mockMvc.perform(post(endpoint)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+
+        private static String base64(String s) {
+            return Base64.getEncoder().encodeToString(s.getBytes());
+        }
+
+        @Test
+        void testStorageBackend_IsInMemory() {
+            Assertions.assertInstanceOf(InMemoryFileStorage.class, storage);
+        }
+
+        @Test
+        void testCreateAppendRead_WritesNothingToDisk() throws Exception {
+            String path = "test-folder/notes/log.txt";
+            call("createEntry", Map.of("path", path, "type", "file"));
+            call("appendDataToFile", Map.of("path", path, "data", base64("hello")))
+                    .andExpect(jsonPath("$.result.offset").value(0));
+            call("readFileSegment", Map.of("path", path, "offset", 0, "length", 100))
+                    .andExpect(jsonPath("$.result.data").value(base64("hello")));
+
+            Assertions.assertFalse(Files.exists(root.resolve(path)), "nothing is written to disk");
+        }
+
+        @Test
+        void testErrors_MatchTheLocalBackend() throws Exception {
+            call("createEntry", Map.of("path", "test-folder/dup.txt", "type", "file"));
+
+            call("createEntry", Map.of("path", "test-folder/dup.txt", "type", "file"))
+                    .andExpect(jsonPath("$.error.code").value(-32602))
+                    .andExpect(jsonPath("$.error.message").value(containsString("already exists")));
+            call("getFileInfo", Map.of("path", "test-folder/missing.txt"))
+                    .andExpect(jsonPath("$.error.message").value(containsString("not found")));
+            call("readFileSegment", Map.of("path", "test-folder/dup.txt", "offset", 0, "length", 1))
+                    .andExpect(jsonPath("$.error.code").value(-32602))
+                    .andExpect(jsonPath("$.error.message").value(containsString("offset")));
+            call("appendDataToFile", Map.of("path", "test-folder", "data", base64("x")))
+                    .andExpect(jsonPath("$.error.message").value(containsString("directory")));
+            call("moveEntry", Map.of("sourcePath", "test-folder", "targetPath", "test-folder/inner"))
+                    .andExpect(jsonPath("$.error.message").value(containsString("own subdirectories")));
+        }
+    }
+
+    @Nested
+    class AppendDataToFile extends FileManageControllerAppendDataToFileTest {
+    }
+
+    @Nested
+    class Batch extends FileManageControllerBatchTest {
+    }
+
+    @Nested
+    class Content extends FileContentControllerTest {
+    }
+
+    @Nested
+    class CopyEntry extends FileManageControllerCopyEntryTest {
+    }
+
+    @Nested
+    class CreateEntry extends FileManageControllerCreateEntryTest {
+    }
+
+    @Nested
+    class DeleteEntry extends FileManageControllerDeleteEntryTest {
+    }
+
+    @Nested
+    class GetChecksum extends FileManageControllerGetChecksumTest {
+    }
+
+    @Nested
+    class GetFileInfo extends FileManageControllerGetFileInfoTest {
+    }
+
+    @Nested
+    class ListDirectoryChildren extends FileManageControllerListDirectoryChildrenTest {
+    }
+
+    @Nested
+    class MoveEntry extends FileManageControllerMoveEntryTest {
+    }
+
+    @Nested
+    class ReadFileSegment extends FileManageControllerReadFileSegmentTest {
+    }
+
+    @Nested
+    class ReadFileSegments extends FileManageControllerReadFileSegmentsTest {
+    }
+
+    @Nested
+    class RequestParsing extends FileManageControllerRequestParsingTest {
+    }
+
+    @Nested
+    class SearchContent extends FileManageControllerSearchContentTest {
+    }
+
+    @Nested
+    class TailFile extends FileManageControllerTailFileTest {
+    }
+
+    @Nested
+    class Upload extends FileUploadControllerTest {
+    }
+}
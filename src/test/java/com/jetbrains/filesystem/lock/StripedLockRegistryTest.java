@@ -0,0 +1,59 @@
+package com.jetbrains.filesystem.lock;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedLockRegistryTest {
+
+    private StripedLockRegistry newRegistry(int stripes) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getLock().setStripes(stripes);
+        return new StripedLockRegistry(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void lock_sameKey_shouldAlwaysReturnSameLock() {
+        StripedLockRegistry registry = newRegistry(64);
+
+        ReentrantLock first = registry.lock("/tmp/my-root/a.log");
+        assertSame(first, registry.lock(new String("/tmp/my-root/a.log")));
+    }
+
+    @Test
+    void stripes_shouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(1, newRegistry(1).stripes());
+        assertEquals(128, newRegistry(100).stripes());
+        assertEquals(1024, newRegistry(1024).stripes());
+        assertThrows(IllegalArgumentException.class, () -> newRegistry(0));
+    }
+
+    @Test
+    void lock_pathsOfOneDirectory_shouldSpreadOverStripes() {
+        StripedLockRegistry registry = newRegistry(64);
+        Map<ReentrantLock, Integer> used = new IdentityHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            used.merge(registry.lock("/tmp/my-root/logs/file-" + i + ".log"), 1, Integer::sum);
+        }
+        assertEquals(64, used.size());
+    }
+
+    @Test
+    void lock_shouldRecordWaitTime() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FileServiceProperties props = new FileServiceProperties();
+        StripedLockRegistry registry = new StripedLockRegistry(props, meterRegistry);
+
+        ReentrantLock lock = registry.lock("/tmp/my-root/a.log");
+        lock.lock();
+        lock.unlock();
+
+        assertEquals(1, meterRegistry.get("fileservice.lock.wait").timer().count());
+    }
+}
@@ -2,6 +2,7 @@ package com.jetbrains.filesystem.manager;
 
 import com.jetbrains.filesystem.service.LocalFileManager;
 import com.jetbrains.filesystem.storage.FileStorage;
+import com.jetbrains.filesystem.storage.UploadSessions;
 import com.jetbrains.filesystem.util.PathValidator;
 import com.jetbrains.filesystem.lock.FileLockRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,7 @@ public abstract class AbstractLocalFileManagerTest {
     protected FileStorage storage;
     protected PathValidator validator;
     protected FileLockRegistry lockRegistry;
+    protected UploadSessions uploads;
     protected LocalFileManager manager;
 
     @BeforeEach
@@ -19,7 +21,8 @@ public abstract class AbstractLocalFileManagerTest {
         this.storage = mock(FileStorage.class);
         this.validator = mock(PathValidator.class);
         this.lockRegistry = mock(FileLockRegistry.class);
-        this.manager = new LocalFileManager(storage, validator);
+        this.uploads = mock(UploadSessions.class);
+        this.manager = new LocalFileManager(storage, validator, uploads, Runnable::run);
     }
 
 }
@@ -31,12 +31,13 @@ public class AppendDataToFileTest extends AbstractLocalFileManagerTest {
         String base64 = Base64.getEncoder().encodeToString(original.getBytes());
 
         when(validator.toAbsolute(relPath)).thenReturn(absPath);
-        when(storage.append(absPath, original.getBytes())).thenReturn(original.length());
+        when(storage.append(absPath, original.getBytes())).thenReturn(42L);
 
         AppendDataToFileResponse response = manager.appendDataToFile(relPath, base64);
 
         assertEquals(relPath, response.getPath());
         assertEquals(original.length(), response.getAppendLength());
+        assertEquals(42L, response.getOffset());
     }
 
     @Test
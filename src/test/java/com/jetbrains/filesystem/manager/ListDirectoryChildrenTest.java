@@ -4,6 +4,7 @@ import com.jetbrains.filesystem.dto.file.FileInfo;
 import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
 import com.jetbrains.filesystem.exception.NotFoundException;
 import com.jetbrains.filesystem.exception.ValidationException;
+import com.jetbrains.filesystem.service.LocalFileManager;
 
 import org.junit.jupiter.api.Test;
 
@@ -66,5 +67,49 @@ public class ListDirectoryChildrenTest extends AbstractLocalFileManagerTest {
         assertThrows(ValidationException.class, () -> manager.listDirectoryChildren(relPath));
         verify(storage, never()).copy(any(), any());
     }
-}
 
+    @Test
+    void shouldReturnNextCursorWhenMoreEntriesFollow() {
+        String relPath = "folder";
+        Path absPath = Path.of("/root/folder");
+
+        when(validator.toAbsolute(relPath)).thenReturn(absPath);
+        when(validator.toRelative(anyString())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("/root/".length()));
+        when(storage.getFileInfoPage(absPath, "a.txt", 2)).thenReturn(new ListDirectoryResponse(List.of(
+                new FileInfo("b.txt", "/root/folder/b.txt", 1L, false),
+                new FileInfo("c.txt", "/root/folder/c.txt", 1L, false)
+        ), "c.txt"));
+
+        ListDirectoryResponse response = manager.listDirectoryChildren(relPath, "a.txt", 2);
+
+        assertEquals(2, response.getFileInfos().size());
+        assertEquals("folder/c.txt", response.getFileInfos().get(1).getPath());
+        assertEquals("c.txt", response.getNextCursor());
+    }
+
+    @Test
+    void shouldKeepPagingWhenAnEntryVanishedFromThePage() {
+        String relPath = "folder";
+        Path absPath = Path.of("/root/folder");
+
+        when(validator.toAbsolute(relPath)).thenReturn(absPath);
+        when(validator.toRelative(anyString())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("/root/".length()));
+        // c.txt was selected for the page but deleted before it was read
+        when(storage.getFileInfoPage(absPath, null, 2)).thenReturn(new ListDirectoryResponse(List.of(
+                new FileInfo("b.txt", "/root/folder/b.txt", 1L, false)
+        ), "c.txt"));
+
+        ListDirectoryResponse response = manager.listDirectoryChildren(relPath, null, 2);
+
+        assertEquals(1, response.getFileInfos().size());
+        assertEquals("c.txt", response.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectOutOfRangeLimit() {
+        assertThrows(ValidationException.class, () -> manager.listDirectoryChildren("folder", null, 0));
+        assertThrows(ValidationException.class,
+                () -> manager.listDirectoryChildren("folder", null, LocalFileManager.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(storage);
+    }
+}
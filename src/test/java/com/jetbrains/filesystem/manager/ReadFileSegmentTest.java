@@ -1,5 +1,7 @@
 package com.jetbrains.filesystem.manager;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jetbrains.filesystem.dto.file.ReadFileSegmentResponse;
 import com.jetbrains.filesystem.exception.NotFoundException;
 import com.jetbrains.filesystem.exception.ValidationException;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,7 +32,31 @@ public class ReadFileSegmentTest extends AbstractLocalFileManagerTest {
 
         ReadFileSegmentResponse response = manager.readFile(relPath, offset, length);
 
-        assertEquals(expectedBase64, response.getData());
+        assertEquals(ByteBuffer.wrap(data), response.getData());
+        assertEquals("{\"data\":\"" + expectedBase64 + "\"}", toJson(response));
+    }
+
+    @Test
+    void shouldSerializeLargeDirectBufferAsBase64() {
+        byte[] data = new byte[100_003];
+        new Random(1).nextBytes(data);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data).flip();
+        // a slice of a bigger buffer, as the block cache hands out
+        ByteBuffer heapSlice = ByteBuffer.wrap(new byte[data.length + 20]).position(10).slice().put(data).flip();
+
+        String expected = "{\"data\":\"" + Base64.getEncoder().encodeToString(data) + "\"}";
+        assertEquals(expected, toJson(new ReadFileSegmentResponse(direct)));
+        assertEquals(expected, toJson(new ReadFileSegmentResponse(heapSlice)));
+        // serializing does not consume the buffer
+        assertEquals(data.length, direct.remaining());
+    }
+
+    private static String toJson(ReadFileSegmentResponse response) {
+        try {
+            return new ObjectMapper().writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new AssertionError(e);
+        }
     }
 
     @Test
@@ -0,0 +1,107 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockCacheTest {
+    private static final int BLOCK = 16;
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlockCache cache;
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getBlockCache().setEnabled(true);
+        props.getBlockCache().setBlockSize(BLOCK);
+        props.getBlockCache().setMaxBytes(1024);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BlockCache(props, meterRegistry);
+
+        // 3 full blocks and a 5 byte tail
+        content = new byte[3 * BLOCK + 5];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        file = tempDir.resolve("data.bin");
+        Files.write(file, content);
+    }
+
+    private byte[] read(long offset, int length) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = cache.read(file, attrs, channel, offset, length);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    @Test
+    void read_withinOneBlock_shouldBeServedFromCacheOnSecondRead() throws IOException {
+        assertArrayEquals(Arrays.copyOfRange(content, 3, 10), read(3, 7));
+        assertArrayEquals(Arrays.copyOfRange(content, 3, 10), read(3, 7));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "fileservice.block")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("fileservice.block.cache.hit.ratio").gauge().value());
+        assertEquals(BLOCK, meterRegistry.get("fileservice.block.cache.resident.bytes").gauge().value());
+    }
+
+    @Test
+    void read_spanningBlocksAndTail_shouldReturnContiguousRange() throws IOException {
+        assertArrayEquals(Arrays.copyOfRange(content, 10, content.length), read(10, 1000));
+        // the partial tail block is never cached
+        assertEquals(3 * BLOCK, cache.residentBytes());
+    }
+
+    @Test
+    void append_shouldKeepCachedBlocksAndServeTheGrownTail() throws IOException {
+        read(0, 1000);
+        assertEquals(3 * BLOCK, cache.residentBytes());
+
+        // completes the tail block
+        byte[] appended = new byte[BLOCK];
+        Arrays.fill(appended, (byte) 9);
+        Files.write(file, appended, StandardOpenOption.APPEND);
+        byte[] grown = Arrays.copyOf(content, content.length + BLOCK);
+        System.arraycopy(appended, 0, grown, content.length, BLOCK);
+
+        assertArrayEquals(Arrays.copyOfRange(grown, 0, grown.length), read(0, 1000));
+        assertEquals(4 * BLOCK, cache.residentBytes());
+
+        cache.invalidate(tempDir);
+        assertEquals(0, cache.residentBytes());
+    }
+
+    @Test
+    void replacedFile_shouldNotBeServedFromStaleBlocks() throws IOException {
+        read(0, BLOCK);
+
+        byte[] replacement = new byte[2 * BLOCK];
+        Arrays.fill(replacement, (byte) 7);
+        Path staged = tempDir.resolve("data.bin.tmp");
+        Files.write(staged, replacement);
+        Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertArrayEquals(Arrays.copyOfRange(replacement, 0, BLOCK), read(0, BLOCK));
+    }
+}
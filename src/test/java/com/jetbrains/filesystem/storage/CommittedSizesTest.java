@@ -0,0 +1,59 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.lock.StripedLockRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommittedSizesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void committedSize_duringAWrite_shouldBeTheSizeBeforeItWithoutWaiting() throws Exception {
+        // one stripe: every file shares the stamped lock
+        FileServiceProperties props = new FileServiceProperties();
+        props.getLock().setStripes(1);
+        CommittedSizes sizes = new CommittedSizes(new StripedLockRegistry(props, new SimpleMeterRegistry()));
+        Path file = tempDir.resolve("a.log");
+        Path other = tempDir.resolve("b.log");
+        Files.writeString(file, "12345");
+        Files.writeString(other, "abc");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel otherChannel = FileChannel.open(other, StandardOpenOption.READ)) {
+            sizes.writing(file, 5);
+            // half of the append is in
+            channel.write(ByteBuffer.wrap("678".getBytes()), 5);
+
+            assertEquals(5, CompletableFuture.supplyAsync(() -> committedSize(sizes, file, channel))
+                    .get(5, TimeUnit.SECONDS));
+            assertEquals(3, CompletableFuture.supplyAsync(() -> committedSize(sizes, other, otherChannel))
+                    .get(5, TimeUnit.SECONDS));
+
+            sizes.written(file);
+            assertEquals(8, sizes.committedSize(file, channel));
+        }
+    }
+
+    private static long committedSize(CommittedSizes sizes, Path path, FileChannel channel) {
+        try {
+            return sizes.committedSize(path, channel);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.jetbrains.filesystem.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalOnAppendModeTest {
+    private final ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(Modes.class);
+
+    @Configuration
+    static class Modes {
+        @Bean
+        @ConditionalOnAppendMode(AppendMode.LOCKING)
+        String locking() {
+            return "locking";
+        }
+
+        @Bean
+        @ConditionalOnAppendMode(AppendMode.GROUP_COMMIT)
+        String groupCommit() {
+            return "group-commit";
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"group-commit", "GROUP_COMMIT", "group_commit", "groupCommit"})
+    void everySpellingOfTheMode_shouldSelectTheSameBean(String mode) {
+        runner.withPropertyValues("fileservice.append.mode=" + mode).run(context -> {
+            assertTrue(context.containsBean("groupCommit"));
+            assertFalse(context.containsBean("locking"));
+        });
+    }
+
+    @Test
+    void noMode_shouldSelectLocking() {
+        runner.run(context -> {
+            assertTrue(context.containsBean("locking"));
+            assertFalse(context.containsBean("groupCommit"));
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Readers running against a stream of appends must only ever see whole records: every record is one
+ * append of a multi-page, unaligned length filled with a single byte value, so a read that includes part
+ * of an append still being written ends mid-record or in a record that is not uniform.
+ */
+public class ConsistentReadStressTest {
+    private static final int RECORD = 3 * 4096 + 123;
+    private static final int WRITERS = 4;
+    private static final int RECORDS_PER_WRITER = 40;
+    private static final int READERS = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private StorageFixture fixture;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (fixture != null) fixture.close();
+    }
+
+    private LocalFileStorage newStorage(String mode, boolean blockCache) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.setRootFolder(tempDir.toString());
+        props.getBlockCache().setEnabled(blockCache);
+        props.getBlockCache().setBlockSize(4096);
+        props.getAppend().setMode(mode.equals("group-commit") ? AppendMode.GROUP_COMMIT : AppendMode.LOCKING);
+        props.getAppend().getGroupCommit().setFsync(FsyncPolicy.NONE);
+        fixture = new StorageFixture(props);
+        return fixture.localStorage();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locking", "group-commit", "locking+block-cache"})
+    void reads_shouldNeverObservePartialAppends(String mode) throws Exception {
+        LocalFileStorage storage = newStorage(mode.replace("+block-cache", ""), mode.endsWith("+block-cache"));
+        Path file = tempDir.resolve("records.bin");
+        // a first record, so readers always have something to read
+        Files.write(file, record(0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger reads = new AtomicInteger();
+        List<String> violations = new CopyOnWriteArrayList<>();
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < RECORDS_PER_WRITER; i++) {
+                        storage.append(file, record(1 + writer * RECORDS_PER_WRITER + i));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                boolean ranged = r % 2 == 1;
+                readers.add(pool.submit(() -> {
+                    while (writing.get()) {
+                        if (ranged) {
+                            // the first and the last byte seen of the file, as one multi-range read
+                            ByteBuffer whole = storage.read(file, 0, Integer.MAX_VALUE);
+                            long last = whole.remaining() - 1;
+                            List<ByteBuffer> both = storage.read(file, List.of(new SegmentRange(0, 1), new SegmentRange(last, RECORD)));
+                            check(whole, violations);
+                            if (both.get(1).remaining() < 1) violations.add("empty tail read at " + last);
+                        } else {
+                            check(storage.read(file, 0, Integer.MAX_VALUE), violations);
+                        }
+                        reads.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(List.of(), violations.subList(0, Math.min(5, violations.size())));
+        assertEquals((1L + WRITERS * RECORDS_PER_WRITER) * RECORD, Files.size(file));
+        check(storage.read(file, 0, Integer.MAX_VALUE), violations);
+        assertEquals(List.of(), violations);
+    }
+
+    private static byte[] record(int seq) {
+        byte[] data = new byte[RECORD];
+        Arrays.fill(data, (byte) (seq % 251 + 1));
+        return data;
+    }
+
+    private static void check(ByteBuffer data, List<String> violations) {
+        ByteBuffer view = data.duplicate();
+        int length = view.remaining();
+        if (length % RECORD != 0) {
+            violations.add("read of " + length + " bytes ends inside a record");
+            return;
+        }
+        for (int start = 0; start < length; start += RECORD) {
+            byte value = view.get(view.position() + start);
+            for (int i = start; i < start + RECORD; i++) {
+                if (view.get(view.position() + i) != value) {
+                    violations.add("record at " + start + " is torn at byte " + (i - start));
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ContentMatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentSearcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContentSearcher searcher;
+
+    private ContentSearcher newSearcher(long mmapThreshold) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getSearch().setParallelism(2);
+        props.getSearch().setMmapThreshold(mmapThreshold);
+        searcher = new ContentSearcher(props, new SimpleMeterRegistry());
+        return searcher;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (searcher != null) searcher.close();
+    }
+
+    private static List<ContentMatch> drain(ContentSearch search) throws InterruptedException {
+        List<ContentMatch> matches = new ArrayList<>();
+        try (search) {
+            while (!search.isDone()) {
+                ContentMatch match = search.poll(10, TimeUnit.SECONDS);
+                if (match != null) matches.add(match);
+            }
+        }
+        matches.sort(Comparator.comparing(ContentMatch::getPath).thenComparingLong(ContentMatch::getOffset));
+        return matches;
+    }
+
+    private ContentSearch searchDisk(ContentPattern pattern, Path... files) {
+        return searcher.search(pattern, sink -> {
+            for (Path file : files) {
+                if (!sink.test(new ContentSearcher.DiskFile(file, file))) return;
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1024 * 1024})
+    void literal_shouldReportEachMatchingLineOnce(long mmapThreshold) throws Exception {
+        newSearcher(mmapThreshold);
+        Path file = tempDir.resolve("app.log");
+        String content = "start\r\nrequest req-42 begins\nother\nreq-42 req-42 twice\nreq-4 no\nend req-42";
+        Files.writeString(file, content);
+
+        List<ContentMatch> matches = drain(searchDisk(ContentPattern.literal("req-42"), file));
+
+        assertEquals(3, matches.size());
+        assertEquals(content.indexOf("req-42"), matches.get(0).getOffset());
+        assertEquals("request req-42 begins", matches.get(0).getLine());
+        assertEquals("req-42 req-42 twice", matches.get(1).getLine());
+        assertEquals("end req-42", matches.get(2).getLine());
+        assertEquals(file.toString(), matches.get(2).getPath());
+    }
+
+    @Test
+    void literal_shouldMatchUtf8Text() throws Exception {
+        newSearcher(1024 * 1024);
+        Path file = tempDir.resolve("utf8.txt");
+        Files.writeString(file, "a\nZürich café\nb", StandardCharsets.UTF_8);
+
+        List<ContentMatch> matches = drain(searchDisk(ContentPattern.literal("café"), file));
+
+        assertEquals(1, matches.size());
+        assertEquals("Zürich café", matches.get(0).getLine());
+        assertEquals("a\nZürich ".getBytes(StandardCharsets.UTF_8).length, matches.get(0).getOffset());
+    }
+
+    @Test
+    void regex_shouldMatchPerLine() throws Exception {
+        newSearcher(1024 * 1024);
+        Path file = tempDir.resolve("app.log");
+        Files.writeString(file, "id=7 ok\nid=12 failed\nstatus=failed\nid=3 failed\n");
+
+        List<ContentMatch> matches = drain(searchDisk(ContentPattern.regex("^id=\\d+ failed$"), file));
+
+        assertEquals(List.of("id=12 failed", "id=3 failed"), matches.stream().map(ContentMatch::getLine).toList());
+        assertEquals(8, matches.get(0).getOffset());
+    }
+
+    @Test
+    void search_shouldCoverEveryFileAndSkipMissingOnes() throws Exception {
+        newSearcher(1024 * 1024);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Path file = tempDir.resolve("file-" + i + ".txt");
+            Files.writeString(file, "x\nneedle " + i + "\ny\n");
+            files.add(file);
+        }
+        files.add(tempDir.resolve("missing.txt"));
+
+        ContentSearch search = searchDisk(ContentPattern.literal("needle"), files.toArray(Path[]::new));
+        List<ContentMatch> matches = drain(search);
+
+        assertEquals(50, matches.size());
+        assertEquals(50, search.filesScanned());
+    }
+
+    @Test
+    void memoryFile_shouldBeSearchedLikeADiskFile() throws Exception {
+        newSearcher(1024 * 1024);
+        ByteBuffer content = ByteBuffer.wrap("one\ntwo needle\nthree".getBytes(StandardCharsets.UTF_8));
+
+        List<ContentMatch> matches = drain(searcher.search(ContentPattern.literal("needle"),
+                sink -> sink.test(new ContentSearcher.MemoryFile(Path.of("/mem/a.txt"), List.of(content)))));
+
+        assertEquals(1, matches.size());
+        assertEquals("two needle", matches.get(0).getLine());
+        assertEquals(8, matches.get(0).getOffset());
+    }
+
+    @Test
+    void memoryFile_shouldFindLinesSpanningChunks() throws Exception {
+        newSearcher(1024 * 1024);
+        String content = "needle first\nsplit nee" + "dle line\nmid" + "dle\nno" + " line break " + "needle\n";
+        List<ByteBuffer> chunks = List.of(
+                ByteBuffer.wrap("needle first\nsplit nee".getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap("dle line\nmid".getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap("dle\nno".getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap(" line break ".getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap("needle\n".getBytes(StandardCharsets.UTF_8)));
+
+        List<ContentMatch> matches = drain(searcher.search(ContentPattern.literal("needle"),
+                sink -> sink.test(new ContentSearcher.MemoryFile(Path.of("/mem/a.txt"), chunks))));
+
+        assertEquals(List.of("needle first", "split needle line", "no line break needle"),
+                matches.stream().map(ContentMatch::getLine).toList());
+        assertEquals(List.of(0L, (long) content.indexOf("needle line"), (long) content.lastIndexOf("needle")),
+                matches.stream().map(ContentMatch::getOffset).toList());
+    }
+
+    @Test
+    void close_shouldStopTheWalk() throws Exception {
+        newSearcher(1024 * 1024);
+        Path file = tempDir.resolve("dense.txt");
+        Files.writeString(file, "hit\n".repeat(5000));
+        AtomicInteger handedOut = new AtomicInteger();
+
+        ContentSearch search = searcher.search(ContentPattern.literal("hit"), sink -> {
+            for (int i = 0; i < 10_000; i++) {
+                handedOut.incrementAndGet();
+                if (!sink.test(new ContentSearcher.DiskFile(file, file))) return;
+            }
+        });
+        assertNotNull(search.poll(10, TimeUnit.SECONDS));
+        search.close();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int seen;
+        do {
+            seen = handedOut.get();
+            Thread.sleep(200);
+        } while (handedOut.get() != seen && System.nanoTime() < deadline);
+        assertTrue(handedOut.get() < 10_000, "the walk stopped after " + handedOut.get() + " files");
+    }
+
+    @Test
+    void close_shouldStopABacktrackingRegex() throws Exception {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getSearch().setParallelism(1);
+        props.getSearch().setMmapThreshold(1024 * 1024);
+        searcher = new ContentSearcher(props, new SimpleMeterRegistry());
+        Path pathological = tempDir.resolve("aaa.txt");
+        // (.*a){20}b backtracks for ages over a line of a's without a b
+        Files.writeString(pathological, "a".repeat(64) + "\n");
+        Path plain = tempDir.resolve("plain.txt");
+        Files.writeString(plain, "needle\n");
+
+        // one file on the worker, one on the walking thread: the whole pool is busy matching
+        ContentSearch stuck = searchDisk(ContentPattern.regex("(.*a){20}b"), pathological, pathological);
+        assertNull(stuck.poll(200, TimeUnit.MILLISECONDS));
+        stuck.close();
+
+        // only runs once the pool threads are free again
+        List<ContentMatch> matches = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> drain(searchDisk(ContentPattern.literal("needle"), plain)));
+        assertEquals(1, matches.size());
+    }
+
+    @Test
+    void walkFailure_shouldEndTheSearch() throws Exception {
+        newSearcher(1024 * 1024);
+
+        ContentSearch search = searcher.search(ContentPattern.literal("x"), sink -> {
+            throw new IOException("boom");
+        });
+
+        assertTrue(drain(search).isEmpty());
+        assertTrue(search.isDone());
+    }
+}
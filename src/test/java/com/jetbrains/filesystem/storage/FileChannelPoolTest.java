@@ -0,0 +1,197 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileChannelPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileChannelPool pool;
+
+    @BeforeEach
+    void setUp() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getChannelPool().setMaxOpenFiles(2);
+        pool = new FileChannelPool(props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void acquire_shouldReuseChannelForSameFile() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hello");
+
+        FileChannel first;
+        try (FileChannelPool.Lease lease = pool.acquire(file)) {
+            first = lease.channel();
+        }
+        try (FileChannelPool.Lease lease = pool.acquire(file)) {
+            assertSame(first, lease.channel());
+            assertTrue(lease.channel().isOpen());
+        }
+    }
+
+    @Test
+    void invalidate_shouldCloseIdleChannelAndDeferLeasedOne() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hello");
+
+        FileChannelPool.Lease lease = pool.acquire(file);
+        pool.invalidateTree(tempDir);
+        // still usable by the lease holder
+        assertTrue(lease.channel().isOpen());
+        FileChannel channel = lease.channel();
+        lease.close();
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void invalidate_shouldOnlyCloseThatFilesChannel() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Path other = tempDir.resolve("a.txt.bak");
+        Files.writeString(file, "hello");
+        Files.writeString(other, "hello");
+        FileChannel channel;
+        FileChannel otherChannel;
+        try (FileChannelPool.Lease lease = pool.acquire(file); FileChannelPool.Lease otherLease = pool.acquire(other)) {
+            channel = lease.channel();
+            otherChannel = otherLease.channel();
+        }
+
+        pool.invalidate(file);
+
+        assertFalse(channel.isOpen());
+        assertTrue(otherChannel.isOpen());
+        assertEquals(1, pool.openChannels());
+    }
+
+    @Test
+    void acquire_shouldReopenWhenFileWasReplaced() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "old");
+        try (FileChannelPool.Lease lease = pool.acquire(file)) {
+            assertEquals(3, lease.channel().size());
+        }
+
+        // replaced outside the pool
+        Files.delete(file);
+        Files.writeString(file, "brand new");
+
+        try (FileChannelPool.Lease lease = pool.acquire(file)) {
+            ByteBuffer buffer = ByteBuffer.allocate(9);
+            lease.channel().read(buffer, 0);
+            assertEquals("brand new", new String(buffer.array()));
+        }
+    }
+
+    @Test
+    void pool_shouldNotKeepMoreThanMaxOpenFiles() throws IOException {
+        FileChannel[] channels = new FileChannel[5];
+        for (int i = 0; i < channels.length; i++) {
+            Path file = tempDir.resolve("f" + i);
+            Files.createFile(file);
+            try (FileChannelPool.Lease lease = pool.acquire(file)) {
+                channels[i] = lease.channel();
+            }
+        }
+        pool.cleanUp();
+
+        assertTrue(pool.openChannels() <= 2);
+        long open = 0;
+        for (FileChannel channel : channels) {
+            if (channel.isOpen()) open++;
+        }
+        assertTrue(open <= 2);
+    }
+
+    @Test
+    void acquire_concurrentWithInvalidate_shouldNeverLeaseClosedChannel() throws Exception {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hello");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread invalidator = new Thread(() -> {
+            while (running.get()) {
+                pool.invalidate(file);
+            }
+        });
+        invalidator.start();
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(readers.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        try (FileChannelPool.Lease lease = pool.acquire(file)) {
+                            ByteBuffer buffer = ByteBuffer.allocate(5);
+                            lease.channel().read(buffer, 0);
+                            assertEquals("hello", new String(buffer.array()));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            invalidator.join();
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void open_onReadOnlyFileSystem_shouldFallBackToReadOnly() throws IOException {
+        Path file = tempDir.resolve("ro.txt");
+        Files.writeString(file, "hello");
+        List<Integer> attempts = new ArrayList<>();
+
+        // a read-only mount reports EROFS as a plain FileSystemException, not AccessDeniedException
+        try (FileChannel channel = FileChannelPool.openPreferWritable(file, (path, options) -> {
+            attempts.add(options.length);
+            if (List.of(options).contains(StandardOpenOption.WRITE)) {
+                throw new FileSystemException(path.toString(), null, "Read-only file system");
+            }
+            return FileChannel.open(path, options);
+        })) {
+            ByteBuffer buffer = ByteBuffer.allocate(5);
+            channel.read(buffer, 0);
+            assertEquals("hello", new String(buffer.array()));
+        }
+        assertEquals(List.of(2, 1), attempts);
+    }
+
+    @Test
+    void open_missingFile_shouldStillFail() {
+        assertThrows(NoSuchFileException.class,
+                () -> FileChannelPool.openPreferWritable(tempDir.resolve("missing.txt"), FileChannel::open));
+    }
+}
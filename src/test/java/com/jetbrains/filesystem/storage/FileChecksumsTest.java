@@ -0,0 +1,138 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ChecksumAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileChecksumsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileChecksums newChecksums(boolean incremental) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getChecksum().setIncremental(incremental);
+        return new FileChecksums(props, new SimpleMeterRegistry());
+    }
+
+    private String checksum(FileChecksums checksums, Path file, ChecksumAlgorithm algorithm, boolean resumable)
+            throws IOException {
+        Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return checksums.checksum(file, fileKey, channel, channel.size(), algorithm, resumable);
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static String crc32c(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return String.format("%08x", crc.getValue());
+    }
+
+    @Test
+    void checksum_shouldMatchWholeFileDigests() throws Exception {
+        FileChecksums checksums = newChecksums(true);
+        for (int size : new int[]{0, 1, 200_000, 11_000_000}) {
+            Path file = tempDir.resolve("data-" + size + ".bin");
+            byte[] data = randomBytes(size);
+            Files.write(file, data);
+
+            assertEquals(sha256(data), checksum(checksums, file, ChecksumAlgorithm.SHA256, true));
+            assertEquals(crc32c(data), checksum(checksums, file, ChecksumAlgorithm.CRC32C, true));
+        }
+    }
+
+    @Test
+    void checksum_afterAppend_shouldOnlyHashTheTail() throws Exception {
+        FileChecksums checksums = newChecksums(true);
+        Path file = tempDir.resolve("log.bin");
+        byte[] head = randomBytes(100_000);
+        Files.write(file, head);
+        checksum(checksums, file, ChecksumAlgorithm.SHA256, true);
+        assertEquals(100_000, checksums.hashedBytes());
+
+        Files.write(file, "tail".getBytes(), StandardOpenOption.APPEND);
+        byte[] all = Files.readAllBytes(file);
+
+        assertEquals(sha256(all), checksum(checksums, file, ChecksumAlgorithm.SHA256, true));
+        assertEquals(100_004, checksums.hashedBytes());
+        // unchanged file: nothing left to hash
+        assertEquals(sha256(all), checksum(checksums, file, ChecksumAlgorithm.SHA256, true));
+        assertEquals(100_004, checksums.hashedBytes());
+    }
+
+    @Test
+    void checksum_replacedOrShrunkFile_shouldStartOver() throws Exception {
+        FileChecksums checksums = newChecksums(true);
+        Path file = tempDir.resolve("data.bin");
+        Files.write(file, randomBytes(1000));
+        checksum(checksums, file, ChecksumAlgorithm.CRC32C, true);
+
+        byte[] shorter = randomBytes(500);
+        Files.write(file, shorter);
+        assertEquals(crc32c(shorter), checksum(checksums, file, ChecksumAlgorithm.CRC32C, true));
+
+        Path replacement = tempDir.resolve("replacement.bin");
+        byte[] longer = randomBytes(2000);
+        Files.write(replacement, longer);
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(crc32c(longer), checksum(checksums, file, ChecksumAlgorithm.CRC32C, true));
+    }
+
+    @Test
+    void checksum_invalidated_shouldRehashEverything() throws Exception {
+        FileChecksums checksums = newChecksums(true);
+        Path file = tempDir.resolve("dir/data.bin");
+        Files.createDirectories(file.getParent());
+        Files.write(file, randomBytes(1000));
+        checksum(checksums, file, ChecksumAlgorithm.SHA256, true);
+
+        checksums.invalidate(file.getParent());
+        checksum(checksums, file, ChecksumAlgorithm.SHA256, true);
+
+        assertEquals(2000, checksums.hashedBytes());
+    }
+
+    @Test
+    void checksum_notResumableOrDisabled_shouldRehashEverything() throws Exception {
+        Path file = tempDir.resolve("data.bin");
+        byte[] data = randomBytes(1000);
+        Files.write(file, data);
+
+        FileChecksums positional = newChecksums(true);
+        checksum(positional, file, ChecksumAlgorithm.SHA256, false);
+        assertEquals(sha256(data), checksum(positional, file, ChecksumAlgorithm.SHA256, false));
+        assertEquals(2000, positional.hashedBytes());
+
+        FileChecksums disabled = newChecksums(false);
+        checksum(disabled, file, ChecksumAlgorithm.SHA256, true);
+        checksum(disabled, file, ChecksumAlgorithm.SHA256, true);
+        assertEquals(2000, disabled.hashedBytes());
+    }
+}
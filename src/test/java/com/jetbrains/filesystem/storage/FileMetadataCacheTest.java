@@ -0,0 +1,181 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileMetadataCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StorageFixture fixture;
+    private SimpleMeterRegistry meterRegistry;
+    private FileMetadataCache cache;
+    private LocalFileStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getMetadataCache().setEnabled(true);
+        props.getMetadataCache().setExpireAfterWrite(Duration.ofMinutes(5));
+        fixture = new StorageFixture(props);
+        meterRegistry = fixture.meterRegistry();
+        cache = fixture.metadataCache();
+        storage = fixture.localStorage();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    void getFileInfo_shouldServeRepeatedLookupsFromCache() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hello");
+
+        storage.getFileInfo(file);
+        storage.getFileInfo(file);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "fileservice.metadata.info")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void append_shouldInvalidateFileInfoAndParentListing() throws IOException {
+        Path file = tempDir.resolve("a.txt");
+        Files.writeString(file, "hello");
+        assertEquals(5, storage.getFileInfo(file).getSize());
+        assertEquals(5, storage.getFileInfolist(tempDir).get(0).getSize());
+
+        storage.append(file, " world".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(11, storage.getFileInfo(file).getSize());
+        assertEquals(11, storage.getFileInfolist(tempDir).get(0).getSize());
+    }
+
+    @Test
+    void createAndDelete_shouldInvalidateListings() {
+        Path dir = tempDir.resolve("dir");
+        storage.create(dir, EntryType.FOLDER);
+        assertTrue(storage.getFileInfolist(dir).isEmpty());
+
+        storage.create(dir.resolve("nested/b.txt"), EntryType.FILE);
+        List<FileInfo> children = storage.getFileInfolist(dir);
+        assertEquals(1, children.size());
+        assertEquals("nested", children.get(0).getName());
+
+        storage.delete(dir.resolve("nested"));
+        assertTrue(storage.getFileInfolist(dir).isEmpty());
+    }
+
+    @Test
+    void externalChange_shouldBePickedUpByWatcher() throws Exception {
+        assertTrue(storage.getFileInfolist(tempDir).isEmpty());
+
+        // written behind the storage's back
+        Files.writeString(tempDir.resolve("external.txt"), "x");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (storage.getFileInfolist(tempDir).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, storage.getFileInfolist(tempDir).size());
+    }
+
+    @Test
+    void watchBudget_shouldBeFreedOnceADirectoryHasNothingCached() throws Exception {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getMetadataCache().setEnabled(true);
+        props.getMetadataCache().setExpireAfterWrite(Duration.ofMinutes(5));
+        // room to watch a single directory
+        props.getMetadataCache().setMaximumSize(1);
+        FileMetadataCache small = new FileMetadataCache(props, meterRegistry);
+        try {
+            Path first = Files.createDirectory(tempDir.resolve("first"));
+            Path second = Files.createDirectory(tempDir.resolve("second"));
+            Function<Path, List<FileInfo>> loader = dir -> {
+                try (var children = Files.list(dir)) {
+                    return children.map(p -> new FileInfo(p.getFileName().toString(), p.toString(), 0, false)).toList();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+
+            assertTrue(small.getFileInfoList(first, loader).isEmpty());
+            small.invalidate(first);
+            assertTrue(small.getFileInfoList(second, loader).isEmpty());
+
+            // written behind the cache's back
+            Files.writeString(second.resolve("external.txt"), "x");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (small.getFileInfoList(second, loader).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, small.getFileInfoList(second, loader).size());
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    void invalidate_betweenLoadAndInsert_shouldNotLeaveTheStaleResultCached() {
+        Path real = tempDir.resolve("a.txt");
+        AtomicLong version = new AtomicLong();
+        AtomicBoolean armed = new AtomicBoolean();
+        // the cache hashes the key when inserting the loaded value: a mutation lands right there
+        Path[] file = new Path[1];
+        file[0] = (Path) Proxy.newProxyInstance(Path.class.getClassLoader(), new Class<?>[]{Path.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("hashCode") && armed.compareAndSet(true, false)) {
+                        version.incrementAndGet();
+                        cache.invalidate(file[0]);
+                    }
+                    return method.invoke(real, args);
+                });
+        Function<Path, FileInfo> loader = p -> {
+            armed.set(true);
+            return new FileInfo("a.txt", real.toString(), version.get(), false);
+        };
+
+        assertEquals(0, cache.getFileInfo(file[0], loader).getSize());
+        assertEquals(1, cache.getFileInfo(file[0], loader).getSize());
+    }
+
+    @Test
+    void invalidate_ofAnotherPathDuringALoad_shouldStillCacheTheResult() {
+        Path file = tempDir.resolve("b/x.txt");
+        AtomicLong loads = new AtomicLong();
+        Function<Path, FileInfo> loader = p -> {
+            loads.incrementAndGet();
+            // an append elsewhere lands while this loads
+            cache.invalidate(tempDir.resolve("a/x.txt"));
+            return new FileInfo("x.txt", p.toString(), 0, false);
+        };
+
+        cache.getFileInfo(file, loader);
+        cache.getFileInfo(file, loader);
+
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,109 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.lock.StripedLockRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitFileAppenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GroupCommitFileAppender appender;
+
+    private GroupCommitFileAppender create(FsyncPolicy fsync) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getAppend().getGroupCommit().setFsync(fsync);
+        props.getAppend().getGroupCommit().setMaxBatchDelay(Duration.ofMillis(5));
+        props.getAppend().getGroupCommit().setMaxBatchBytes(1024);
+        appender = new GroupCommitFileAppender(props, new FileChannelPool(props),
+                new StripedLockRegistry(props, new SimpleMeterRegistry()));
+        return appender;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (appender != null) {
+            appender.close();
+        }
+    }
+
+    @Test
+    void append_shouldReturnOffsetAfterExistingContent() throws IOException {
+        create(FsyncPolicy.PER_BATCH);
+        Path file = tempDir.resolve("log.txt");
+        Files.writeString(file, "hello ");
+
+        assertEquals(6, appender.append(file, "world".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("hello world", Files.readString(file));
+    }
+
+    @Test
+    void concurrentAppends_shouldBeMergedWithoutLosingOrOverlappingRecords() throws Exception {
+        create(FsyncPolicy.INTERVAL);
+        Path file = tempDir.resolve("hot.log");
+        Files.createFile(file);
+        int writers = 8;
+        int perWriter = 100;
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            byte[] record = new byte[40];
+            Arrays.fill(record, (byte) ('a' + w));
+            results.add(pool.submit(() -> {
+                long[] offsets = new long[perWriter];
+                for (int i = 0; i < perWriter; i++) {
+                    offsets[i] = appender.append(file, record);
+                }
+                return offsets;
+            }));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<long[]> offsets = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            offsets.add(result.get());
+        }
+        pool.shutdown();
+        byte[] content = Files.readAllBytes(file);
+
+        assertEquals(writers * perWriter * 40, content.length);
+        for (int w = 0; w < writers; w++) {
+            for (long offset : offsets.get(w)) {
+                assertTrue(seen.add(offset));
+                for (int i = 0; i < 40; i++) {
+                    assertEquals('a' + w, content[(int) offset + i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void append_toMissingFile_shouldFailTheCaller() {
+        create(FsyncPolicy.NONE);
+        Path file = tempDir.resolve("missing.txt");
+
+        assertThrows(NoSuchFileException.class, () -> appender.append(file, new byte[]{1}));
+    }
+}
@@ -0,0 +1,59 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrowthWaitersTest {
+    private final GrowthWaiters waiters = new GrowthWaiters();
+    private final Path file = Paths.get("/root/dir/file.log");
+
+    @Test
+    void grew_shouldWakeOnlyWaitersBelowTheNewSize() {
+        CompletableFuture<Void> at10 = waiters.register(file, 10);
+        CompletableFuture<Void> at20 = waiters.register(file, 20);
+
+        waiters.grew(file, 15);
+
+        assertTrue(at10.isDone());
+        assertFalse(at20.isDone());
+        assertEquals(1, waiters.waiting());
+
+        waiters.grew(file, 21);
+        assertTrue(at20.isDone());
+        assertEquals(0, waiters.waiting());
+    }
+
+    @Test
+    void cancel_shouldDeregister() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(waiters.register(file, i));
+        }
+        assertEquals(1000, waiters.waiting());
+
+        futures.forEach(f -> f.cancel(false));
+
+        assertEquals(0, waiters.waiting());
+    }
+
+    @Test
+    void fail_shouldFailWaitersOfTheSubtree() {
+        CompletableFuture<Void> inside = waiters.register(file, 0);
+        CompletableFuture<Void> outside = waiters.register(Paths.get("/root/other.log"), 0);
+
+        waiters.fail(Paths.get("/root/dir"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, inside::get);
+        assertInstanceOf(NotFoundException.class, e.getCause());
+        assertFalse(outside.isDone());
+    }
+}
@@ -0,0 +1,305 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ContentMatch;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
+import com.jetbrains.filesystem.exception.ConflictException;
+import com.jetbrains.filesystem.exception.FileOperationException;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import com.jetbrains.filesystem.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryFileStorageTest {
+    private static final int CHUNK = 16;
+
+    private final Path root = Paths.get("/memory-root").toAbsolutePath();
+    private InMemoryFileStorage storage;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        storage = newStorage(1024 * 1024);
+    }
+
+    private InMemoryFileStorage newStorage(long maxBytes) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.setRootFolder(root.toString());
+        props.getStorage().setChunkSize(CHUNK);
+        props.getStorage().setMaxBytes(maxBytes);
+        return new InMemoryFileStorage(props, new SimpleMeterRegistry(), new ContentSearcher(props, new SimpleMeterRegistry()));
+    }
+
+    private byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void create_shouldCreateMissingParents() {
+        storage.create(root.resolve("a/b/c.txt"), EntryType.FILE);
+
+        assertEquals(EntryType.FOLDER, storage.entryType(root.resolve("a")));
+        assertEquals(EntryType.FOLDER, storage.entryType(root.resolve("a/b")));
+        assertEquals(EntryType.FILE, storage.entryType(root.resolve("a/b/c.txt")));
+        assertNull(storage.entryType(root.resolve("a/missing")));
+        assertNull(storage.entryType(root.resolve("a/b/c.txt/below")));
+    }
+
+    @Test
+    void create_existingFile_shouldConflict() {
+        storage.create(root.resolve("f.txt"), EntryType.FILE);
+
+        assertThrows(ConflictException.class, () -> storage.create(root.resolve("f.txt"), EntryType.FILE));
+        assertThrows(ConflictException.class, () -> storage.create(root.resolve("f.txt/child"), EntryType.FOLDER));
+    }
+
+    @Test
+    void appendAndRead_acrossChunks_shouldReturnWhatWasWritten() {
+        Path file = root.resolve("data.bin");
+        storage.create(file, EntryType.FILE);
+        byte[] first = randomBytes(10);
+        byte[] second = randomBytes(45);
+
+        assertEquals(0, storage.append(file, first));
+        assertEquals(10, storage.append(file, second));
+
+        byte[] all = new byte[55];
+        System.arraycopy(first, 0, all, 0, 10);
+        System.arraycopy(second, 0, all, 10, 45);
+        assertEquals(55, storage.getFileInfo(file).getSize());
+        assertArrayEquals(Arrays.copyOfRange(all, 3, 8), toBytes(storage.read(file, 3, 5)));     // inside one chunk
+        assertArrayEquals(Arrays.copyOfRange(all, 5, 50), toBytes(storage.read(file, 5, 45)));   // spans chunks
+        assertArrayEquals(Arrays.copyOfRange(all, 50, 55), toBytes(storage.read(file, 50, 100))); // clamped at EOF
+        assertEquals(4L * CHUNK, storage.allocatedBytes());
+    }
+
+    @Test
+    void read_invalidRequests_shouldMatchLocalStorage() {
+        Path file = root.resolve("small.bin");
+        storage.create(file, EntryType.FILE);
+        storage.append(file, randomBytes(20));
+
+        assertThrows(ValidationException.class, () -> storage.read(file, 0, 0));
+        assertThrows(ValidationException.class, () -> storage.read(file, -1, 10));
+        assertThrows(ValidationException.class, () -> storage.read(file, 20, 10));
+        assertThrows(NotFoundException.class, () -> storage.read(root.resolve("missing"), 0, 10));
+        assertThrows(NotFoundException.class, () -> storage.read(root, 0, 10));
+    }
+
+    @Test
+    void readRanges_shouldReturnRangesInRequestOrder() {
+        Path file = root.resolve("data.bin");
+        storage.create(file, EntryType.FILE);
+        byte[] data = randomBytes(100);
+        storage.append(file, data);
+
+        List<SegmentRange> ranges = List.of(new SegmentRange(60, 30), new SegmentRange(0, 5), new SegmentRange(95, 50));
+        List<ByteBuffer> segments = storage.read(file, ranges);
+
+        assertArrayEquals(Arrays.copyOfRange(data, 60, 90), toBytes(segments.get(0)));
+        assertArrayEquals(Arrays.copyOfRange(data, 0, 5), toBytes(segments.get(1)));
+        assertArrayEquals(Arrays.copyOfRange(data, 95, 100), toBytes(segments.get(2)));
+        assertThrows(ValidationException.class, () -> storage.read(file, List.of(new SegmentRange(100, 1))));
+    }
+
+    @Test
+    void transferTo_shouldWriteTheRequestedRange() {
+        Path file = root.resolve("data.bin");
+        storage.create(file, EntryType.FILE);
+        byte[] data = randomBytes(70);
+        storage.append(file, data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = storage.transferTo(file, 7, 100, Channels.newChannel(out));
+
+        assertEquals(63, transferred);
+        assertArrayEquals(Arrays.copyOfRange(data, 7, 70), out.toByteArray());
+    }
+
+    @Test
+    void appendFile_shouldCopyTheWholeFile() throws IOException {
+        Path file = root.resolve("data.bin");
+        storage.create(file, EntryType.FILE);
+        storage.append(file, randomBytes(3));
+        byte[] upload = randomBytes(50);
+        Path staged = Files.write(tempDir.resolve("upload.part"), upload);
+
+        assertEquals(3, storage.appendFile(file, staged));
+        assertArrayEquals(upload, toBytes(storage.read(file, 3, 50)));
+    }
+
+    @Test
+    void listing_shouldBeOrderedByNameAndPageable() {
+        for (String name : List.of("c", "a", "d", "b")) {
+            storage.create(root.resolve("dir").resolve(name), EntryType.FILE);
+        }
+        storage.create(root.resolve("dir/e"), EntryType.FOLDER);
+        Path dir = root.resolve("dir");
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), storage.getFileInfolist(dir).stream().map(FileInfo::getName).toList());
+        ListDirectoryResponse page = storage.getFileInfoPage(dir, "b", 2);
+        assertEquals(List.of("c", "d"), page.getFileInfos().stream().map(FileInfo::getName).toList());
+        assertEquals("d", page.getNextCursor());
+        assertNull(storage.getFileInfoPage(dir, "c", 2).getNextCursor());
+        try (Stream<FileInfo> stream = storage.streamFileInfos(dir)) {
+            assertEquals(1, stream.filter(FileInfo::isDirectory).count());
+        }
+        assertThrows(NotFoundException.class, () -> storage.getFileInfolist(dir.resolve("a")));
+    }
+
+    @Test
+    void move_shouldReparentTheSubtree() {
+        storage.create(root.resolve("src/nested/f.txt"), EntryType.FILE);
+        storage.append(root.resolve("src/nested/f.txt"), "hello".getBytes());
+
+        storage.move(root.resolve("src"), root.resolve("dst/moved"));
+
+        assertNull(storage.entryType(root.resolve("src")));
+        assertEquals(5, storage.getFileInfo(root.resolve("dst/moved/nested/f.txt")).getSize());
+        assertThrows(FileOperationException.class, () -> storage.move(root.resolve("src"), root.resolve("x")));
+    }
+
+    @Test
+    void copy_shouldBeIndependentOfTheSource() {
+        Path source = root.resolve("src/f.txt");
+        storage.create(source, EntryType.FILE);
+        storage.append(source, "hello".getBytes());
+
+        storage.copy(root.resolve("src"), root.resolve("dst"));
+        storage.append(source, " world".getBytes());
+
+        assertEquals(5, storage.getFileInfo(root.resolve("dst/f.txt")).getSize());
+        assertEquals("hello", new String(toBytes(storage.read(root.resolve("dst/f.txt"), 0, 100))));
+        assertEquals(2L * CHUNK, storage.allocatedBytes());
+    }
+
+    @Test
+    void delete_shouldReleaseMemoryAndFailLaterAppends() {
+        Path file = root.resolve("dir/f.txt");
+        storage.create(file, EntryType.FILE);
+        storage.append(file, randomBytes(40));
+
+        storage.delete(root.resolve("dir"));
+
+        assertNull(storage.entryType(file));
+        assertEquals(0, storage.allocatedBytes());
+        assertThrows(NotFoundException.class, () -> storage.append(file, new byte[1]));
+        assertThrows(NotFoundException.class, () -> storage.delete(file));
+    }
+
+    @Test
+    void deleteRoot_shouldEmptyIt() {
+        storage.create(root.resolve("a/b.txt"), EntryType.FILE);
+
+        storage.delete(root);
+
+        assertEquals(EntryType.FOLDER, storage.entryType(root));
+        assertTrue(storage.getFileInfolist(root).isEmpty());
+    }
+
+    @Test
+    void append_overBudget_shouldFailWithoutChangingTheFile() {
+        InMemoryFileStorage small = newStorage(2 * CHUNK);
+        Path file = root.resolve("f.bin");
+        small.create(file, EntryType.FILE);
+        small.append(file, randomBytes(CHUNK));
+
+        assertThrows(FileOperationException.class, () -> small.append(file, randomBytes(2 * CHUNK)));
+        assertEquals(CHUNK, small.getFileInfo(file).getSize());
+        assertEquals(CHUNK, small.allocatedBytes());
+    }
+
+    @Test
+    void searchContent_shouldFindLinesAcrossChunksAndFilterByRelativePath() throws Exception {
+        storage.create(root.resolve("logs/a.log"), EntryType.FILE);
+        storage.create(root.resolve("logs/b.txt"), EntryType.FILE);
+        // the second line spans the first chunk boundary
+        storage.append(root.resolve("logs/a.log"), "first line\nthe needle here\nlast".getBytes());
+        storage.append(root.resolve("logs/b.txt"), "needle too".getBytes());
+
+        List<ContentMatch> matches = new ArrayList<>();
+        try (ContentSearch search = storage.searchContent(root, relative -> relative.toString().endsWith(".log"),
+                ContentPattern.literal("needle"))) {
+            while (!search.isDone()) {
+                ContentMatch match = search.poll(10, TimeUnit.SECONDS);
+                if (match != null) matches.add(match);
+            }
+        }
+
+        assertEquals(1, matches.size());
+        assertEquals(root.resolve("logs/a.log").toString(), matches.get(0).getPath());
+        assertEquals(15, matches.get(0).getOffset());
+        assertEquals("the needle here", matches.get(0).getLine());
+    }
+
+    @Test
+    void concurrentReads_shouldNeverSeeAPartialAppend() throws Exception {
+        Path file = root.resolve("log.bin");
+        storage.create(file, EntryType.FILE);
+        int record = 24;    // not a multiple of the chunk size, so records straddle chunks
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 1; i <= 2000; i++) {
+                    byte[] data = new byte[record];
+                    Arrays.fill(data, (byte) i);
+                    storage.append(file, data);
+                }
+                done.set(true);
+            });
+            Future<?> reader = pool.submit(() -> {
+                while (!done.get()) {
+                    long size = storage.getFileInfo(file).getSize();
+                    assertEquals(0, size % record, "size must only move by whole records");
+                    if (size == 0) continue;
+                    byte[] all = toBytes(storage.read(file, 0, (int) size));
+                    for (int r = 0; r < all.length; r += record) {
+                        for (int k = 1; k < record; k++) {
+                            assertEquals(all[r], all[r + k], "torn record at " + r);
+                        }
+                    }
+                }
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
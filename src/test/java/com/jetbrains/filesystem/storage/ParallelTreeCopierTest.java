@@ -0,0 +1,74 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTreeCopierTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ParallelTreeCopier copier;
+
+    @BeforeEach
+    void setUp() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getCopy().setParallelism(4);
+        props.getCopy().setTransferThreshold(1024);
+        copier = new ParallelTreeCopier(props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        copier.close();
+    }
+
+    @Test
+    void copy_shouldReproduceTreeWithSmallAndLargeFiles() throws IOException {
+        Path src = tempDir.resolve("src");
+        Files.createDirectories(src.resolve("empty"));
+        for (int d = 0; d < 5; d++) {
+            Path dir = Files.createDirectories(src.resolve("dir" + d + "/nested"));
+            for (int f = 0; f < 20; f++) {
+                Files.writeString(dir.resolve("f" + f + ".txt"), "file " + d + "/" + f);
+            }
+        }
+        byte[] large = new byte[64 * 1024];
+        new Random(1).nextBytes(large);
+        Files.write(src.resolve("large.bin"), large);
+
+        Path dst = tempDir.resolve("dst");
+        copier.copy(src, dst);
+
+        assertTrue(Files.isDirectory(dst.resolve("empty")));
+        assertEquals("file 3/7", Files.readString(dst.resolve("dir3/nested/f7.txt")));
+        assertArrayEquals(large, Files.readAllBytes(dst.resolve("large.bin")));
+        try (var files = Files.walk(dst)) {
+            assertEquals(5 * 20 + 1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void copy_singleLargeFile_shouldOverwriteTarget() throws IOException {
+        byte[] data = new byte[4096];
+        new Random(2).nextBytes(data);
+        Path src = tempDir.resolve("a.bin");
+        Path dst = tempDir.resolve("b.bin");
+        Files.write(src, data);
+        Files.writeString(dst, "previous content that is longer than nothing");
+
+        copier.copy(src, dst);
+
+        assertArrayEquals(data, Files.readAllBytes(dst));
+    }
+}
@@ -0,0 +1,117 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionalFileAppenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileChannelPool channelPool;
+    private PositionalFileAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getChannelPool().setMaxOpenFiles(2);
+        channelPool = new FileChannelPool(props);
+        appender = new PositionalFileAppender(props, channelPool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channelPool.close();
+    }
+
+    @Test
+    void append_shouldReturnOffsetAfterExistingContent() throws IOException {
+        Path file = tempDir.resolve("log.txt");
+        Files.writeString(file, "hello ");
+
+        assertEquals(6, appender.append(file, "world".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(11, appender.append(file, "!".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("hello world!", Files.readString(file));
+    }
+
+    @Test
+    void concurrentAppends_shouldEachLandAtTheirOwnOffset() throws Exception {
+        Path file = tempDir.resolve("hot.log");
+        Files.createFile(file);
+        int writers = 8;
+        int perWriter = 200;
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            byte[] record = new byte[16];
+            Arrays.fill(record, (byte) ('a' + w));
+            results.add(pool.submit(() -> {
+                long[] offsets = new long[perWriter];
+                for (int i = 0; i < perWriter; i++) {
+                    offsets[i] = appender.append(file, record);
+                }
+                return offsets;
+            }));
+        }
+
+        List<long[]> offsets = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            offsets.add(result.get());
+        }
+        pool.shutdown();
+        byte[] content = Files.readAllBytes(file);
+
+        assertEquals(writers * perWriter * 16, content.length);
+        for (int w = 0; w < writers; w++) {
+            for (long offset : offsets.get(w)) {
+                for (int i = 0; i < 16; i++) {
+                    assertEquals('a' + w, content[(int) offset + i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void invalidate_shouldReopenReplacedFile() throws IOException {
+        Path file = tempDir.resolve("log.txt");
+        Files.writeString(file, "0123456789");
+        assertEquals(10, appender.append(file, new byte[]{'x'}));
+
+        Files.delete(file);
+        appender.invalidate(tempDir);
+        channelPool.invalidate(tempDir);
+        Files.createFile(file);
+
+        assertEquals(0, appender.append(file, new byte[]{'y'}));
+        assertEquals("y", Files.readString(file));
+    }
+
+    @Test
+    void manyFiles_shouldKeepOffsetsCorrectBeyondMaxOpenFiles() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Path file = tempDir.resolve("f" + i);
+            Files.createFile(file);
+            assertEquals(0, appender.append(file, new byte[]{1}));
+        }
+        Path first = tempDir.resolve("f0");
+        assertEquals(1, appender.append(first, new byte[]{2}));
+        assertArrayEquals(new byte[]{1, 2}, Files.readAllBytes(first));
+    }
+}
@@ -0,0 +1,95 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.SegmentRange;
+import com.jetbrains.filesystem.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-range reads through every read path: positional reads, one mmap (file above the mmap
+ * threshold) and the block cache.
+ */
+public class RangeReadTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StorageFixture fixture;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (fixture != null) fixture.close();
+    }
+
+    private LocalFileStorage newStorage(boolean blockCache) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.setRootFolder(tempDir.toString());
+        props.getBlockCache().setEnabled(blockCache);
+        props.getBlockCache().setBlockSize(4096);
+        fixture = new StorageFixture(props);
+        return fixture.localStorage();
+    }
+
+    private byte[] writeFile(Path file, int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        Files.write(file, data);
+        return data;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100000, false", "11000000, false", "100000, true"})
+    void read_shouldReturnRangesInRequestOrder(int size, boolean blockCache) throws IOException {
+        Path file = tempDir.resolve("data.bin");
+        byte[] data = writeFile(file, size);
+        LocalFileStorage storage = newStorage(blockCache);
+
+        List<SegmentRange> ranges = List.of(
+                new SegmentRange(50_000, 1000),
+                new SegmentRange(10, 20),
+                new SegmentRange(20, 30),          // overlaps the previous one
+                new SegmentRange(50_000, 1000),    // duplicate
+                new SegmentRange(51_000, 10),      // adjacent
+                new SegmentRange(size - 5, 100));  // clamped at EOF
+
+        List<ByteBuffer> segments = storage.read(file, ranges);
+
+        assertEquals(ranges.size(), segments.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            SegmentRange range = ranges.get(i);
+            int from = (int) range.getOffset();
+            int to = Math.min(from + range.getLength(), size);
+            assertArrayEquals(Arrays.copyOfRange(data, from, to), toBytes(segments.get(i)), "range " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"-1, 10", "100, 10", "0, 0"})
+    void read_invalidRange_shouldThrow(long offset, int length) throws IOException {
+        Path file = tempDir.resolve("small.bin");
+        writeFile(file, 100);
+        LocalFileStorage storage = newStorage(false);
+
+        assertThrows(ValidationException.class,
+                () -> storage.read(file, List.of(new SegmentRange(0, 10), new SegmentRange(offset, length))));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,233 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.dto.file.ContentMatch;
+import com.jetbrains.filesystem.dto.file.EntryType;
+import com.jetbrains.filesystem.dto.file.FileInfo;
+import com.jetbrains.filesystem.dto.file.ListDirectoryResponse;
+import com.jetbrains.filesystem.exception.ConflictException;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedFileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private List<Path> shards;
+    private StorageFixture fixture;
+
+    private ShardedFileStorage newStorage(int prefixDepth) {
+        root = tempDir.resolve("virtual");
+        shards = List.of(tempDir.resolve("disk-a"), tempDir.resolve("disk-b"), tempDir.resolve("disk-c"));
+        FileServiceProperties props = new FileServiceProperties();
+        props.setRootFolder(root.toString());
+        props.getStorage().setBackend(StorageBackend.SHARDED);
+        props.getStorage().setShards(shards.stream().map(Path::toString).toList());
+        props.getStorage().setPrefixDepth(prefixDepth);
+        props.getTrash().setMaxDeletesPerSecond(0);
+        fixture = new StorageFixture(props);
+        return fixture.shardedStorage();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (fixture != null) fixture.close();
+    }
+
+    /**
+     * A top-level name placed on (or, if {@code same} is false, off) the shard of {@code other}.
+     */
+    private String topLevelName(ShardedFileStorage storage, String other, boolean same) {
+        Path otherShard = storage.shardOf(root.resolve(other));
+        for (int i = 0; ; i++) {
+            String name = "dir-" + i;
+            if (storage.shardOf(root.resolve(name)).equals(otherShard) == same && !name.equals(other)) {
+                return name;
+            }
+        }
+    }
+
+    @Test
+    void placement_shouldSpreadTopLevelEntriesAndKeepSubtreesTogether() {
+        ShardedFileStorage storage = newStorage(1);
+        Set<Path> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Path top = root.resolve("project-" + i);
+            used.add(storage.shardOf(top));
+            assertEquals(storage.shardOf(top), storage.shardOf(top.resolve("src/deep/file.txt")));
+        }
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    void create_shouldWriteToThePlacedShardOnly() throws IOException {
+        ShardedFileStorage storage = newStorage(1);
+        Path file = root.resolve("docs/readme.txt");
+
+        storage.create(file, EntryType.FILE);
+        storage.append(file, "hello".getBytes());
+
+        Path shard = storage.shardOf(file);
+        assertEquals("hello", Files.readString(shard.resolve("docs/readme.txt")));
+        for (Path other : shards) {
+            if (!other.equals(shard)) assertFalse(Files.exists(other.resolve("docs")));
+        }
+        assertFalse(Files.exists(root.resolve("docs")));
+
+        FileInfo info = storage.getFileInfo(file);
+        assertEquals(file.toString(), info.getPath());
+        assertEquals(5, info.getSize());
+        assertEquals("ello", new String(toBytes(storage.read(file, 1, 10))));
+    }
+
+    @Test
+    void listRoot_shouldMergeAllShards() {
+        ShardedFileStorage storage = newStorage(1);
+        for (int i = 0; i < 20; i++) {
+            storage.create(root.resolve("entry-" + i), i % 2 == 0 ? EntryType.FOLDER : EntryType.FILE);
+        }
+
+        List<FileInfo> all = storage.getFileInfolist(root);
+        assertEquals(20, all.size());
+        assertTrue(all.stream().allMatch(info -> info.getPath().equals(root.resolve(info.getName()).toString())));
+
+        ListDirectoryResponse page = storage.getFileInfoPage(root, "entry-1", 3);
+        assertEquals(List.of("entry-10", "entry-11", "entry-12"),
+                page.getFileInfos().stream().map(FileInfo::getName).toList());
+        assertEquals("entry-12", page.getNextCursor());
+        ListDirectoryResponse last = storage.getFileInfoPage(root, "entry-7", 3);
+        assertEquals(List.of("entry-8", "entry-9"), last.getFileInfos().stream().map(FileInfo::getName).toList());
+        assertNull(last.getNextCursor());
+
+        try (Stream<FileInfo> stream = storage.streamFileInfos(root)) {
+            assertEquals(20, stream.count());
+        }
+    }
+
+    @Test
+    void listRoot_shouldHideShardTrash() {
+        ShardedFileStorage storage = newStorage(1);
+        Path dir = root.resolve("gone");
+        storage.create(dir.resolve("f.txt"), EntryType.FILE);
+
+        storage.delete(dir);
+
+        assertNull(storage.entryType(dir));
+        assertTrue(storage.getFileInfolist(root).isEmpty());
+    }
+
+    @Test
+    void move_withinShard_shouldRename() throws IOException {
+        ShardedFileStorage storage = newStorage(1);
+        String target = topLevelName(storage, "source", true);
+        storage.create(root.resolve("source/f.txt"), EntryType.FILE);
+        Object fileKey = Files.readAttributes(storage.shardOf(root.resolve("source")).resolve("source/f.txt"),
+                BasicFileAttributes.class).fileKey();
+
+        storage.move(root.resolve("source"), root.resolve(target));
+
+        Path moved = storage.shardOf(root.resolve(target)).resolve(target).resolve("f.txt");
+        assertEquals(fileKey, Files.readAttributes(moved, BasicFileAttributes.class).fileKey());
+        assertNull(storage.entryType(root.resolve("source")));
+    }
+
+    @Test
+    void move_acrossShards_shouldCopyAndDelete() throws IOException {
+        ShardedFileStorage storage = newStorage(1);
+        String target = topLevelName(storage, "source", false);
+        Path sourceShard = storage.shardOf(root.resolve("source"));
+        storage.create(root.resolve("source/nested/f.txt"), EntryType.FILE);
+        storage.append(root.resolve("source/nested/f.txt"), "payload".getBytes());
+
+        storage.move(root.resolve("source"), root.resolve(target));
+
+        assertFalse(Files.exists(sourceShard.resolve("source")));
+        assertEquals("payload", Files.readString(storage.shardOf(root.resolve(target)).resolve(target + "/nested/f.txt")));
+        assertEquals(EntryType.FILE, storage.entryType(root.resolve(target + "/nested/f.txt")));
+    }
+
+    @Test
+    void copy_acrossShards_shouldKeepTheSource() {
+        ShardedFileStorage storage = newStorage(1);
+        String target = topLevelName(storage, "source", false);
+        storage.create(root.resolve("source/f.txt"), EntryType.FILE);
+        storage.append(root.resolve("source/f.txt"), "abc".getBytes());
+
+        storage.copy(root.resolve("source"), root.resolve(target));
+
+        assertEquals(3, storage.getFileInfo(root.resolve("source/f.txt")).getSize());
+        assertEquals(3, storage.getFileInfo(root.resolve(target + "/f.txt")).getSize());
+    }
+
+    @Test
+    void deeperPrefix_shouldMergeSharedParentsAndMoveThemAsAWhole() {
+        ShardedFileStorage storage = newStorage(2);
+        for (int i = 0; i < 12; i++) {
+            storage.create(root.resolve("users/user-" + i + "/profile.txt"), EntryType.FILE);
+        }
+
+        assertEquals(EntryType.FOLDER, storage.entryType(root.resolve("users")));
+        assertEquals(12, storage.getFileInfolist(root.resolve("users")).size());
+        assertEquals(1, storage.getFileInfolist(root).size());
+        assertThrows(ConflictException.class, () -> storage.create(root.resolve("users"), EntryType.FILE));
+
+        storage.move(root.resolve("users"), root.resolve("people"));
+
+        assertNull(storage.entryType(root.resolve("users")));
+        assertEquals(12, storage.getFileInfolist(root.resolve("people")).size());
+        assertEquals(EntryType.FILE, storage.entryType(root.resolve("people/user-7/profile.txt")));
+
+        storage.delete(root.resolve("people"));
+        assertThrows(NotFoundException.class, () -> storage.getFileInfolist(root.resolve("people")));
+    }
+
+    @Test
+    void searchContent_shouldCoverAllShardsAndReportVirtualPaths() throws Exception {
+        ShardedFileStorage storage = newStorage(1);
+        Set<Path> used = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            Path file = root.resolve("project-" + i + "/app.log");
+            storage.create(file, EntryType.FILE);
+            storage.append(file, ("boot\nrequest req-" + i + "\n").getBytes());
+            used.add(storage.shardOf(file));
+        }
+        storage.create(root.resolve("gone/app.log"), EntryType.FILE);
+        storage.append(root.resolve("gone/app.log"), "request req-x\n".getBytes());
+        storage.delete(root.resolve("gone"));
+        assertTrue(used.size() > 1);
+
+        Set<String> paths = new HashSet<>();
+        try (ContentSearch search = storage.searchContent(root, relative -> true, ContentPattern.literal("request"))) {
+            while (!search.isDone()) {
+                ContentMatch match = search.poll(10, TimeUnit.SECONDS);
+                if (match != null) paths.add(match.getPath());
+            }
+        }
+
+        assertEquals(12, paths.size());
+        assertTrue(paths.contains(root.resolve("project-7/app.log").toString()));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
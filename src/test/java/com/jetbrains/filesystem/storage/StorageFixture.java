@@ -0,0 +1,80 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.lock.FileLockRegistry;
+import com.jetbrains.filesystem.lock.LocalCaffeineLockRegistry;
+import com.jetbrains.filesystem.lock.LockMode;
+import com.jetbrains.filesystem.lock.StripedLockRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The storage components Spring would wire for {@code props}, for tests and benchmarks that run without a
+ * context: the lock registry and appender follow {@code lock.mode} and {@code append.mode}, everything else
+ * is built from the same properties. Callers set only the properties they vary. Closing it stops the
+ * components' threads.
+ */
+public class StorageFixture implements AutoCloseable {
+    private final FileServiceProperties props;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FileLockRegistry locks;
+    private final FileChannelPool channelPool;
+    private final FileAppender appender;
+    private final BlockCache blockCache;
+    private final FileMetadataCache metadataCache;
+    private final ParallelTreeCopier copier;
+    private final TrashPurger trash;
+    private final FileChecksums checksums;
+    private final ContentSearcher searcher;
+
+    public StorageFixture(FileServiceProperties props) {
+        this.props = props;
+        this.locks = props.getLock().getMode() == LockMode.CAFFEINE
+                ? new LocalCaffeineLockRegistry(meterRegistry)
+                : new StripedLockRegistry(props, meterRegistry);
+        this.channelPool = new FileChannelPool(props);
+        this.appender = switch (props.getAppend().getMode()) {
+            case LOCKING -> new LockingFileAppender(locks, channelPool);
+            case POSITIONAL -> new PositionalFileAppender(props, channelPool);
+            case GROUP_COMMIT -> new GroupCommitFileAppender(props, channelPool, locks);
+        };
+        this.blockCache = new BlockCache(props, meterRegistry);
+        this.metadataCache = new FileMetadataCache(props, meterRegistry);
+        this.copier = new ParallelTreeCopier(props);
+        this.trash = new TrashPurger(props, meterRegistry);
+        this.checksums = new FileChecksums(props, meterRegistry);
+        this.searcher = new ContentSearcher(props, meterRegistry);
+    }
+
+    public LocalFileStorage localStorage() {
+        return new LocalFileStorage(appender, channelPool, blockCache, metadataCache, copier, trash, checksums, searcher);
+    }
+
+    public ShardedFileStorage shardedStorage() {
+        return new ShardedFileStorage(props, appender, channelPool, blockCache, metadataCache, copier, trash,
+                checksums, searcher);
+    }
+
+    public SimpleMeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    public FileMetadataCache metadataCache() {
+        return metadataCache;
+    }
+
+    public TrashPurger trash() {
+        return trash;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (appender instanceof GroupCommitFileAppender groupCommit) {
+            groupCommit.close();
+        }
+        trash.close();
+        searcher.close();
+        copier.close();
+        metadataCache.close();
+        channelPool.close();
+    }
+}
@@ -0,0 +1,94 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrashPurgerTest {
+
+    @TempDir
+    Path root;
+
+    private TrashPurger trash;
+
+    private TrashPurger newPurger(boolean enabled) {
+        FileServiceProperties props = new FileServiceProperties();
+        props.setRootFolder(root.toString());
+        props.getTrash().setEnabled(enabled);
+        props.getTrash().setMaxDeletesPerSecond(0);
+        trash = new TrashPurger(props, new SimpleMeterRegistry());
+        return trash;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (trash != null) trash.close();
+    }
+
+    @Test
+    void delete_shouldMoveTreeAwayAndPurgeItInBackground() throws IOException {
+        TrashPurger purger = newPurger(true);
+        Path dir = createTree(root.resolve("big"), 3, 10);
+
+        purger.delete(dir);
+
+        assertFalse(Files.exists(dir));
+        assertTrue(purger.awaitPurged(10, TimeUnit.SECONDS));
+        assertEquals(0, purger.pendingEntries());
+        try (var entries = Files.list(root.resolve(".trash"))) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    @Test
+    void constructor_shouldPurgeTrashLeftFromPreviousRun() throws IOException {
+        createTree(root.resolve(".trash/leftover"), 2, 5);
+
+        TrashPurger purger = newPurger(true);
+
+        assertTrue(purger.awaitPurged(10, TimeUnit.SECONDS));
+        assertFalse(Files.exists(root.resolve(".trash/leftover")));
+    }
+
+    @Test
+    void isTrash_shouldMatchTrashDirectoryAndItsContent() {
+        TrashPurger purger = newPurger(true);
+
+        assertTrue(purger.isTrash(root.resolve(".trash")));
+        assertTrue(purger.isTrash(root.resolve(".trash/x/y")));
+        assertFalse(purger.isTrash(root.resolve("a/.trash")));
+    }
+
+    @Test
+    void delete_whenDisabled_shouldDeleteSynchronously() throws IOException {
+        TrashPurger purger = newPurger(false);
+        Path dir = createTree(root.resolve("dir"), 1, 3);
+
+        purger.delete(dir);
+
+        assertFalse(Files.exists(dir));
+        assertFalse(Files.exists(root.resolve(".trash")));
+        assertFalse(purger.isTrash(root.resolve(".trash")));
+    }
+
+    private static Path createTree(Path dir, int depth, int filesPerDir) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < filesPerDir; i++) {
+            Files.writeString(dir.resolve("f" + i), "x");
+        }
+        if (depth > 1) {
+            createTree(dir.resolve("a"), depth - 1, filesPerDir);
+            createTree(dir.resolve("b"), depth - 1, filesPerDir);
+        }
+        return dir;
+    }
+}
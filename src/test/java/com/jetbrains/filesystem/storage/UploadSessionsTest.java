@@ -0,0 +1,148 @@
+package com.jetbrains.filesystem.storage;
+
+import com.jetbrains.filesystem.config.FileServiceProperties;
+import com.jetbrains.filesystem.exception.ConflictException;
+import com.jetbrains.filesystem.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadSessionsTest {
+
+    @TempDir
+    Path tmp;
+
+    private UploadSessions uploads;
+
+    @BeforeEach
+    void setUp() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getUpload().setStagingDir(tmp.resolve("staging").toString());
+        uploads = new UploadSessions(props);
+    }
+
+    @Test
+    void write_shouldAppendChunksAtConfirmedOffset() throws IOException {
+        UploadSessions.Session session = uploads.begin(tmp.resolve("target.bin"));
+
+        assertEquals(3, uploads.write(session.id(), 0, stream("abc")));
+        assertEquals(5, uploads.write(session.id(), 3, stream("de")));
+
+        assertEquals(5, uploads.offset(session));
+        assertEquals("abcde", Files.readString(session.staging()));
+    }
+
+    @Test
+    void write_wrongOffset_shouldConflictAndKeepData() throws IOException {
+        UploadSessions.Session session = uploads.begin(tmp.resolve("target.bin"));
+        uploads.write(session.id(), 0, stream("abc"));
+
+        assertThrows(ConflictException.class, () -> uploads.write(session.id(), 0, stream("xyz")));
+        assertEquals("abc", Files.readString(session.staging()));
+    }
+
+    @Test
+    void write_brokenStream_shouldResumeFromWhatWasWritten() throws IOException {
+        UploadSessions.Session session = uploads.begin(tmp.resolve("target.bin"));
+        byte[] data = new byte[200_000];
+        new Random(7).nextBytes(data);
+
+        // the connection drops after 100000 bytes
+        InputStream broken = new InputStream() {
+            private int pos;
+
+            @Override
+            public int read() throws IOException {
+                if (pos == 100_000) throw new IOException("connection reset");
+                return data[pos++] & 0xff;
+            }
+        };
+        assertThrows(RuntimeException.class, () -> uploads.write(session.id(), 0, broken));
+
+        long offset = uploads.offset(session);
+        assertEquals(100_000, offset);
+        uploads.write(session.id(), offset, new ByteArrayInputStream(data, (int) offset, data.length - (int) offset));
+        assertArrayEquals(data, Files.readAllBytes(session.staging()));
+    }
+
+    @Test
+    void remove_shouldDeleteStagingFile() {
+        UploadSessions.Session session = uploads.begin(tmp.resolve("target.bin"));
+
+        uploads.remove(session);
+
+        assertFalse(Files.exists(session.staging()));
+        assertThrows(NotFoundException.class, () -> uploads.get(session.id()));
+    }
+
+    @Test
+    void lock_heldByAnotherCall_shouldConflict() throws Exception {
+        UploadSessions.Session session = uploads.begin(tmp.resolve("target.bin"));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            uploads.lock(session.id());
+            try {
+                locked.countDown();
+                done.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+                uploads.unlock(session);
+            }
+        });
+        holder.start();
+        locked.await();
+        try {
+            assertThrows(ConflictException.class, () -> uploads.write(session.id(), 0, stream("abc")));
+        } finally {
+            done.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void newInstance_shouldRemoveOnlyStagingFilesOlderThanTheIdleTimeout() throws IOException {
+        UploadSessions.Session live = uploads.begin(tmp.resolve("live.bin"));
+        UploadSessions.Session stale = uploads.begin(tmp.resolve("stale.bin"));
+        Files.setLastModifiedTime(stale.staging(), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        FileServiceProperties props = new FileServiceProperties();
+        props.getUpload().setStagingDir(tmp.resolve("staging").toString());
+        new UploadSessions(props);
+
+        assertTrue(Files.exists(live.staging()));
+        assertFalse(Files.exists(stale.staging()));
+    }
+
+    @Test
+    void differentRoots_shouldStageInDifferentDirectories() {
+        FileServiceProperties props = new FileServiceProperties();
+        props.getUpload().setStagingDir(tmp.resolve("staging").toString());
+        props.setRootFolder(tmp.resolve("other-root").toString());
+        UploadSessions other = new UploadSessions(props);
+
+        Path mine = uploads.begin(tmp.resolve("a.bin")).staging().getParent();
+        Path theirs = other.begin(tmp.resolve("b.bin")).staging().getParent();
+
+        assertNotEquals(mine, theirs);
+        assertEquals(tmp.resolve("staging"), mine.getParent());
+        assertEquals(tmp.resolve("staging"), theirs.getParent());
+    }
+
+    private static InputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes());
+    }
+}
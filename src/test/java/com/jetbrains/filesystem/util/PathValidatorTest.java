@@ -44,6 +44,11 @@ public class PathValidatorTest {
         assertThrows(ValidationException.class, () -> validator.toAbsolute("../../etc/passwd"));
     }
 
+    @Test
+    void toAbsolute_shouldRejectTrashDirectory() {
+        assertThrows(ValidationException.class, () -> validator.toAbsolute(".trash/some-entry"));
+    }
+
     @Test
     void toRelative_shouldReturnCleanRelativePath() {
         Path file = tempRoot.resolve("sub/file.txt");